@@ -0,0 +1,86 @@
+package cinema;
+
+public final class BookingStatistics {
+  static final BookingStatistics EMPTY =
+      new BookingStatistics(new long[SeatZone.COUNT], new long[SeatZone.COUNT]);
+
+  private final long soldTickets;
+  private final long income;
+  private final long seats;
+  private final long potentialIncome;
+  private final long[] soldTicketsByZone;
+  private final long[] seatsByZone;
+
+  private BookingStatistics(long[] soldTicketsByZone, long[] seatsByZone) {
+    long soldTickets = 0;
+    long income = 0;
+    long seats = 0;
+    long potentialIncome = 0;
+
+    for (SeatZone zone : SeatZone.values()) {
+      soldTickets += soldTicketsByZone[zone.ordinal()];
+      income += soldTicketsByZone[zone.ordinal()] * zone.getTicketPrice();
+      seats += seatsByZone[zone.ordinal()];
+      potentialIncome += seatsByZone[zone.ordinal()] * zone.getTicketPrice();
+    }
+
+    this.soldTickets = soldTickets;
+    this.income = income;
+    this.seats = seats;
+    this.potentialIncome = potentialIncome;
+    this.soldTicketsByZone = soldTicketsByZone;
+    this.seatsByZone = seatsByZone;
+  }
+
+  static BookingStatistics forSeats(long[] seatsByZone) {
+    return new BookingStatistics(new long[SeatZone.COUNT], seatsByZone.clone());
+  }
+
+  public long getSoldTickets() {
+    return soldTickets;
+  }
+
+  public long getIncome() {
+    return income;
+  }
+
+  public long getSeats() {
+    return seats;
+  }
+
+  public long getPotentialIncome() {
+    return potentialIncome;
+  }
+
+  public long getSoldTickets(SeatZone zone) {
+    return soldTicketsByZone[zone.ordinal()];
+  }
+
+  public long getSeats(SeatZone zone) {
+    return seatsByZone[zone.ordinal()];
+  }
+
+  public double getOccupancyPercentage() {
+    return 100.0 * (soldTickets / (double) seats);
+  }
+
+  public double getOccupancyPercentage(SeatZone zone) {
+    return 100.0 * (getSoldTickets(zone) / (double) getSeats(zone));
+  }
+
+  BookingStatistics withSoldTickets(long[] soldTicketsByZone) {
+    return new BookingStatistics(soldTicketsByZone.clone(), seatsByZone);
+  }
+
+  BookingStatistics plus(BookingStatistics other) {
+    long[] combinedSoldTicketsByZone = soldTicketsByZone.clone();
+    long[] combinedSeatsByZone = seatsByZone.clone();
+
+    for (int zone = 0; zone < SeatZone.COUNT; zone++) {
+      combinedSoldTicketsByZone[zone] += other.soldTicketsByZone[zone];
+      combinedSeatsByZone[zone] += other.seatsByZone[zone];
+    }
+
+    return new BookingStatistics(combinedSoldTicketsByZone, combinedSeatsByZone);
+  }
+}
@@ -1,6 +1,8 @@
 package cinema;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Currency;
 import java.util.List;
 import java.util.Scanner;
@@ -13,7 +15,9 @@ public class Cinema {
 
   public static final String CURRENCY_SYMBOL = Currency.getInstance("USD").getSymbol();
 
-  private final List<CinemaHall> cinemaHalls = new ArrayList<>();
+  private final List<HallLayout> halls = new ArrayList<>();
+  private volatile Screening[] screenings = new Screening[0];
+  private int screeningCount;
 
   public static void main(String[] args) {
     Cinema cinema = new Cinema();
@@ -24,22 +28,23 @@ public class Cinema {
     System.out.println("Enter the number of seats in each row:");
     int seatsInRow = scanner.nextInt();
 
-    cinema.initializeCinemaHall(rows, seatsInRow);
+    HallLayout hall = cinema.addHall("Screen 1", rows, seatsInRow);
+    CinemaHall seating = cinema.scheduleScreening(hall, LocalDateTime.now()).getSeating();
 
     while (true) {
       Event event = cinema.getUserEvent(scanner);
 
       switch (event) {
         case PRINT_CINEMA_HALL_SCHEMA:
-          cinema.getFirstCinemaHall().printCinemaHallSchema();
+          seating.printCinemaHallSchema();
 
           break;
         case BUY_CINEMA_HALL_TICKET:
-          cinema.getFirstCinemaHall().bookCinemaHallSeat(scanner);
+          seating.bookCinemaHallSeat(scanner);
 
           break;
         case PRINT_CINEMA_HALL_STATS:
-          cinema.getFirstCinemaHall().printCinemaHallStats();
+          seating.printCinemaHallStats();
 
           break;
         default:
@@ -48,187 +53,63 @@ public class Cinema {
     }
   }
 
-  public List<CinemaHall> getCinemaHalls() {
-    return cinemaHalls;
+  public synchronized List<HallLayout> getHalls() {
+    return new ArrayList<>(halls);
   }
 
-  public CinemaHall getFirstCinemaHall() {
-    return getCinemaHalls().get(0);
+  public HallLayout addHall(String name, int rows, int seatsInRow) {
+    return addHall(new HallLayout(name, rows, seatsInRow));
   }
 
-  public void initializeCinemaHall(int rows, int seatsInRow) {
-    getCinemaHalls().add(new CinemaHall(rows, seatsInRow));
-  }
+  public synchronized HallLayout addHall(HallLayout hall) {
+    halls.add(hall);
 
-  public Event getUserEvent(Scanner scanner) {
-    System.out.println();
-    System.out.println("1. Show the seats");
-    System.out.println("2. Buy a ticket");
-    System.out.println("3. Statistics");
-    System.out.println("0. Exit");
-
-    return Event.getInstance(scanner.nextInt());
+    return hall;
   }
-}
-
-class CinemaHall {
-  private int income;
-  private final int rows;
-  private final int seatsInRow;
-  private int purchasedTickets;
-  private final String[][] schema;
-
-  CinemaHall(int rows, int seatsInRow) {
-    this.income = 0;
-    this.rows = rows;
-    this.seatsInRow = seatsInRow;
-    this.purchasedTickets = 0;
-    this.schema = generateSchema();
-  }
-
-  public void printCinemaHallSchema() {
-    System.out.println();
-    System.out.println("Cinema:");
-    print2dArray(getSchema());
-  }
-
-  public void bookCinemaHallSeat(Scanner scanner) {
-    while (true) {
-      try {
-        System.out.println();
-        System.out.println("Enter a row number:");
-        int rowNumber = scanner.nextInt();
-        System.out.println("Enter a seat number in that row:");
-        int seatNumber = scanner.nextInt();
 
-        if (rowNumber == 0 || seatNumber == 0) {
-          throw new NullPointerException();
-        }
+  public synchronized Screening scheduleScreening(HallLayout hall, LocalDateTime startsAt) {
+    Screening[] currentScreenings = screenings;
 
-        Availability seatAvailability =
-            Availability.getInstance(getSchema()[rowNumber][seatNumber]);
-
-        if (Availability.BOOKED.equals(seatAvailability)) {
-          System.out.println();
-          System.out.println("That ticket has already been purchased!");
-        } else {
-          int ticketPrice = calculateTicketPrice(rowNumber);
-
-          System.out.println();
-          System.out.printf("Ticket price: %s%d%n", Cinema.CURRENCY_SYMBOL, ticketPrice);
-
-          incrementIncome(ticketPrice);
-          incrementPurchasedTickets();
-          getSchema()[rowNumber][seatNumber] = Availability.BOOKED.getCode();
-
-          break;
-        }
-      } catch (ArrayIndexOutOfBoundsException | NullPointerException e) {
-        System.out.println();
-        System.out.println("Wrong input!");
-      }
+    if (screeningCount == currentScreenings.length) {
+      currentScreenings = Arrays.copyOf(currentScreenings, Math.max(16, screeningCount * 2));
     }
-  }
-
-  public void printCinemaHallStats() {
-    System.out.println();
-    System.out.printf("Number of purchased tickets: %d%n", getPurchasedTickets());
-    System.out.printf("Percentage: %.2f%s%n", calculateBookedSeatsToTotalSeatsPercentage(), "%");
-    System.out.printf("Current income: %s%d%n", Cinema.CURRENCY_SYMBOL, getIncome());
-    System.out.printf("Total income: %s%d%n", Cinema.CURRENCY_SYMBOL, calculateTotalIncome());
-  }
-
-  private int getRows() {
-    return rows;
-  }
-
-  private int getSeatsInRow() {
-    return seatsInRow;
-  }
-
-  private int getIncome() {
-    return income;
-  }
-
-  private void incrementIncome(int ticketPrice) {
-    this.income += ticketPrice;
-  }
 
-  private int getPurchasedTickets() {
-    return purchasedTickets;
-  }
+    Screening screening = new Screening(screeningCount, hall, startsAt);
 
-  private void incrementPurchasedTickets() {
-    this.purchasedTickets += 1;
-  }
+    currentScreenings[screeningCount++] = screening;
+    screenings = currentScreenings;
 
-  private String[][] getSchema() {
-    return schema;
+    return screening;
   }
 
-  private int getTotalSeats() {
-    return getRows() * getSeatsInRow();
-  }
+  public Screening getScreening(int id) {
+    Screening[] currentScreenings = screenings;
 
-  private String[][] generateSchema() {
-    String[][] array = new String[getRows() + 1][getSeatsInRow() + 1];
-
-    for (int i = 0; i < array.length; i++) {
-      for (int j = 0; j < array[i].length; j++) {
-        if (i == 0 && j == 0) {
-          array[i][j] = " ";
-        } else if (i == 0) {
-          array[i][j] = String.valueOf(j);
-        } else if (j == 0) {
-          array[i][j] = String.valueOf(i);
-        } else {
-          array[i][j] = Availability.FOR_SALE.getCode();
-        }
-      }
-    }
-
-    return array;
+    return id >= 0 && id < currentScreenings.length ? currentScreenings[id] : null;
   }
 
-  private int calculateTicketPrice(int rowNumber) {
-    int totalSeats = getTotalSeats();
-
-    if (totalSeats <= Cinema.SMALL_MEDIUM_ROOM_SIZE) {
-      return Cinema.SMALL_MEDIUM_ROOM_SIZE_TICKET_PRICE;
-    } else if (rowNumber <= getRows() / 2) {
-      return Cinema.FRONT_HALF_TICKET_PRICE;
-    } else {
-      return Cinema.BACK_HALF_TICKET_PRICE;
-    }
+  public synchronized List<Screening> getScreenings() {
+    return Arrays.asList(Arrays.copyOf(screenings, screeningCount));
   }
 
-  private int calculateTotalIncome() {
-    int totalSeats = getTotalSeats();
+  public BookingStatistics getStatistics() {
+    BookingStatistics statistics = BookingStatistics.EMPTY;
 
-    if (totalSeats <= Cinema.SMALL_MEDIUM_ROOM_SIZE) {
-      return totalSeats * Cinema.SMALL_MEDIUM_ROOM_SIZE_TICKET_PRICE;
-    } else {
-      int frontHalfRows = getRows() / 2;
-      int frontHalfSeatsPrice = frontHalfRows * getSeatsInRow() * Cinema.FRONT_HALF_TICKET_PRICE;
-      int backHalfSeatsPrice =
-          (getRows() - frontHalfRows) * getSeatsInRow() * Cinema.BACK_HALF_TICKET_PRICE;
-
-      return frontHalfSeatsPrice + backHalfSeatsPrice;
+    for (Screening screening : getScreenings()) {
+      statistics = statistics.plus(screening.getSeating().getStatistics());
     }
-  }
 
-  private double calculateBookedSeatsToTotalSeatsPercentage() {
-    return 100.0 * (getPurchasedTickets() / (double) getTotalSeats());
+    return statistics;
   }
 
-  private void print2dArray(String[][] array) {
-    for (String[] strings : array) {
-      for (String string : strings) {
-        System.out.print(string + " ");
-      }
+  public Event getUserEvent(Scanner scanner) {
+    System.out.println();
+    System.out.println("1. Show the seats");
+    System.out.println("2. Buy a ticket");
+    System.out.println("3. Statistics");
+    System.out.println("0. Exit");
 
-      System.out.println();
-    }
+    return Event.getInstance(scanner.nextInt());
   }
 }
 
@@ -254,28 +135,3 @@ enum Event {
     return null;
   }
 }
-
-enum Availability {
-  BOOKED("B"),
-  FOR_SALE("S");
-
-  private final String code;
-
-  Availability(String code) {
-    this.code = code;
-  }
-
-  public String getCode() {
-    return code;
-  }
-
-  public static Availability getInstance(String code) {
-    for (Availability availability : Availability.values()) {
-      if (availability.code.equalsIgnoreCase(code)) {
-        return availability;
-      }
-    }
-
-    return null;
-  }
-}
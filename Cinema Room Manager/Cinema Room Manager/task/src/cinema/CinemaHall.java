@@ -0,0 +1,229 @@
+package cinema;
+
+import java.util.Scanner;
+
+public class CinemaHall {
+  private final HallLayout layout;
+  private final int rows;
+  private final int seatsInRow;
+  private final StatisticsCounter statistics;
+  private final SeatMap seatMap;
+  private volatile SeatFinder seatFinder;
+  private volatile boolean seatFinderRequested;
+
+  CinemaHall(HallLayout layout) {
+    this.layout = layout;
+    this.rows = layout.getRows();
+    this.seatsInRow = layout.getSeatsInRow();
+    this.statistics = new StatisticsCounter(layout.getEmptyStatistics());
+    this.seatMap = new SeatMap(layout.getSeats(), this::refreshSeatFinder);
+  }
+
+  public void printCinemaHallSchema() {
+    StringBuilder schema = new StringBuilder();
+
+    schema.append(System.lineSeparator()).append("Cinema:").append(System.lineSeparator());
+    schema.append("  ");
+
+    for (int seat = 1; seat <= getSeatsInRow(); seat++) {
+      schema.append(seat).append(' ');
+    }
+
+    schema.append(System.lineSeparator());
+
+    for (int row = 0; row < getRows(); row++) {
+      schema.append(row + 1).append(' ');
+
+      for (int seat = 0; seat < getSeatsInRow(); seat++) {
+        schema.append(Availability.getInstance(getSeatMap().isBooked(row, seat)).getCode());
+        schema.append(' ');
+      }
+
+      schema.append(System.lineSeparator());
+    }
+
+    System.out.print(schema);
+  }
+
+  public void bookCinemaHallSeat(Scanner scanner) {
+    while (true) {
+      System.out.println();
+      System.out.println("Enter a row number:");
+      int rowNumber = scanner.nextInt();
+      System.out.println("Enter a seat number in that row:");
+      int seatNumber = scanner.nextInt();
+
+      if (!containsSeat(rowNumber, seatNumber)) {
+        System.out.println();
+        System.out.println("Wrong input!");
+      } else if (!bookSeat(rowNumber, seatNumber)) {
+        System.out.println();
+        System.out.println("That ticket has already been purchased!");
+      } else {
+        System.out.println();
+        System.out.printf(
+            "Ticket price: %s%d%n", Cinema.CURRENCY_SYMBOL, calculateTicketPrice(rowNumber));
+
+        break;
+      }
+    }
+  }
+
+  public boolean containsSeat(int rowNumber, int seatNumber) {
+    return getSeatMap().contains(rowNumber - 1, seatNumber - 1);
+  }
+
+  public boolean bookSeat(int rowNumber, int seatNumber) {
+    if (!getSeatMap().book(rowNumber - 1, seatNumber - 1)) {
+      return false;
+    }
+
+    refreshSeatFinder(rowNumber - 1, seatNumber - 1, seatNumber);
+    statistics.recordSoldTickets(getLayout().getZone(rowNumber), 1);
+
+    return true;
+  }
+
+  public boolean cancelSeat(int rowNumber, int seatNumber) {
+    if (!containsSeat(rowNumber, seatNumber)
+        || getLayout().isBlocked(rowNumber, seatNumber)
+        || !getSeatMap().cancel(rowNumber - 1, seatNumber - 1)) {
+      return false;
+    }
+
+    refreshSeatFinder(rowNumber - 1, seatNumber - 1, seatNumber);
+    statistics.recordSoldTickets(getLayout().getZone(rowNumber), -1);
+
+    return true;
+  }
+
+  public SeatBlock bookAdjacentSeats(int seatCount) {
+    for (int row = 0; row < getRows(); row++) {
+      int seat = getSeatMap().bookAdjacent(row, seatCount);
+
+      if (seat != SeatMap.NOT_FOUND) {
+        return recordBlock(row, seat, seatCount);
+      }
+    }
+
+    return null;
+  }
+
+  public SeatBlock bookBestSeats(int seatCount) {
+    while (true) {
+      long found = getSeatFinder().find(seatCount);
+
+      if (found == SeatFinder.NOT_FOUND) {
+        return null;
+      }
+
+      int row = (int) (found >>> 32);
+      int seat = (int) found;
+
+      if (getSeatMap().bookRun(row, seat, seatCount)) {
+        return recordBlock(row, seat, seatCount);
+      }
+
+      refreshSeatFinder(row, seat, seat + seatCount);
+    }
+  }
+
+  public void setSeatCentrality(double preferredRowNumber, double rowWeight, double seatWeight) {
+    getSeatFinder().setCentrality(preferredRowNumber - 1, rowWeight, seatWeight);
+  }
+
+  private SeatBlock recordBlock(int row, int seat, int seatCount) {
+    refreshSeatFinder(row, seat, seat + seatCount);
+    statistics.recordSoldTickets(getLayout().getZone(row + 1), seatCount);
+
+    return new SeatBlock(row + 1, seat + 1, seatCount);
+  }
+
+  public void printCinemaHallStats() {
+    BookingStatistics currentStatistics = getStatistics();
+
+    System.out.println();
+    System.out.printf("Number of purchased tickets: %d%n", currentStatistics.getSoldTickets());
+    System.out.printf("Percentage: %.2f%s%n", currentStatistics.getOccupancyPercentage(), "%");
+    System.out.printf(
+        "Current income: %s%d%n", Cinema.CURRENCY_SYMBOL, currentStatistics.getIncome());
+    System.out.printf(
+        "Total income: %s%d%n", Cinema.CURRENCY_SYMBOL, currentStatistics.getPotentialIncome());
+  }
+
+  public BookingStatistics getStatistics() {
+    return statistics.snapshot();
+  }
+
+  private int getRows() {
+    return rows;
+  }
+
+  private int getSeatsInRow() {
+    return seatsInRow;
+  }
+
+  private HallLayout getLayout() {
+    return layout;
+  }
+
+  private SeatMap getSeatMap() {
+    return seatMap;
+  }
+
+  private SeatFinder getSeatFinder() {
+    SeatFinder currentSeatFinder = seatFinder;
+
+    if (currentSeatFinder == null) {
+      synchronized (this) {
+        currentSeatFinder = seatFinder;
+
+        if (currentSeatFinder == null) {
+          seatFinderRequested = true;
+          currentSeatFinder = new SeatFinder(getSeatMap());
+          seatFinder = currentSeatFinder;
+        }
+      }
+    }
+
+    return currentSeatFinder;
+  }
+
+  private void refreshSeatFinder(int row, int fromSeat, int toSeat) {
+    SeatFinder currentSeatFinder = seatFinder;
+
+    if (currentSeatFinder == null && seatFinderRequested) {
+      // The finder is being built and may already have scanned past this change.
+      synchronized (this) {
+        currentSeatFinder = seatFinder;
+      }
+    }
+
+    if (currentSeatFinder != null) {
+      currentSeatFinder.refresh(row, fromSeat, toSeat);
+    }
+  }
+
+  private int calculateTicketPrice(int rowNumber) {
+    return getLayout().getZone(rowNumber).getTicketPrice();
+  }
+}
+
+enum Availability {
+  BOOKED("B"),
+  FOR_SALE("S");
+
+  private final String code;
+
+  Availability(String code) {
+    this.code = code;
+  }
+
+  public String getCode() {
+    return code;
+  }
+
+  public static Availability getInstance(boolean booked) {
+    return booked ? BOOKED : FOR_SALE;
+  }
+}
@@ -0,0 +1,247 @@
+package cinema;
+
+import java.util.Arrays;
+
+final class SeatFinder {
+  static final long NOT_FOUND = -1;
+
+  private static final int CACHED_SEAT_COUNTS = 8;
+
+  private final SeatMap seatMap;
+  private final int leafCount;
+  private final int nodesPerRow;
+  private final int[] prefixFree;
+  private final int[] suffixFree;
+  private final int[] longestFree;
+  private final int rowLeafCount;
+  private final int[] longestFreeInRows;
+  private final int[] cachedStarts;
+  private double preferredRow;
+  private double rowWeight;
+  private double seatWeight;
+
+  SeatFinder(SeatMap seatMap) {
+    this.seatMap = seatMap;
+    this.leafCount = Integer.highestOneBit(Math.max(seatMap.getSeatsInRow() - 1, 1)) * 2;
+    this.nodesPerRow = leafCount * 2;
+    this.prefixFree = new int[Math.multiplyExact(seatMap.getRows(), nodesPerRow)];
+    this.suffixFree = new int[prefixFree.length];
+    this.longestFree = new int[prefixFree.length];
+    this.rowLeafCount = Integer.highestOneBit(Math.max(seatMap.getRows() - 1, 1)) * 2;
+    this.longestFreeInRows = new int[rowLeafCount * 2];
+    this.cachedStarts = new int[Math.multiplyExact(seatMap.getRows(), CACHED_SEAT_COUNTS)];
+
+    for (int row = 0; row < seatMap.getRows(); row++) {
+      refresh(row, 0, seatMap.getSeatsInRow());
+    }
+
+    setCentrality((seatMap.getRows() - 1) / 2.0, 1, 1);
+  }
+
+  synchronized void setCentrality(double preferredRow, double rowWeight, double seatWeight) {
+    if (rowWeight < 0 || seatWeight < 0) {
+      throw new IllegalArgumentException("Centrality weights must not be negative");
+    }
+
+    this.preferredRow = preferredRow;
+    this.rowWeight = rowWeight;
+    this.seatWeight = seatWeight;
+  }
+
+  synchronized void refresh(int row, int fromSeat, int toSeat) {
+    int base = row * nodesPerRow;
+
+    for (int seat = fromSeat; seat < toSeat; seat++) {
+      int free = seatMap.isBooked(row, seat) ? 0 : 1;
+      int node = base + leafCount + seat;
+
+      prefixFree[node] = free;
+      suffixFree[node] = free;
+      longestFree[node] = free;
+    }
+
+    for (int from = (leafCount + fromSeat) >>> 1, to = (leafCount + toSeat - 1) >>> 1;
+        from > 0;
+        from >>>= 1, to >>>= 1) {
+      for (int node = from; node <= to; node++) {
+        combine(base, node);
+      }
+    }
+
+    int node = rowLeafCount + row;
+
+    Arrays.fill(cachedStarts, row * CACHED_SEAT_COUNTS, (row + 1) * CACHED_SEAT_COUNTS, 0);
+    longestFreeInRows[node] = longestFree[base + 1];
+
+    for (node >>>= 1; node > 0; node >>>= 1) {
+      longestFreeInRows[node] =
+          Math.max(longestFreeInRows[node * 2], longestFreeInRows[node * 2 + 1]);
+    }
+  }
+
+  synchronized long find(int seatCount) {
+    if (seatCount < 1 || longestFreeInRows[1] < seatCount) {
+      return NOT_FOUND;
+    }
+
+    double seatCenter = (seatMap.getSeatsInRow() - seatCount) / 2.0;
+    int firstRowBehind = (int) Math.max(0, Math.min(Math.ceil(preferredRow), seatMap.getRows()));
+    int rowBehind = findRow(firstRowBehind, seatCount, true);
+    int rowInFront = findRow(firstRowBehind - 1, seatCount, false);
+    double bestScore = Double.MAX_VALUE;
+    long best = NOT_FOUND;
+
+    while (rowBehind >= 0 || rowInFront >= 0) {
+      boolean behind =
+          rowInFront < 0
+              || (rowBehind >= 0
+                  && rowBehind - preferredRow <= preferredRow - rowInFront);
+      int row = behind ? rowBehind : rowInFront;
+      double rowPenalty = rowWeight * Math.abs(row - preferredRow);
+
+      if (rowPenalty >= bestScore) {
+        break;
+      }
+
+      int seat = findClosestStart(row, seatCount, seatCenter);
+      double score = rowPenalty + seatWeight * Math.abs(seat - seatCenter);
+
+      if (score < bestScore) {
+        bestScore = score;
+        best = (long) row << 32 | seat;
+      }
+
+      if (behind) {
+        rowBehind = findRow(rowBehind + 1, seatCount, true);
+      } else {
+        rowInFront = findRow(rowInFront - 1, seatCount, false);
+      }
+    }
+
+    return best;
+  }
+
+  private int findClosestStart(int row, int seatCount, double seatCenter) {
+    if (seatCount > CACHED_SEAT_COUNTS) {
+      return findClosestStart(row * nodesPerRow, 1, 0, leafCount, seatCount, seatCenter);
+    }
+
+    int cacheIndex = row * CACHED_SEAT_COUNTS + seatCount - 1;
+
+    if (cachedStarts[cacheIndex] == 0) {
+      cachedStarts[cacheIndex] =
+          findClosestStart(row * nodesPerRow, 1, 0, leafCount, seatCount, seatCenter) + 1;
+    }
+
+    return cachedStarts[cacheIndex] - 1;
+  }
+
+  private int findRow(int fromRow, int seatCount, boolean forward) {
+    if (fromRow < 0 || fromRow >= seatMap.getRows()) {
+      return -1;
+    }
+
+    int node = rowLeafCount + fromRow;
+
+    if (longestFreeInRows[node] < seatCount) {
+      while (true) {
+        if (node == 1) {
+          return -1;
+        }
+
+        int sibling = forward ? node + 1 : node - 1;
+
+        if ((node & 1) == (forward ? 0 : 1) && longestFreeInRows[sibling] >= seatCount) {
+          node = sibling;
+
+          break;
+        }
+
+        node >>>= 1;
+      }
+
+      while (node < rowLeafCount) {
+        int first = forward ? node * 2 : node * 2 + 1;
+
+        node = longestFreeInRows[first] >= seatCount ? first : first ^ 1;
+      }
+    }
+
+    return node - rowLeafCount;
+  }
+
+  private int findClosestStart(
+      int base, int node, int from, int to, int seatCount, double target) {
+    if (to - from == 1) {
+      return seatCount == 1 && longestFree[base + node] == 1 ? from : -1;
+    }
+
+    int middle = (from + to) >>> 1;
+    int left = node * 2;
+    int right = left + 1;
+    int best = -1;
+
+    if (suffixFree[base + left] + prefixFree[base + right] >= seatCount) {
+      int lowest = middle - suffixFree[base + left];
+      int highest = middle + prefixFree[base + right] - seatCount;
+
+      best = (int) Math.max(lowest, Math.min(highest, Math.round(target)));
+    }
+
+    if (target < middle) {
+      best = searchChild(base, left, from, middle, seatCount, target, best);
+      best = searchChild(base, right, middle, to, seatCount, target, best);
+    } else {
+      best = searchChild(base, right, middle, to, seatCount, target, best);
+      best = searchChild(base, left, from, middle, seatCount, target, best);
+    }
+
+    return best;
+  }
+
+  private int searchChild(
+      int base, int child, int from, int to, int seatCount, double target, int best) {
+    if (longestFree[base + child] < seatCount
+        || (best >= 0 && distanceTo(from, to, seatCount, target) >= Math.abs(best - target))) {
+      return best;
+    }
+
+    return closer(best, findClosestStart(base, child, from, to, seatCount, target), target);
+  }
+
+  private static double distanceTo(int from, int to, int seatCount, double target) {
+    int highest = to - seatCount;
+
+    if (target < from) {
+      return from - target;
+    }
+
+    return target > highest ? target - highest : 0;
+  }
+
+  private static int closer(int first, int second, double target) {
+    if (first < 0) {
+      return second;
+    }
+
+    if (second < 0) {
+      return first;
+    }
+
+    return Math.abs(second - target) < Math.abs(first - target) ? second : first;
+  }
+
+  private void combine(int base, int node) {
+    int left = base + node * 2;
+    int right = left + 1;
+    int childSize = leafCount >>> (31 - Integer.numberOfLeadingZeros(node) + 1);
+
+    prefixFree[base + node] =
+        prefixFree[left] == childSize ? childSize + prefixFree[right] : prefixFree[left];
+    suffixFree[base + node] =
+        suffixFree[right] == childSize ? childSize + suffixFree[left] : suffixFree[right];
+    longestFree[base + node] =
+        Math.max(
+            Math.max(longestFree[left], longestFree[right]), suffixFree[left] + prefixFree[right]);
+  }
+}
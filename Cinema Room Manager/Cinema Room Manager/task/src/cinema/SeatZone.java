@@ -0,0 +1,19 @@
+package cinema;
+
+public enum SeatZone {
+  STANDARD(Cinema.SMALL_MEDIUM_ROOM_SIZE_TICKET_PRICE),
+  FRONT_HALF(Cinema.FRONT_HALF_TICKET_PRICE),
+  BACK_HALF(Cinema.BACK_HALF_TICKET_PRICE);
+
+  static final int COUNT = values().length;
+
+  private final int ticketPrice;
+
+  SeatZone(int ticketPrice) {
+    this.ticketPrice = ticketPrice;
+  }
+
+  public int getTicketPrice() {
+    return ticketPrice;
+  }
+}
@@ -0,0 +1,30 @@
+package cinema;
+
+import java.util.concurrent.atomic.LongAdder;
+
+final class StatisticsCounter {
+  private final BookingStatistics emptyStatistics;
+  private final LongAdder[] soldTicketsByZone = new LongAdder[SeatZone.COUNT];
+
+  StatisticsCounter(BookingStatistics emptyStatistics) {
+    this.emptyStatistics = emptyStatistics;
+
+    for (int zone = 0; zone < SeatZone.COUNT; zone++) {
+      soldTicketsByZone[zone] = new LongAdder();
+    }
+  }
+
+  BookingStatistics snapshot() {
+    long[] soldTickets = new long[SeatZone.COUNT];
+
+    for (int zone = 0; zone < SeatZone.COUNT; zone++) {
+      soldTickets[zone] = soldTicketsByZone[zone].sum();
+    }
+
+    return emptyStatistics.withSoldTickets(soldTickets);
+  }
+
+  void recordSoldTickets(SeatZone zone, int tickets) {
+    soldTicketsByZone[zone.ordinal()].add(tickets);
+  }
+}
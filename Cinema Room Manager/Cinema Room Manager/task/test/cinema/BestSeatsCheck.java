@@ -0,0 +1,150 @@
+package cinema;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+class BestSeatsCheck extends Check {
+  private static final int MAX_ROWS = 30;
+  private static final int MAX_SEATS_IN_ROW = 150;
+  private static final double TOLERANCE = 1e-9;
+
+  @Override
+  void run() {
+    long seed = getLongProperty("seed", 42);
+    int halls = getIntProperty("halls", 300);
+    Random random = new Random(seed);
+
+    for (int hall = 0; hall < halls; hall++) {
+      int rows = 1 + random.nextInt(MAX_ROWS);
+      int seatsInRow = 1 + random.nextInt(MAX_SEATS_IN_ROW);
+      String mismatch = compare(rows, seatsInRow, random);
+
+      if (mismatch != null) {
+        fail("hall %d (%dx%d, seed %d): %s", hall, rows, seatsInRow, seed, mismatch);
+
+        return;
+      }
+    }
+
+    report("bookBestSeats matched the brute-force search in %d random halls", halls);
+  }
+
+  private static String compare(int rows, int seatsInRow, Random random) {
+    Cinema cinema = new Cinema();
+    HallLayout hall = cinema.addHall("Check", rows, seatsInRow);
+    CinemaHall seating = cinema.scheduleScreening(hall, LocalDateTime.now()).getSeating();
+    boolean[][] booked = new boolean[rows][seatsInRow];
+    double preferredRow = (rows - 1) / 2.0;
+    double rowWeight = 1;
+    double seatWeight = 1;
+    int operations = rows * seatsInRow;
+
+    for (int operation = 0; operation < operations; operation++) {
+      int choice = random.nextInt(20);
+
+      if (choice == 0) {
+        preferredRow = random.nextDouble() * rows;
+        rowWeight = random.nextInt(4) * random.nextDouble();
+        seatWeight = random.nextInt(4) * random.nextDouble();
+        seating.setSeatCentrality(preferredRow + 1, rowWeight, seatWeight);
+      } else if (choice < 6) {
+        int row = random.nextInt(rows);
+        int seat = random.nextInt(seatsInRow);
+
+        if (seating.cancelSeat(row + 1, seat + 1) != booked[row][seat]) {
+          return "cancelSeat(" + (row + 1) + ", " + (seat + 1) + ") disagreed";
+        }
+
+        booked[row][seat] = false;
+      } else if (choice < 10) {
+        int row = random.nextInt(rows);
+        int seat = random.nextInt(seatsInRow);
+
+        if (seating.bookSeat(row + 1, seat + 1) == booked[row][seat]) {
+          return "bookSeat(" + (row + 1) + ", " + (seat + 1) + ") disagreed";
+        }
+
+        booked[row][seat] = true;
+      } else {
+        int seatCount = 1 + random.nextInt(Math.min(seatsInRow, 12));
+        double expected =
+            findBestScore(booked, seatCount, preferredRow, rowWeight, seatWeight);
+        SeatBlock block = seating.bookBestSeats(seatCount);
+
+        if (block == null) {
+          if (expected != Double.MAX_VALUE) {
+            return "bookBestSeats(" + seatCount + ") found nothing, expected score " + expected;
+          }
+
+          continue;
+        }
+
+        int row = block.getRowNumber() - 1;
+        int firstSeat = block.getFirstSeatNumber() - 1;
+
+        for (int seat = firstSeat; seat < firstSeat + seatCount; seat++) {
+          if (booked[row][seat]) {
+            return "bookBestSeats(" + seatCount + ") sold booked seats in " + block;
+          }
+
+          booked[row][seat] = true;
+        }
+
+        double actual =
+            score(row, firstSeat, seatsInRow, seatCount, preferredRow, rowWeight, seatWeight);
+
+        if (actual > expected + TOLERANCE) {
+          return "bookBestSeats(" + seatCount + ") chose " + block + " with score " + actual
+              + ", expected " + expected;
+        }
+      }
+    }
+
+    return null;
+  }
+
+  private static double findBestScore(
+      boolean[][] booked,
+      int seatCount,
+      double preferredRow,
+      double rowWeight,
+      double seatWeight) {
+    double best = Double.MAX_VALUE;
+
+    for (int row = 0; row < booked.length; row++) {
+      int freeRun = 0;
+
+      for (int seat = 0; seat < booked[row].length; seat++) {
+        freeRun = booked[row][seat] ? 0 : freeRun + 1;
+
+        if (freeRun >= seatCount) {
+          best =
+              Math.min(
+                  best,
+                  score(
+                      row,
+                      seat - seatCount + 1,
+                      booked[row].length,
+                      seatCount,
+                      preferredRow,
+                      rowWeight,
+                      seatWeight));
+        }
+      }
+    }
+
+    return best;
+  }
+
+  private static double score(
+      int row,
+      int firstSeat,
+      int seatsInRow,
+      int seatCount,
+      double preferredRow,
+      double rowWeight,
+      double seatWeight) {
+    return rowWeight * Math.abs(row - preferredRow)
+        + seatWeight * Math.abs(firstSeat - (seatsInRow - seatCount) / 2.0);
+  }
+}
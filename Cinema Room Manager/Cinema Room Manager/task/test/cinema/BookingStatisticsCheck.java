@@ -0,0 +1,139 @@
+package cinema;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+class BookingStatisticsCheck extends Check {
+  private static final int MAX_BLOCK_SIZE = 4;
+
+  @Override
+  void run() throws InterruptedException {
+    int threads = getIntProperty("threads", 16);
+    int operationsPerThread = getIntProperty("operations", 100_000);
+    int screeningCount = getIntProperty("screenings", 40);
+    long seed = getLongProperty("seed", 42);
+    Cinema cinema = new Cinema();
+    HallLayout[] halls = {
+      cinema.addHall("Small", 6, 10),
+      cinema.addHall("Large", 20, 30),
+      cinema.addHall(new HallLayout("Blocked", 15, 12).withBlockedSeat(3, 4))
+    };
+    Screening[] screenings = new Screening[screeningCount];
+
+    for (int i = 0; i < screeningCount; i++) {
+      screenings[i] = cinema.scheduleScreening(halls[i % halls.length], LocalDateTime.now());
+    }
+
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> boxOffices = new ArrayList<>();
+
+    for (int i = 0; i < threads; i++) {
+      Random random = new Random(seed + i);
+      Thread boxOffice =
+          new Thread(
+              () -> {
+                try {
+                  start.await();
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+
+                  return;
+                }
+
+                for (int operation = 0; operation < operationsPerThread; operation++) {
+                  sell(screenings[random.nextInt(screeningCount)], random);
+                }
+              });
+
+      boxOffice.start();
+      boxOffices.add(boxOffice);
+    }
+
+    start.countDown();
+
+    for (Thread boxOffice : boxOffices) {
+      boxOffice.join();
+    }
+
+    BookingStatistics total = cinema.getStatistics();
+    BookingStatistics[] statistics = new BookingStatistics[screeningCount];
+    BookingStatistics expectedTotal = BookingStatistics.EMPTY;
+
+    for (int i = 0; i < screeningCount; i++) {
+      statistics[i] = screenings[i].getSeating().getStatistics();
+      expectedTotal = expectedTotal.plus(statistics[i]);
+    }
+
+    for (SeatZone zone : SeatZone.values()) {
+      if (total.getSoldTickets(zone) != expectedTotal.getSoldTickets(zone)
+          || total.getSeats(zone) != expectedTotal.getSeats(zone)) {
+        fail("cinema %s: %d of %d sold, screenings add up to %d of %d", zone,
+            total.getSoldTickets(zone), total.getSeats(zone), expectedTotal.getSoldTickets(zone),
+            expectedTotal.getSeats(zone));
+      }
+    }
+
+    for (int i = 0; i < screeningCount; i++) {
+      compare(screenings[i], statistics[i]);
+    }
+
+    report(
+        "%d threads over %d screenings: %d tickets sold, %d income, totals matched the seats",
+        threads,
+        screeningCount,
+        total.getSoldTickets(),
+        total.getIncome());
+  }
+
+  private static void sell(Screening screening, Random random) {
+    CinemaHall seating = screening.getSeating();
+    HallLayout hall = screening.getHall();
+    int rowNumber = 1 + random.nextInt(hall.getRows());
+    int seatNumber = 1 + random.nextInt(hall.getSeatsInRow());
+    int choice = random.nextInt(10);
+
+    if (choice < 4) {
+      seating.bookSeat(rowNumber, seatNumber);
+    } else if (choice < 8) {
+      seating.cancelSeat(rowNumber, seatNumber);
+    } else {
+      seating.bookAdjacentSeats(1 + random.nextInt(MAX_BLOCK_SIZE));
+    }
+  }
+
+  // Probing with bookSeat changes the seats but not the statistics already taken.
+  private void compare(Screening screening, BookingStatistics statistics) {
+    CinemaHall seating = screening.getSeating();
+    HallLayout hall = screening.getHall();
+    long[] soldTicketsByZone = new long[SeatZone.COUNT];
+    long income = 0;
+
+    for (int rowNumber = 1; rowNumber <= hall.getRows(); rowNumber++) {
+      SeatZone zone = hall.getZone(rowNumber);
+
+      for (int seatNumber = 1; seatNumber <= hall.getSeatsInRow(); seatNumber++) {
+        if (!hall.isBlocked(rowNumber, seatNumber) && !seating.bookSeat(rowNumber, seatNumber)) {
+          soldTicketsByZone[zone.ordinal()]++;
+          income += zone.getTicketPrice();
+        }
+      }
+    }
+
+    for (SeatZone zone : SeatZone.values()) {
+      if (statistics.getSoldTickets(zone) != soldTicketsByZone[zone.ordinal()]) {
+        fail("screening %d %s: %d tickets counted, %d seats sold", screening.getId(), zone,
+            statistics.getSoldTickets(zone), soldTicketsByZone[zone.ordinal()]);
+      }
+    }
+
+    if (statistics.getIncome() != income
+        || statistics.getSeats() != hall.getEmptyStatistics().getSeats()) {
+      fail("screening %d: income %d of %d seats, expected %d of %d", screening.getId(),
+          statistics.getIncome(), statistics.getSeats(), income,
+          hall.getEmptyStatistics().getSeats());
+    }
+  }
+}
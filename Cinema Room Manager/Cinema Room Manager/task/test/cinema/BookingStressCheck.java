@@ -0,0 +1,148 @@
+package cinema;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+class BookingStressCheck extends Check {
+  private static final int MAX_BLOCK_SIZE = 6;
+
+  private final LongAdder doubleBookings = new LongAdder();
+  private final LongAdder bookings = new LongAdder();
+  private CinemaHall seating;
+  private int rows;
+  private int seatsInRow;
+  private AtomicIntegerArray holders;
+
+  @Override
+  void run() throws InterruptedException {
+    int threads = getIntProperty("threads", 64);
+    int operationsPerThread = getIntProperty("operations", 200_000);
+    long seed = getLongProperty("seed", 42);
+    Cinema cinema = new Cinema();
+
+    rows = getIntProperty("rows", 40);
+    seatsInRow = getIntProperty("seats", 150);
+    seating =
+        cinema
+            .scheduleScreening(cinema.addHall("Stress", rows, seatsInRow), LocalDateTime.now())
+            .getSeating();
+    holders = new AtomicIntegerArray(rows * seatsInRow);
+
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> boxOffices = new ArrayList<>();
+
+    for (int i = 0; i < threads; i++) {
+      Random random = new Random(seed + i);
+      Thread boxOffice =
+          new Thread(
+              () -> {
+                try {
+                  start.await();
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+
+                  return;
+                }
+
+                sell(random, operationsPerThread);
+              });
+
+      boxOffice.start();
+      boxOffices.add(boxOffice);
+    }
+
+    long startNanos = System.nanoTime();
+
+    start.countDown();
+
+    for (Thread boxOffice : boxOffices) {
+      boxOffice.join();
+    }
+
+    long elapsedNanos = System.nanoTime() - startNanos;
+    long held = 0;
+
+    for (int i = 0; i < holders.length(); i++) {
+      held += holders.get(i);
+    }
+
+    if (doubleBookings.sum() != 0) {
+      fail("%d double bookings", doubleBookings.sum());
+    }
+
+    if (seating.getStatistics().getSoldTickets() != held) {
+      fail("sold tickets %d != seats held %d", seating.getStatistics().getSoldTickets(), held);
+    }
+
+    // Every free seat must still be reachable through the best-seat finder.
+    while (seating.bookBestSeats(1) != null) {
+      held++;
+    }
+
+    if (held != (long) rows * seatsInRow) {
+      fail("best-seat search stopped with %d of %d sold", held, rows * seatsInRow);
+    }
+
+    report(
+        "%d threads: %d bookings and %d operations in %.0f ms, %.0f bookings/s",
+        threads,
+        bookings.sum(),
+        (long) threads * operationsPerThread,
+        elapsedNanos / 1e6,
+        bookings.sum() * 1e9 / elapsedNanos);
+  }
+
+  private void sell(Random random, int operations) {
+    List<Integer> heldSeats = new ArrayList<>();
+
+    for (int operation = 0; operation < operations; operation++) {
+      int choice = random.nextInt(10);
+
+      if (choice < 3 && !heldSeats.isEmpty()) {
+        int seat = heldSeats.remove(heldSeats.size() - 1);
+
+        // Release the seat in the model first, so the next buyer never sees it held twice.
+        holders.decrementAndGet(seat);
+
+        if (!seating.cancelSeat(seat / seatsInRow + 1, seat % seatsInRow + 1)) {
+          doubleBookings.increment();
+        }
+      } else if (choice < 6) {
+        int row = random.nextInt(rows);
+        int seat = random.nextInt(seatsInRow);
+
+        if (seating.bookSeat(row + 1, seat + 1)) {
+          bookings.increment();
+          hold(heldSeats, row * seatsInRow + seat, 1);
+        }
+      } else {
+        int seatCount = 1 + random.nextInt(MAX_BLOCK_SIZE);
+        SeatBlock block =
+            choice < 8 ? seating.bookAdjacentSeats(seatCount) : seating.bookBestSeats(seatCount);
+
+        if (block != null) {
+          bookings.increment();
+
+          int firstSeat = (block.getRowNumber() - 1) * seatsInRow + block.getFirstSeatNumber() - 1;
+
+          hold(heldSeats, firstSeat, block.getSeatCount());
+        }
+      }
+    }
+  }
+
+  private void hold(List<Integer> heldSeats, int firstSeat, int seatCount) {
+    for (int seat = firstSeat; seat < firstSeat + seatCount; seat++) {
+      if (holders.incrementAndGet(seat) != 1) {
+        doubleBookings.increment();
+      }
+
+      heldSeats.add(seat);
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package cinema;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public class Checks {
+  private static final Map<String, Supplier<Check>> CHECKS = new LinkedHashMap<>();
+  private static final Map<String, Supplier<Check>> BENCHMARKS = new LinkedHashMap<>();
+
+  static {
+    CHECKS.put("SeatMapCheck", SeatMapCheck::new);
+    CHECKS.put("BookingStressCheck", BookingStressCheck::new);
+    CHECKS.put("BestSeatsCheck", BestSeatsCheck::new);
+    CHECKS.put("BookingStatisticsCheck", BookingStatisticsCheck::new);
+    BENCHMARKS.put("SeatMapBenchmark", SeatMapBenchmark::new);
+  }
+
+  public static void main(String[] args) throws Exception {
+    Map<String, Supplier<Check>> selected = new LinkedHashMap<>();
+
+    if (args.length == 0) {
+      selected.putAll(CHECKS);
+    }
+
+    for (String name : args) {
+      Supplier<Check> check = CHECKS.containsKey(name) ? CHECKS.get(name) : BENCHMARKS.get(name);
+
+      if (check == null) {
+        throw new IllegalArgumentException("Unknown check: " + name);
+      }
+
+      selected.put(name, check);
+    }
+
+    boolean failed = false;
+
+    for (Map.Entry<String, Supplier<Check>> entry : selected.entrySet()) {
+      Check check = entry.getValue().get();
+
+      check.run();
+
+      for (String failure : check.getFailures()) {
+        System.out.println(entry.getKey() + " failed: " + failure);
+      }
+
+      failed |= !check.getFailures().isEmpty();
+    }
+
+    if (failed) {
+      System.exit(1);
+    }
+  }
+}
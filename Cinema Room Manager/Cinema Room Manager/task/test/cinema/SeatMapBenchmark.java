@@ -0,0 +1,183 @@
+package cinema;
+
+import java.lang.ref.Reference;
+import java.util.Random;
+import java.util.function.Supplier;
+
+class SeatMapBenchmark extends Check {
+  private static final int COPIES = 16;
+
+  private long checksum;
+
+  @Override
+  void run() {
+    int rows = getIntProperty("rows", 400);
+    int seatsInRow = getIntProperty("seats", 300);
+    int rounds = getIntProperty("rounds", 20);
+    int seats = rows * seatsInRow;
+    int[] seatOrder = shuffleSeats(seats, new Random(getLongProperty("seed", 42)));
+
+    report(
+        "%dx%d hall, seat map: %.2f B/seat",
+        rows,
+        seatsInRow,
+        measureRetainedBytes(() -> new SeatMap(rows, seatsInRow)) / seats);
+    report(
+        "%dx%d hall, String[][] schema: %.2f B/seat",
+        rows,
+        seatsInRow,
+        measureRetainedBytes(() -> generateSchema(rows, seatsInRow)) / seats);
+
+    SeatMap seatMap = new SeatMap(rows, seatsInRow);
+    String[][] schema = generateSchema(rows, seatsInRow);
+
+    report(
+        "seat map: %.1f ns per booking and cancellation",
+        measureNanosPerOperation(
+            (long) seats * rounds, () -> bookAndCancel(seatMap, seatOrder, seatsInRow, rounds)));
+    report(
+        "String[][] schema: %.1f ns per booking and cancellation",
+        measureNanosPerOperation(
+            (long) seats * rounds, () -> bookAndCancel(schema, seatOrder, seatsInRow, rounds)));
+
+    // Each of the four runs per store books and then cancels every seat in every round.
+    if (checksum != 16L * seats * rounds) {
+      fail("%d seats changed hands, expected %d", checksum, 16L * seats * rounds);
+    }
+  }
+
+  private void bookAndCancel(SeatMap seatMap, int[] seatOrder, int seatsInRow, int rounds) {
+    long changes = 0;
+
+    for (int round = 0; round < rounds; round++) {
+      for (int seat : seatOrder) {
+        changes += seatMap.book(seat / seatsInRow, seat % seatsInRow) ? 1 : 0;
+      }
+
+      for (int seat : seatOrder) {
+        changes += seatMap.cancel(seat / seatsInRow, seat % seatsInRow) ? 1 : 0;
+      }
+    }
+
+    checksum += changes;
+  }
+
+  private void bookAndCancel(String[][] schema, int[] seatOrder, int seatsInRow, int rounds) {
+    long changes = 0;
+
+    for (int round = 0; round < rounds; round++) {
+      for (int seat : seatOrder) {
+        changes += book(schema, seat / seatsInRow + 1, seat % seatsInRow + 1) ? 1 : 0;
+      }
+
+      for (int seat : seatOrder) {
+        changes += cancel(schema, seat / seatsInRow + 1, seat % seatsInRow + 1) ? 1 : 0;
+      }
+    }
+
+    checksum += changes;
+  }
+
+  // The schema CinemaHall kept before the seat map: header Strings in row and column 0, and
+  // a "B" or "S" code per seat that is looked up with equalsIgnoreCase over values().
+  private static String[][] generateSchema(int rows, int seatsInRow) {
+    String[][] schema = new String[rows + 1][seatsInRow + 1];
+
+    for (int i = 0; i < schema.length; i++) {
+      for (int j = 0; j < schema[i].length; j++) {
+        if (i == 0 && j == 0) {
+          schema[i][j] = " ";
+        } else if (i == 0) {
+          schema[i][j] = String.valueOf(j);
+        } else if (j == 0) {
+          schema[i][j] = String.valueOf(i);
+        } else {
+          schema[i][j] = LegacyAvailability.FOR_SALE.code;
+        }
+      }
+    }
+
+    return schema;
+  }
+
+  private static boolean book(String[][] schema, int rowNumber, int seatNumber) {
+    if (LegacyAvailability.getInstance(schema[rowNumber][seatNumber])
+        == LegacyAvailability.BOOKED) {
+      return false;
+    }
+
+    schema[rowNumber][seatNumber] = LegacyAvailability.BOOKED.code;
+
+    return true;
+  }
+
+  private static boolean cancel(String[][] schema, int rowNumber, int seatNumber) {
+    if (LegacyAvailability.getInstance(schema[rowNumber][seatNumber])
+        != LegacyAvailability.BOOKED) {
+      return false;
+    }
+
+    schema[rowNumber][seatNumber] = LegacyAvailability.FOR_SALE.code;
+
+    return true;
+  }
+
+  private static int[] shuffleSeats(int seats, Random random) {
+    int[] seatOrder = new int[seats];
+
+    for (int seat = 0; seat < seats; seat++) {
+      int other = random.nextInt(seat + 1);
+
+      seatOrder[seat] = seatOrder[other];
+      seatOrder[other] = seat;
+    }
+
+    return seatOrder;
+  }
+
+  private static double measureRetainedBytes(Supplier<Object> factory) {
+    Object[] copies = new Object[COPIES];
+    long before = getUsedMemory();
+
+    for (int copy = 0; copy < COPIES; copy++) {
+      copies[copy] = factory.get();
+    }
+
+    long after = getUsedMemory();
+
+    Reference.reachabilityFence(copies);
+
+    return (after - before) / (double) COPIES;
+  }
+
+  private static long getUsedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private enum LegacyAvailability {
+    BOOKED("B"),
+    FOR_SALE("S");
+
+    private final String code;
+
+    LegacyAvailability(String code) {
+      this.code = code;
+    }
+
+    static LegacyAvailability getInstance(String code) {
+      for (LegacyAvailability availability : values()) {
+        if (availability.code.equalsIgnoreCase(code)) {
+          return availability;
+        }
+      }
+
+      return null;
+    }
+  }
+}
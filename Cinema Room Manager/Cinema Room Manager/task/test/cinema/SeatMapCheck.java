@@ -0,0 +1,73 @@
+package cinema;
+
+import java.util.Random;
+
+class SeatMapCheck extends Check {
+  private static final int MAX_ROWS = 12;
+  private static final int MAX_SEATS_IN_ROW = 200;
+
+  @Override
+  void run() {
+    long seed = getLongProperty("seed", 42);
+    int halls = getIntProperty("halls", 1000);
+    Random random = new Random(seed);
+
+    for (int hall = 0; hall < halls; hall++) {
+      int rows = 1 + random.nextInt(MAX_ROWS);
+      int seatsInRow = 1 + random.nextInt(MAX_SEATS_IN_ROW);
+      String mismatch = compare(rows, seatsInRow, random);
+
+      if (mismatch != null) {
+        fail("hall %d (%dx%d, seed %d): %s", hall, rows, seatsInRow, seed, mismatch);
+
+        return;
+      }
+    }
+
+    report("SeatMap matched the reference model in %d random halls", halls);
+  }
+
+  private static String compare(int rows, int seatsInRow, Random random) {
+    SeatMap seatMap = new SeatMap(rows, seatsInRow);
+    boolean[][] booked = new boolean[rows][seatsInRow];
+    int operations = rows * seatsInRow * 4;
+
+    for (int operation = 0; operation < operations; operation++) {
+      int row = random.nextInt(rows + 2) - 1;
+      int seat = random.nextInt(seatsInRow + 2) - 1;
+      boolean inside = row >= 0 && row < rows && seat >= 0 && seat < seatsInRow;
+
+      if (seatMap.contains(row, seat) != inside) {
+        return "contains(" + row + ", " + seat + ") should be " + inside;
+      }
+
+      if (!inside) {
+        continue;
+      }
+
+      if (random.nextInt(3) == 0) {
+        if (seatMap.cancel(row, seat) != booked[row][seat]) {
+          return "cancel(" + row + ", " + seat + ") should be " + booked[row][seat];
+        }
+
+        booked[row][seat] = false;
+      } else {
+        if (seatMap.book(row, seat) == booked[row][seat]) {
+          return "book(" + row + ", " + seat + ") should be " + !booked[row][seat];
+        }
+
+        booked[row][seat] = true;
+      }
+    }
+
+    for (int row = 0; row < rows; row++) {
+      for (int seat = 0; seat < seatsInRow; seat++) {
+        if (seatMap.isBooked(row, seat) != booked[row][seat]) {
+          return "isBooked(" + row + ", " + seat + ") should be " + booked[row][seat];
+        }
+      }
+    }
+
+    return null;
+  }
+}
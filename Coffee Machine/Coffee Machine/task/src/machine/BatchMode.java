@@ -0,0 +1,6 @@
+package machine;
+
+public enum BatchMode {
+  ALL_OR_NOTHING,
+  BEST_EFFORT
+}
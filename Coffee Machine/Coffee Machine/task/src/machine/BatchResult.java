@@ -0,0 +1,35 @@
+package machine;
+
+public final class BatchResult {
+  private final Recipe[] recipes;
+  private final int[] fulfilled;
+  private final Resource limitingResource;
+
+  BatchResult(Recipe[] recipes, int[] fulfilled, Resource limitingResource) {
+    this.recipes = recipes;
+    this.fulfilled = fulfilled;
+    this.limitingResource = limitingResource;
+  }
+
+  public int getFulfilled(Recipe recipe) {
+    for (int entry = 0; entry < recipes.length; entry++) {
+      if (recipes[entry].getId() == recipe.getId()) {
+        return fulfilled[entry];
+      }
+    }
+
+    return 0;
+  }
+
+  public int getFulfilled(int entry) {
+    return fulfilled[entry];
+  }
+
+  public Resource getLimitingResource() {
+    return limitingResource;
+  }
+
+  public boolean isCompleted() {
+    return limitingResource == null;
+  }
+}
@@ -0,0 +1,125 @@
+package machine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+class BinaryProtocolHandler {
+  static final byte MAGIC = 0;
+  static final byte BUY = 1;
+  static final byte FILL = 2;
+  static final byte TAKE = 3;
+  static final byte REMAINING = 4;
+  static final byte COMPLETED = 0;
+  static final byte UNKNOWN_RECIPE = -1;
+  static final byte UNKNOWN_OPERATION = -2;
+  static final byte UNKNOWN_RESOURCE = -3;
+
+  private final CoffeeMachine coffeeMachine;
+  private final DataInputStream in;
+  private final DataOutputStream out;
+
+  BinaryProtocolHandler(
+      CoffeeMachine coffeeMachine, InputStream inputStream, OutputStream outputStream) {
+    this.coffeeMachine = coffeeMachine;
+    this.in = new DataInputStream(new BufferedInputStream(inputStream));
+    this.out = new DataOutputStream(new BufferedOutputStream(outputStream));
+  }
+
+  public void run() throws IOException {
+    try {
+      while (true) {
+        if (in.available() == 0) {
+          out.flush();
+        }
+
+        int operation = in.read();
+
+        if (operation < 0) {
+          return;
+        }
+
+        switch (operation) {
+          case BUY:
+            purchase();
+
+            break;
+          case FILL:
+            maintenance();
+
+            break;
+          case TAKE:
+            out.writeLong(coffeeMachine.collectCash());
+
+            break;
+          case REMAINING:
+            printStatus();
+
+            break;
+          default:
+            out.writeByte(UNKNOWN_OPERATION);
+
+            return;
+        }
+      }
+    } catch (EOFException e) {
+      return;
+    } finally {
+      out.flush();
+    }
+  }
+
+  private void purchase() throws IOException {
+    Recipe recipe = coffeeMachine.getRecipeCatalog().getRecipe(in.readInt());
+
+    if (recipe == null) {
+      out.writeByte(UNKNOWN_RECIPE);
+
+      return;
+    }
+
+    OrderOutcome orderOutcome = coffeeMachine.order(recipe);
+
+    out.writeByte(
+        orderOutcome.isCompleted()
+            ? COMPLETED
+            : orderOutcome.getMissingResource().getIndex() + 1);
+  }
+
+  private void maintenance() throws IOException {
+    int resourceCount = in.readUnsignedByte();
+
+    if (resourceCount > coffeeMachine.getRecipeCatalog().getResourceCount()) {
+      in.skipNBytes((long) resourceCount * Integer.BYTES);
+      out.writeByte(UNKNOWN_RESOURCE);
+
+      return;
+    }
+
+    int[] amountsToAdd = new int[resourceCount];
+
+    for (int i = 0; i < amountsToAdd.length; i++) {
+      amountsToAdd[i] = in.readInt();
+    }
+
+    coffeeMachine.refill(amountsToAdd);
+    out.writeByte(COMPLETED);
+  }
+
+  private void printStatus() throws IOException {
+    Inventory inventory = coffeeMachine.snapshot();
+
+    out.writeByte(inventory.getResourceCount());
+
+    for (int amountLeft : inventory.getAmountsLeft()) {
+      out.writeInt(amountLeft);
+    }
+
+    out.writeLong(inventory.getCash());
+  }
+}
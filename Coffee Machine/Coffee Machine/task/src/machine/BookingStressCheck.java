@@ -0,0 +1,160 @@
+package cinema;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class BookingStressCheck {
+  private static final String PROPERTY_PREFIX = "check.";
+  private static final int MAX_BLOCK_SIZE = 6;
+
+  private final CinemaHall seating;
+  private final int rows;
+  private final int seatsInRow;
+  private final AtomicIntegerArray holders;
+  private final LongAdder doubleBookings = new LongAdder();
+
+  BookingStressCheck(int rows, int seatsInRow) {
+    Cinema cinema = new Cinema();
+    HallLayout hall = cinema.addHall("Stress", rows, seatsInRow);
+
+    this.seating = cinema.scheduleScreening(hall, LocalDateTime.now()).getSeating();
+    this.rows = rows;
+    this.seatsInRow = seatsInRow;
+    this.holders = new AtomicIntegerArray(rows * seatsInRow);
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    BookingStressCheck check =
+        new BookingStressCheck(
+            Integer.parseInt(getProperty("rows", "40")),
+            Integer.parseInt(getProperty("seats", "150")));
+    List<String> failures =
+        check.run(
+            Integer.parseInt(getProperty("threads", "16")),
+            Integer.parseInt(getProperty("operations", "200000")),
+            Long.parseLong(getProperty("seed", "42")));
+
+    for (String failure : failures) {
+      System.out.println(failure);
+    }
+
+    if (!failures.isEmpty()) {
+      System.exit(1);
+    }
+
+    System.out.println("No double bookings; statistics matched the seats sold");
+  }
+
+  List<String> run(int threads, int operationsPerThread, long seed) throws InterruptedException {
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> boxOffices = new ArrayList<>();
+
+    for (int i = 0; i < threads; i++) {
+      Random random = new Random(seed + i);
+      Thread boxOffice =
+          new Thread(
+              () -> {
+                try {
+                  start.await();
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+
+                  return;
+                }
+
+                sell(random, operationsPerThread);
+              });
+
+      boxOffice.start();
+      boxOffices.add(boxOffice);
+    }
+
+    start.countDown();
+
+    for (Thread boxOffice : boxOffices) {
+      boxOffice.join();
+    }
+
+    List<String> failures = new ArrayList<>();
+    long held = 0;
+
+    for (int i = 0; i < holders.length(); i++) {
+      held += holders.get(i);
+    }
+
+    if (doubleBookings.sum() != 0) {
+      failures.add("Double bookings: " + doubleBookings.sum());
+    }
+
+    if (seating.getStatistics().getSoldTickets() != held) {
+      failures.add(
+          "Sold tickets " + seating.getStatistics().getSoldTickets() + " != seats held " + held);
+    }
+
+    // Every free seat must still be reachable through the best-seat finder.
+    while (seating.bookBestSeats(1) != null) {
+      held++;
+    }
+
+    if (held != (long) rows * seatsInRow) {
+      failures.add("Best-seat search stopped with " + held + " of " + rows * seatsInRow + " sold");
+    }
+
+    return failures;
+  }
+
+  private void sell(Random random, int operations) {
+    List<Integer> heldSeats = new ArrayList<>();
+
+    for (int operation = 0; operation < operations; operation++) {
+      int choice = random.nextInt(10);
+
+      if (choice < 3 && !heldSeats.isEmpty()) {
+        int seat = heldSeats.remove(heldSeats.size() - 1);
+
+        // Release the seat in the model first, so the next buyer never sees it held twice.
+        holders.decrementAndGet(seat);
+
+        if (!seating.cancelSeat(seat / seatsInRow + 1, seat % seatsInRow + 1)) {
+          doubleBookings.increment();
+        }
+      } else if (choice < 6) {
+        int row = random.nextInt(rows);
+        int seat = random.nextInt(seatsInRow);
+
+        if (seating.bookSeat(row + 1, seat + 1)) {
+          hold(heldSeats, row * seatsInRow + seat, 1);
+        }
+      } else {
+        int seatCount = 1 + random.nextInt(MAX_BLOCK_SIZE);
+        SeatBlock block =
+            choice < 8 ? seating.bookAdjacentSeats(seatCount) : seating.bookBestSeats(seatCount);
+
+        if (block != null) {
+          int firstSeat = (block.getRowNumber() - 1) * seatsInRow + block.getFirstSeatNumber() - 1;
+
+          hold(heldSeats, firstSeat, block.getSeatCount());
+        }
+      }
+    }
+  }
+
+  private void hold(List<Integer> heldSeats, int firstSeat, int seatCount) {
+    for (int seat = firstSeat; seat < firstSeat + seatCount; seat++) {
+      if (holders.incrementAndGet(seat) != 1) {
+        doubleBookings.increment();
+      }
+
+      heldSeats.add(seat);
+    }
+  }
+
+  private static String getProperty(String name, String defaultValue) {
+    return System.getProperty(PROPERTY_PREFIX + name, defaultValue);
+  }
+}
@@ -0,0 +1,7 @@
+package machine;
+
+public interface BrewListener {
+  BrewListener NONE = (orderId, recipeId, arrivalMillis, readyMillis) -> {};
+
+  void onOrderReady(int orderId, int recipeId, long arrivalMillis, long readyMillis);
+}
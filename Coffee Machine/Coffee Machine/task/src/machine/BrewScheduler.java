@@ -0,0 +1,293 @@
+package machine;
+
+import java.util.Arrays;
+
+public class BrewScheduler {
+  private static final int IDLE = -1;
+
+  private final int brewGroups;
+  private final long starvationLimitMillis;
+  private final BrewListener brewListener;
+  private final int[] groupOrderIds;
+  private final int[] groupSlots;
+  private final long[] groupArrivalMillis;
+  private final long[] groupFreeMillis;
+  private long[] brewMillis = new long[0];
+  private long[] steamMillis = new long[0];
+  private int[] recipeIds = new int[0];
+  private int[] slotsByRecipeId = new int[0];
+  private OrderQueue[] brewQueues = new OrderQueue[0];
+  private OrderQueue[] steamQueues = new OrderQueue[0];
+  private int wandOrderId = IDLE;
+  private int wandSlot;
+  private long wandArrivalMillis;
+  private long wandFreeMillis;
+  private long nowMillis;
+  private long completedOrders;
+  private long totalTurnaroundMillis;
+  private long maxTurnaroundMillis;
+
+  public BrewScheduler(int brewGroups, long starvationLimitMillis, BrewListener brewListener) {
+    if (brewGroups < 1) {
+      throw new IllegalArgumentException("A machine needs at least one brew group");
+    }
+
+    this.brewGroups = brewGroups;
+    this.starvationLimitMillis = starvationLimitMillis;
+    this.brewListener = brewListener;
+    this.groupOrderIds = new int[brewGroups];
+    this.groupSlots = new int[brewGroups];
+    this.groupArrivalMillis = new long[brewGroups];
+    this.groupFreeMillis = new long[brewGroups];
+    Arrays.fill(groupOrderIds, IDLE);
+  }
+
+  public void setBrewTimes(Recipe recipe, long brewMillis, long steamMillis) {
+    int recipeId = recipe.getId();
+
+    if (recipeId >= slotsByRecipeId.length) {
+      int oldLength = slotsByRecipeId.length;
+
+      slotsByRecipeId = Arrays.copyOf(slotsByRecipeId, recipeId + 1);
+      Arrays.fill(slotsByRecipeId, oldLength, slotsByRecipeId.length, IDLE);
+    }
+
+    int slot = slotsByRecipeId[recipeId];
+
+    if (slot == IDLE) {
+      slot = recipeIds.length;
+      slotsByRecipeId[recipeId] = slot;
+      recipeIds = Arrays.copyOf(recipeIds, slot + 1);
+      this.brewMillis = Arrays.copyOf(this.brewMillis, slot + 1);
+      this.steamMillis = Arrays.copyOf(this.steamMillis, slot + 1);
+      brewQueues = Arrays.copyOf(brewQueues, slot + 1);
+      steamQueues = Arrays.copyOf(steamQueues, slot + 1);
+      recipeIds[slot] = recipeId;
+      brewQueues[slot] = new OrderQueue();
+      steamQueues[slot] = new OrderQueue();
+    }
+
+    this.brewMillis[slot] = brewMillis;
+    this.steamMillis[slot] = steamMillis;
+  }
+
+  public void submit(int orderId, Recipe recipe, long arrivalMillis) {
+    int slot = getSlot(recipe);
+
+    if (arrivalMillis < nowMillis) {
+      throw new IllegalArgumentException("Orders must be submitted in arrival order");
+    }
+
+    advanceTo(arrivalMillis);
+    brewQueues[slot].add(orderId, arrivalMillis);
+    dispatchBrewGroups();
+  }
+
+  public long estimateReadyMillis(Recipe recipe, long arrivalMillis) {
+    int slot = getSlot(recipe);
+    long brewWorkAhead = 0;
+    long steamWorkAhead = 0;
+    long earliestGroupFreeMillis = Long.MAX_VALUE;
+
+    for (int other = 0; other < recipeIds.length; other++) {
+      if (getJobMillis(other) <= getJobMillis(slot)) {
+        brewWorkAhead += brewQueues[other].size() * brewMillis[other];
+      }
+
+      steamWorkAhead += (brewQueues[other].size() + steamQueues[other].size()) * steamMillis[other];
+    }
+
+    for (int group = 0; group < brewGroups; group++) {
+      long freeMillis = groupOrderIds[group] == IDLE ? arrivalMillis : groupFreeMillis[group];
+
+      earliestGroupFreeMillis = Math.min(earliestGroupFreeMillis, freeMillis);
+    }
+
+    long brewStartMillis = Math.max(earliestGroupFreeMillis, arrivalMillis);
+    long brewedMillis = brewStartMillis + brewWorkAhead / brewGroups + brewMillis[slot];
+
+    if (steamMillis[slot] == 0) {
+      return brewedMillis;
+    }
+
+    long wandAvailableMillis =
+        (wandOrderId == IDLE ? arrivalMillis : wandFreeMillis) + steamWorkAhead;
+
+    return Math.max(brewedMillis, wandAvailableMillis) + steamMillis[slot];
+  }
+
+  public void finish() {
+    advanceTo(Long.MAX_VALUE);
+  }
+
+  public long getCompletedOrders() {
+    return completedOrders;
+  }
+
+  public double getMeanTurnaroundMillis() {
+    return completedOrders == 0 ? 0 : (double) totalTurnaroundMillis / completedOrders;
+  }
+
+  public long getMaxTurnaroundMillis() {
+    return maxTurnaroundMillis;
+  }
+
+  private int getSlot(Recipe recipe) {
+    int recipeId = recipe.getId();
+    int slot =
+        recipeId >= 0 && recipeId < slotsByRecipeId.length ? slotsByRecipeId[recipeId] : IDLE;
+
+    if (slot == IDLE) {
+      throw new IllegalArgumentException("No brew times for " + recipe.getName());
+    }
+
+    return slot;
+  }
+
+  private void advanceTo(long millis) {
+    while (true) {
+      int nextGroup = IDLE;
+      long nextEventMillis = Long.MAX_VALUE;
+
+      for (int group = 0; group < brewGroups; group++) {
+        if (groupOrderIds[group] != IDLE && groupFreeMillis[group] < nextEventMillis) {
+          nextGroup = group;
+          nextEventMillis = groupFreeMillis[group];
+        }
+      }
+
+      boolean wandNext = wandOrderId != IDLE && wandFreeMillis <= nextEventMillis;
+
+      if (wandNext) {
+        nextEventMillis = wandFreeMillis;
+      }
+
+      if (nextEventMillis == Long.MAX_VALUE || nextEventMillis > millis) {
+        break;
+      }
+
+      nowMillis = nextEventMillis;
+
+      if (wandNext) {
+        completeSteaming();
+      } else {
+        completeBrewing(nextGroup);
+      }
+    }
+
+    if (millis != Long.MAX_VALUE) {
+      nowMillis = Math.max(nowMillis, millis);
+    }
+  }
+
+  private void completeBrewing(int group) {
+    int orderId = groupOrderIds[group];
+    int slot = groupSlots[group];
+
+    groupOrderIds[group] = IDLE;
+
+    if (steamMillis[slot] == 0) {
+      ready(orderId, slot, groupArrivalMillis[group]);
+    } else {
+      steamQueues[slot].add(orderId, groupArrivalMillis[group]);
+      dispatchSteamWand();
+    }
+
+    dispatchBrewGroups();
+  }
+
+  private void completeSteaming() {
+    int orderId = wandOrderId;
+
+    wandOrderId = IDLE;
+    ready(orderId, wandSlot, wandArrivalMillis);
+    dispatchSteamWand();
+  }
+
+  private void dispatchBrewGroups() {
+    for (int group = 0; group < brewGroups; group++) {
+      if (groupOrderIds[group] != IDLE) {
+        continue;
+      }
+
+      int slot = selectSlot(brewQueues, true);
+
+      if (slot == IDLE) {
+        return;
+      }
+
+      OrderQueue queue = brewQueues[slot];
+
+      groupOrderIds[group] = queue.peekOrderId();
+      groupArrivalMillis[group] = queue.peekEnqueuedMillis();
+      groupSlots[group] = slot;
+      groupFreeMillis[group] = nowMillis + brewMillis[slot];
+      queue.remove();
+    }
+  }
+
+  private void dispatchSteamWand() {
+    if (wandOrderId != IDLE) {
+      return;
+    }
+
+    int slot = selectSlot(steamQueues, false);
+
+    if (slot == IDLE) {
+      return;
+    }
+
+    OrderQueue queue = steamQueues[slot];
+
+    wandOrderId = queue.peekOrderId();
+    wandArrivalMillis = queue.peekEnqueuedMillis();
+    wandSlot = slot;
+    wandFreeMillis = nowMillis + steamMillis[slot];
+    queue.remove();
+  }
+
+  private int selectSlot(OrderQueue[] queues, boolean wholeJob) {
+    int oldestSlot = IDLE;
+    int shortestSlot = IDLE;
+
+    for (int slot = 0; slot < queues.length; slot++) {
+      if (queues[slot].isEmpty()) {
+        continue;
+      }
+
+      if (oldestSlot == IDLE
+          || queues[slot].peekEnqueuedMillis() < queues[oldestSlot].peekEnqueuedMillis()) {
+        oldestSlot = slot;
+      }
+
+      if (shortestSlot == IDLE
+          || getStageMillis(slot, wholeJob) < getStageMillis(shortestSlot, wholeJob)) {
+        shortestSlot = slot;
+      }
+    }
+
+    if (oldestSlot != IDLE
+        && nowMillis - queues[oldestSlot].peekEnqueuedMillis() >= starvationLimitMillis) {
+      return oldestSlot;
+    }
+
+    return shortestSlot;
+  }
+
+  private long getStageMillis(int slot, boolean wholeJob) {
+    return wholeJob ? getJobMillis(slot) : steamMillis[slot];
+  }
+
+  private long getJobMillis(int slot) {
+    return brewMillis[slot] + steamMillis[slot];
+  }
+
+  private void ready(int orderId, int slot, long arrivalMillis) {
+    long turnaroundMillis = nowMillis - arrivalMillis;
+
+    completedOrders++;
+    totalTurnaroundMillis += turnaroundMillis;
+    maxTurnaroundMillis = Math.max(maxTurnaroundMillis, turnaroundMillis);
+    brewListener.onOrderReady(orderId, recipeIds[slot], arrivalMillis, nowMillis);
+  }
+}
@@ -0,0 +1,46 @@
+package machine;
+
+import java.time.Instant;
+import java.util.Currency;
+
+public final class CashCollection {
+  private final Instant time;
+  private final Currency currency;
+  private final long amount;
+  private final long collectedTotal;
+
+  CashCollection(Instant time, Currency currency, long amount, long collectedTotal) {
+    this.time = time;
+    this.currency = currency;
+    this.amount = amount;
+    this.collectedTotal = collectedTotal;
+  }
+
+  public Instant getTime() {
+    return time;
+  }
+
+  public Currency getCurrency() {
+    return currency;
+  }
+
+  public long getAmount() {
+    return amount;
+  }
+
+  public long getCollectedTotal() {
+    return collectedTotal;
+  }
+
+  @Override
+  public String toString() {
+    MoneyFormat moneyFormat = MoneyFormat.getInstance(currency);
+
+    return time
+        + " collected "
+        + moneyFormat.format(amount)
+        + " (total "
+        + moneyFormat.format(collectedTotal)
+        + ")";
+  }
+}
@@ -0,0 +1,83 @@
+package machine;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+
+public class CashDrawer {
+  private final Clock clock;
+  private final List<CashCollection> collections = new ArrayList<>();
+  private Currency[] currencies = new Currency[0];
+  private long[] collectedTotals = new long[0];
+  private long[] collectionCounts = new long[0];
+
+  public CashDrawer() {
+    this(Clock.systemUTC());
+  }
+
+  CashDrawer(Clock clock) {
+    this.clock = clock;
+  }
+
+  public synchronized CashCollection recordCollection(Currency currency, long amount) {
+    int ledger = findLedger(currency);
+
+    collectedTotals[ledger] = Math.addExact(collectedTotals[ledger], amount);
+    collectionCounts[ledger]++;
+
+    CashCollection collection =
+        new CashCollection(clock.instant(), currency, amount, collectedTotals[ledger]);
+
+    collections.add(collection);
+
+    return collection;
+  }
+
+  public synchronized long getCollectedTotal(Currency currency) {
+    int ledger = indexOf(currency);
+
+    return ledger < 0 ? 0 : collectedTotals[ledger];
+  }
+
+  public synchronized long getCollectionCount(Currency currency) {
+    int ledger = indexOf(currency);
+
+    return ledger < 0 ? 0 : collectionCounts[ledger];
+  }
+
+  public synchronized Currency[] getCurrencies() {
+    return currencies.clone();
+  }
+
+  public synchronized List<CashCollection> getCollections() {
+    return new ArrayList<>(collections);
+  }
+
+  private int findLedger(Currency currency) {
+    int ledger = indexOf(currency);
+
+    if (ledger >= 0) {
+      return ledger;
+    }
+
+    ledger = currencies.length;
+    currencies = Arrays.copyOf(currencies, ledger + 1);
+    collectedTotals = Arrays.copyOf(collectedTotals, ledger + 1);
+    collectionCounts = Arrays.copyOf(collectionCounts, ledger + 1);
+    currencies[ledger] = currency;
+
+    return ledger;
+  }
+
+  private int indexOf(Currency currency) {
+    for (int ledger = 0; ledger < currencies.length; ledger++) {
+      if (currencies[ledger] == currency) {
+        return ledger;
+      }
+    }
+
+    return -1;
+  }
+}
@@ -0,0 +1,133 @@
+package cinema;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+import java.util.Scanner;
+
+public class Cinema {
+  public static final int SMALL_MEDIUM_ROOM_SIZE = 60;
+  public static final int SMALL_MEDIUM_ROOM_SIZE_TICKET_PRICE = 10;
+  public static final int FRONT_HALF_TICKET_PRICE = 10;
+  public static final int BACK_HALF_TICKET_PRICE = 8;
+
+  public static final String CURRENCY_SYMBOL = Currency.getInstance("USD").getSymbol();
+
+  private final List<HallLayout> halls = new ArrayList<>();
+  private final StatisticsCounter statistics =
+      new StatisticsCounter(BookingStatistics.EMPTY, null);
+  private volatile Screening[] screenings = new Screening[0];
+  private int screeningCount;
+
+  public static void main(String[] args) {
+    Cinema cinema = new Cinema();
+    Scanner scanner = new Scanner(System.in);
+
+    System.out.println("Enter the number of rows:");
+    int rows = scanner.nextInt();
+    System.out.println("Enter the number of seats in each row:");
+    int seatsInRow = scanner.nextInt();
+
+    HallLayout hall = cinema.addHall("Screen 1", rows, seatsInRow);
+    CinemaHall seating = cinema.scheduleScreening(hall, LocalDateTime.now()).getSeating();
+
+    while (true) {
+      Event event = cinema.getUserEvent(scanner);
+
+      switch (event) {
+        case PRINT_CINEMA_HALL_SCHEMA:
+          seating.printCinemaHallSchema();
+
+          break;
+        case BUY_CINEMA_HALL_TICKET:
+          seating.bookCinemaHallSeat(scanner);
+
+          break;
+        case PRINT_CINEMA_HALL_STATS:
+          seating.printCinemaHallStats();
+
+          break;
+        default:
+          return;
+      }
+    }
+  }
+
+  public synchronized List<HallLayout> getHalls() {
+    return new ArrayList<>(halls);
+  }
+
+  public HallLayout addHall(String name, int rows, int seatsInRow) {
+    return addHall(new HallLayout(name, rows, seatsInRow));
+  }
+
+  public synchronized HallLayout addHall(HallLayout hall) {
+    halls.add(hall);
+
+    return hall;
+  }
+
+  public synchronized Screening scheduleScreening(HallLayout hall, LocalDateTime startsAt) {
+    Screening[] currentScreenings = screenings;
+
+    if (screeningCount == currentScreenings.length) {
+      currentScreenings = Arrays.copyOf(currentScreenings, Math.max(16, screeningCount * 2));
+    }
+
+    Screening screening = new Screening(screeningCount, hall, startsAt, statistics);
+
+    currentScreenings[screeningCount++] = screening;
+    screenings = currentScreenings;
+
+    return screening;
+  }
+
+  public Screening getScreening(int id) {
+    Screening[] currentScreenings = screenings;
+
+    return id >= 0 && id < currentScreenings.length ? currentScreenings[id] : null;
+  }
+
+  public synchronized List<Screening> getScreenings() {
+    return Arrays.asList(Arrays.copyOf(screenings, screeningCount));
+  }
+
+  public BookingStatistics getStatistics() {
+    return statistics.snapshot();
+  }
+
+  public Event getUserEvent(Scanner scanner) {
+    System.out.println();
+    System.out.println("1. Show the seats");
+    System.out.println("2. Buy a ticket");
+    System.out.println("3. Statistics");
+    System.out.println("0. Exit");
+
+    return Event.getInstance(scanner.nextInt());
+  }
+}
+
+enum Event {
+  PRINT_CINEMA_HALL_SCHEMA(1),
+  BUY_CINEMA_HALL_TICKET(2),
+  PRINT_CINEMA_HALL_STATS(3),
+  EXIT(0);
+
+  private final int code;
+
+  Event(int code) {
+    this.code = code;
+  }
+
+  public static Event getInstance(int code) {
+    for (Event event : Event.values()) {
+      if (event.code == code) {
+        return event;
+      }
+    }
+
+    return null;
+  }
+}
@@ -1,324 +1,421 @@
 package machine;
 
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
 import java.util.Currency;
-import java.util.Scanner;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 
 public class CoffeeMachine {
-  private static final String CURRENCY_SYMBOL = Currency.getInstance("USD").getSymbol();
-
-  private int waterMlLeft;
-  private int milkMlLeft;
-  private int beansGrLeft;
-  private int disposableCupsLeft;
-  private int cash;
+  static final String JOURNAL_DIRECTORY_PROPERTY = "machine.journal";
+  static final String HISTORY_DIRECTORY_PROPERTY = "machine.history";
+  static final String RECIPES_FILE_PROPERTY = "machine.recipes";
+  static final String METRICS_FILE_PROPERTY = "machine.metrics";
+  static final String SERVER_PORT_PROPERTY = "machine.port";
+  static final String SERVER_BIND_ADDRESS_PROPERTY = "machine.bind";
+  static final long RESERVATION_TICK_MILLIS = 10;
+  static final int RESERVATION_WHEEL_SIZE = 512;
+
+  private static final long METRICS_DUMP_PERIOD_MILLIS = 10_000;
+
+  private static final int DEFAULT_CASH = 550;
+
+  private final RecipeCatalog recipeCatalog;
+  private final InventoryEngine inventoryEngine;
+  private final CashDrawer cashDrawer = new CashDrawer();
+  private final PricingEngine pricingEngine = new PricingEngine();
+  private final LongSupplier clock = System::currentTimeMillis;
+  private final ReservationBook reservationBook =
+      new ReservationBook(RESERVATION_TICK_MILLIS, RESERVATION_WHEEL_SIZE, clock.getAsLong());
+  private final Consumer<Recipe> expiredReservationHandler = this::releaseReservation;
+  private volatile long reservationsExpiredAtTick;
+  private volatile MachineMetrics metrics;
 
   public CoffeeMachine() {
-    this.waterMlLeft = 400;
-    this.milkMlLeft = 540;
-    this.beansGrLeft = 120;
-    this.disposableCupsLeft = 9;
-    this.cash = 550;
-  }
-
-  public static void main(String[] args) {
-    Action action;
-    Scanner scanner = new Scanner(System.in);
-    CoffeeMachine coffeeMachine = new CoffeeMachine();
-
-    while (true) {
-      try {
-        action = coffeeMachine.askForAction(scanner);
-
-        if (action != null) {
-          switch (action) {
-            case BUY:
-              coffeeMachine.purchase(scanner);
-
-              break;
-            case FILL:
-              coffeeMachine.maintenance(scanner);
-
-              break;
-            case TAKE:
-              coffeeMachine.cashCollection();
-
-              break;
-            case REMAINING:
-              coffeeMachine.printStatus();
-
-              break;
-            case EXIT:
-              return;
-            default:
-              break;
-          }
-        } else {
-          coffeeMachine.printWithLineSeparator("Wrong action!");
-        }
-      } catch (Exception e) {
-        coffeeMachine.processException(e);
-      }
-    }
+    this(RecipeCatalog.createDefault());
+  }
+
+  public CoffeeMachine(RecipeCatalog recipeCatalog) {
+    this(recipeCatalog, createDefaultInventory(recipeCatalog.getCurrency()));
   }
 
-  private Action askForAction(Scanner scanner) {
-    printWithLineSeparator("Write action (buy, fill, take, remaining, exit):");
+  public CoffeeMachine(RecipeCatalog recipeCatalog, Inventory inventory) {
+    this(recipeCatalog, inventory, InventoryListener.NONE);
+  }
 
-    return Action.getInstance(scanner.nextLine());
+  public CoffeeMachine(RecipeCatalog recipeCatalog, Journal journal) {
+    this(recipeCatalog, journal.getRecoveredInventory(), journal);
   }
 
-  private void purchase(Scanner scanner) {
-    CoffeeType coffeeType;
+  public CoffeeMachine(
+      RecipeCatalog recipeCatalog, Inventory inventory, InventoryListener inventoryListener) {
+    this.recipeCatalog = recipeCatalog;
+    this.inventoryEngine = new InventoryEngine(inventory, inventoryListener, pricingEngine);
+  }
 
-    try {
-      printWithLineSeparator(
-          "What do you want to buy? 1 - espresso, 2 - latte, 3 - cappuccino, back - to main menu:");
-      coffeeType = CoffeeType.getInstance(scanner.nextInt());
-
-      if (coffeeType != null) {
-        if (coffeeProductionPossible(coffeeType)) {
-          System.out.println("I have enough resources, making you a coffee!");
-
-          useDisposableCup();
-          useWaterMl(coffeeType.getWaterMlRequired());
-          useMilkMl(coffeeType.getMilkMlRequired());
-          useBeansGr(coffeeType.getBeansGrRequired());
-          depositCash(coffeeType.getPrice());
-        } else {
-          printCoffeeProductionFirstCause(coffeeType);
-        }
+  public static void main(String[] args) throws IOException {
+    String journalDirectory = System.getProperty(JOURNAL_DIRECTORY_PROPERTY);
+    String historyDirectory = System.getProperty(HISTORY_DIRECTORY_PROPERTY);
+    String recipesFile = System.getProperty(RECIPES_FILE_PROPERTY);
+    RecipeCatalog recipeCatalog;
+
+    if (recipesFile == null) {
+      recipeCatalog = RecipeCatalog.createDefault();
+    } else {
+      recipeCatalog = RecipeCatalog.load(Paths.get(recipesFile));
+      recipeCatalog.startWatching();
+    }
+
+    if (historyDirectory == null) {
+      run(recipeCatalog, journalDirectory, InventoryListener.NONE);
+    } else {
+      try (TimeSeriesStore store =
+          TimeSeriesStore.open(
+              Paths.get(historyDirectory), InventoryHistory.getColumnCount(recipeCatalog))) {
+        run(recipeCatalog, journalDirectory, new InventoryHistory(store, 0));
       }
-    } catch (Exception e) {
-      processException(e);
     }
   }
 
-  private void maintenance(Scanner scanner) {
-    try {
-      printWithLineSeparator("Write how many ml of water you want to add:");
-      increaseWaterSupply(scanner.nextInt());
-      System.out.println("Write how many ml of milk you want to add:");
-      increaseMilkSupply(scanner.nextInt());
-      System.out.println("Write how many grams of coffee beans you want to add:");
-      increaseBeansSupply(scanner.nextInt());
-      System.out.println("Write how many disposable cups of coffee you want to add:");
-      increaseDisposableCupsSupply(scanner.nextInt());
-    } catch (Exception e) {
-      processException(e);
+  private static void run(
+      RecipeCatalog recipeCatalog, String journalDirectory, InventoryListener inventoryListener)
+      throws IOException {
+    Inventory defaultInventory = createDefaultInventory(recipeCatalog.getCurrency());
+
+    if (journalDirectory == null) {
+      run(new CoffeeMachine(recipeCatalog, defaultInventory, inventoryListener));
+    } else {
+      try (Journal journal =
+          Journal.open(
+              Paths.get(journalDirectory),
+              Journal.DEFAULT_GROUP_COMMIT_WINDOW_MILLIS,
+              defaultInventory)) {
+        run(
+            new CoffeeMachine(
+                recipeCatalog,
+                journal.getRecoveredInventory(),
+                journal.andThen(inventoryListener)));
+      }
     }
   }
 
-  private void cashCollection() {
-    System.out.println("I gave you " + CURRENCY_SYMBOL + getCash());
-    withdrawAllCash();
+  private static Inventory createDefaultInventory(Currency currency) {
+    return new Inventory(
+        400, 540, 120, 9, MoneyFormat.getInstance(currency).toMinorUnits(DEFAULT_CASH));
   }
 
-  private boolean coffeeProductionPossible(CoffeeType coffeeType) {
-    return calculateCoffeeCupsLeft(coffeeType) > 0 && getDisposableCupsLeft() > 0;
-  }
+  private static void run(CoffeeMachine coffeeMachine) throws IOException {
+    String serverPort = System.getProperty(SERVER_PORT_PROPERTY);
+    String metricsFile = System.getProperty(METRICS_FILE_PROPERTY);
 
-  private void printCoffeeProductionFirstCause(CoffeeType coffeeType) {
-    if (getWaterMlLeft() < coffeeType.getWaterMlRequired()) {
-      System.out.println("Sorry, not enough water!");
-    } else if (getMilkMlLeft() < coffeeType.getMilkMlRequired()) {
-      System.out.println("Sorry, not enough milk!");
-    } else if (getBeansGrLeft() < coffeeType.getBeansGrRequired()) {
-      System.out.println("Sorry, not enough beans!");
-    } else if (getDisposableCupsLeft() < 1) {
-      System.out.println("Sorry, not enough disposable cups!");
+    if (metricsFile != null) {
+      coffeeMachine
+          .enableMetrics()
+          .startDumping(
+              Paths.get(metricsFile),
+              coffeeMachine.getRecipeCatalog(),
+              METRICS_DUMP_PERIOD_MILLIS);
     }
-  }
-
-  private int calculateCoffeeCupsLeft(CoffeeType coffeeType) {
-    int cupsLeft = this.waterMlLeft / coffeeType.getWaterMlRequired();
-    int leftByBeans = this.beansGrLeft / coffeeType.getBeansGrRequired();
 
-    if (coffeeType.getMilkMlRequired() > 0) {
-      int leftByMilk = this.milkMlLeft / coffeeType.getMilkMlRequired();
+    try {
+      if (serverPort == null) {
+        runConsole(coffeeMachine);
+      } else {
+        serve(coffeeMachine, Integer.parseInt(serverPort));
+      }
+    } finally {
+      coffeeMachine.releaseReservations();
 
-      if (leftByMilk < cupsLeft) {
-        cupsLeft = leftByMilk;
+      if (metricsFile != null) {
+        coffeeMachine.getMetrics().dump(Paths.get(metricsFile), coffeeMachine.getRecipeCatalog());
       }
     }
+  }
 
-    if (leftByBeans < cupsLeft) {
-      cupsLeft = leftByBeans;
-    }
+  private static void runConsole(CoffeeMachine coffeeMachine) throws IOException {
+    ResponseWriter responseWriter = new ResponseWriter(System.out);
 
-    return cupsLeft;
+    new CoffeeMachineConsole(
+            coffeeMachine, new CommandReader(System.in, responseWriter), responseWriter)
+        .run();
   }
 
-  private int getWaterMlLeft() {
-    return waterMlLeft;
-  }
+  private static void serve(CoffeeMachine coffeeMachine, int port) throws IOException {
+    // FILL and TAKE are unauthenticated, so only loopback clients are served unless asked.
+    String bindAddress = System.getProperty(SERVER_BIND_ADDRESS_PROPERTY);
+    InetAddress address =
+        bindAddress == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName(bindAddress);
 
-  private void increaseWaterSupply(int waterMlToAdd) {
-    this.waterMlLeft += waterMlToAdd;
+    try (CoffeeMachineServer server =
+        CoffeeMachineServer.start(coffeeMachine, new InetSocketAddress(address, port))) {
+      server.awaitTermination();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
   }
 
-  private void useWaterMl(int waterMlToUse) {
-    this.waterMlLeft -= waterMlToUse;
+  public RecipeCatalog getRecipeCatalog() {
+    return recipeCatalog;
   }
 
-  private int getMilkMlLeft() {
-    return milkMlLeft;
+  public Currency getCurrency() {
+    return recipeCatalog.getCurrency();
   }
 
-  private void increaseMilkSupply(int milkMlToAdd) {
-    this.milkMlLeft += milkMlToAdd;
+  public CashDrawer getCashDrawer() {
+    return cashDrawer;
   }
 
-  private void useMilkMl(int milkMlToUse) {
-    this.milkMlLeft -= milkMlToUse;
+  public PricingEngine getPricingEngine() {
+    return pricingEngine;
   }
 
-  private int getBeansGrLeft() {
-    return beansGrLeft;
+  public long quote(Recipe recipe, int customerTier) {
+    return pricingEngine.price(recipe, snapshot(), customerTier);
   }
 
-  private void increaseBeansSupply(int beansGrToAdd) {
-    this.beansGrLeft += beansGrToAdd;
-  }
+  public synchronized MachineMetrics enableMetrics() {
+    if (metrics == null) {
+      metrics = new MachineMetrics();
+    }
 
-  private void useBeansGr(int beansGrToUse) {
-    this.beansGrLeft -= beansGrToUse;
+    return metrics;
   }
 
-  private int getDisposableCupsLeft() {
-    return disposableCupsLeft;
+  public MachineMetrics getMetrics() {
+    return metrics;
   }
 
-  private void increaseDisposableCupsSupply(int disposableCupsToAdd) {
-    this.disposableCupsLeft += disposableCupsToAdd;
+  public OrderOutcome order(Recipe recipe) {
+    return order(recipe, PricingEngine.STANDARD_TIER);
   }
 
-  private void useDisposableCup() {
-    this.disposableCupsLeft -= 1;
-  }
+  public OrderOutcome order(Recipe recipe, int customerTier) {
+    expireDueReservations();
 
-  private int getCash() {
-    return cash;
-  }
+    MachineMetrics currentMetrics = metrics;
 
-  private void depositCash(int cash) {
-    this.cash += cash;
-  }
+    if (currentMetrics == null) {
+      return OrderOutcome.getInstance(inventoryEngine.purchase(recipe, customerTier));
+    }
+
+    boolean latencySampled = currentMetrics.sampleLatency();
+    long start = latencySampled ? System.nanoTime() : 0;
+    Resource missingResource = inventoryEngine.purchase(recipe, customerTier);
+
+    currentMetrics.recordOrder(recipe, missingResource);
 
-  private void withdrawAllCash() {
-    this.cash = 0;
+    if (latencySampled) {
+      currentMetrics.recordOrderLatency(System.nanoTime() - start);
+    }
+
+    return OrderOutcome.getInstance(missingResource);
   }
 
-  private void printWithLineSeparator(String message) {
-    System.out.println(System.lineSeparator() + message);
+  public BatchResult order(OrderBatch orderBatch, BatchMode batchMode) {
+    return order(orderBatch, batchMode, PricingEngine.STANDARD_TIER);
   }
 
-  private void printStatus() {
-    printWithLineSeparator(this.toString());
+  public BatchResult order(OrderBatch orderBatch, BatchMode batchMode, int customerTier) {
+    expireDueReservations();
+
+    MachineMetrics currentMetrics = metrics;
+
+    if (currentMetrics == null) {
+      return inventoryEngine.purchase(orderBatch, batchMode, customerTier);
+    }
+
+    boolean latencySampled = currentMetrics.sampleLatency();
+    long start = latencySampled ? System.nanoTime() : 0;
+    BatchResult batchResult = inventoryEngine.purchase(orderBatch, batchMode, customerTier);
+
+    currentMetrics.recordBatch(batchResult, orderBatch);
+
+    if (latencySampled) {
+      currentMetrics.recordOrderLatency(System.nanoTime() - start);
+    }
+
+    return batchResult;
   }
 
-  private void processException(Exception e) {
-    System.out.println("Something went wrong!");
-    e.printStackTrace();
+  public Reservation reserve(Recipe recipe, int customerTier, long timeoutMillis) {
+    expireDueReservations();
+
+    long result = inventoryEngine.reserve(recipe, customerTier);
+
+    if (result < 0) {
+      Resource missingResource = recipe.getResource((int) (-1 - result));
+      MachineMetrics currentMetrics = metrics;
+
+      if (currentMetrics != null) {
+        currentMetrics.recordOrder(recipe, missingResource);
+      }
+
+      return new Reservation(
+          Reservation.NO_TOKEN, recipe, 0, 0, OrderOutcome.getInstance(missingResource));
+    }
+
+    long expiresAtMillis = clock.getAsLong() + timeoutMillis;
+    long token;
+
+    synchronized (reservationBook) {
+      token = reservationBook.add(recipe, result, expiresAtMillis);
+    }
+
+    return new Reservation(token, recipe, result, expiresAtMillis, OrderOutcome.COMPLETED);
   }
 
-  @Override
-  public String toString() {
-    return System.lineSeparator()
-        + "The coffee machine has:"
-        + System.lineSeparator()
-        + getWaterMlLeft()
-        + " ml of water"
-        + System.lineSeparator()
-        + getMilkMlLeft()
-        + " ml of milk"
-        + System.lineSeparator()
-        + getBeansGrLeft()
-        + " g of coffee beans"
-        + System.lineSeparator()
-        + getDisposableCupsLeft()
-        + " disposable cups"
-        + System.lineSeparator()
-        + CURRENCY_SYMBOL
-        + getCash()
-        + " of money"
-        + System.lineSeparator();
+  public boolean commit(long token) {
+    Recipe recipe;
+    long price;
+    boolean expired;
+
+    synchronized (reservationBook) {
+      int slot = reservationBook.find(token);
+
+      if (slot < 0) {
+        return false;
+      }
+
+      recipe = reservationBook.getRecipe(slot);
+      price = reservationBook.getPrice(slot);
+      expired = reservationBook.isExpired(slot, clock.getAsLong());
+      reservationBook.remove(slot);
+    }
+
+    if (expired) {
+      releaseReservation(recipe);
+
+      return false;
+    }
+
+    MachineMetrics currentMetrics = metrics;
+
+    inventoryEngine.confirm(recipe, price);
+
+    if (currentMetrics != null) {
+      currentMetrics.recordOrder(recipe, null);
+    }
+
+    return true;
   }
-}
 
-enum CoffeeType {
-  ESPRESSO(1, 250, 0, 16, 4),
-  LATTE(2, 350, 75, 20, 7),
-  CAPPUCCINO(3, 200, 100, 12, 6);
-
-  private final int type;
-  private final int waterMlRequired;
-  private final int milkMlRequired;
-  private final int beansGrRequired;
-  private final int price;
-
-  CoffeeType(int type, int waterMlRequired, int milkMlRequired, int beansGrRequired, int price) {
-    this.type = type;
-    this.waterMlRequired = waterMlRequired;
-    this.milkMlRequired = milkMlRequired;
-    this.beansGrRequired = beansGrRequired;
-    this.price = price;
-  }
-
-  public static CoffeeType getInstance(int type) {
-    for (CoffeeType coffeeType : CoffeeType.values()) {
-      if (coffeeType.getType() == type) {
-        return coffeeType;
+  public boolean cancel(long token) {
+    Recipe recipe;
+
+    synchronized (reservationBook) {
+      int slot = reservationBook.find(token);
+
+      if (slot < 0) {
+        return false;
       }
+
+      recipe = reservationBook.getRecipe(slot);
+      reservationBook.remove(slot);
     }
 
-    return null;
+    releaseReservation(recipe);
+
+    return true;
   }
 
-  public int getType() {
-    return type;
+  public int expireReservations() {
+    long nowMillis = clock.getAsLong();
+
+    synchronized (reservationBook) {
+      reservationsExpiredAtTick = nowMillis / RESERVATION_TICK_MILLIS;
+
+      return reservationBook.expire(nowMillis, expiredReservationHandler);
+    }
   }
 
-  public int getWaterMlRequired() {
-    return waterMlRequired;
+  private void expireDueReservations() {
+    if (clock.getAsLong() / RESERVATION_TICK_MILLIS > reservationsExpiredAtTick) {
+      expireReservations();
+    }
   }
 
-  public int getMilkMlRequired() {
-    return milkMlRequired;
+  public int releaseReservations() {
+    synchronized (reservationBook) {
+      return reservationBook.clear(this::releaseReservation);
+    }
   }
 
-  public int getBeansGrRequired() {
-    return beansGrRequired;
+  private void releaseReservation(Recipe recipe) {
+    inventoryEngine.release(recipe.getAmounts());
   }
 
-  public int getPrice() {
-    return price;
+  public int getOutstandingReservations() {
+    synchronized (reservationBook) {
+      return reservationBook.getOutstanding();
+    }
   }
-}
 
-enum Action {
-  BUY("buy"),
-  FILL("fill"),
-  TAKE("take"),
-  REMAINING("remaining"),
-  EXIT("exit");
+  public void refill(int waterMlToAdd, int milkMlToAdd, int beansGrToAdd, int cupsToAdd) {
+    refill(new int[] {waterMlToAdd, milkMlToAdd, beansGrToAdd, cupsToAdd});
+  }
 
-  private final String type;
+  public void refill(Resource resource, int amountToAdd) {
+    int[] amountsToAdd = new int[resource.getIndex() + 1];
+    amountsToAdd[resource.getIndex()] = amountToAdd;
 
-  Action(String type) {
-    this.type = type;
+    refill(amountsToAdd);
   }
 
-  public static Action getInstance(String type) {
-    for (Action action : Action.values()) {
-      if (action.getType().equalsIgnoreCase(type)) {
-        return action;
-      }
+  public long collectCash() {
+    long cash = inventoryEngine.withdrawAllCash();
+    MachineMetrics currentMetrics = metrics;
+
+    if (cash != 0) {
+      cashDrawer.recordCollection(getCurrency(), cash);
+    }
+
+    if (currentMetrics != null) {
+      currentMetrics.recordCashCollection(cash);
     }
 
-    return null;
+    return cash;
   }
 
-  public String getType() {
-    return type;
+  public Inventory snapshot() {
+    expireDueReservations();
+
+    return inventoryEngine.getInventory();
+  }
+
+  void refill(int[] amountsToAdd) {
+    MachineMetrics currentMetrics = metrics;
+
+    inventoryEngine.supply(amountsToAdd);
+
+    if (currentMetrics != null) {
+      currentMetrics.recordFill(amountsToAdd);
+    }
+  }
+
+  @Override
+  public String toString() {
+    Inventory inventory = snapshot();
+
+    return System.lineSeparator()
+        + "The coffee machine has:"
+        + System.lineSeparator()
+        + inventory.getWaterMlLeft()
+        + " ml of water"
+        + System.lineSeparator()
+        + inventory.getMilkMlLeft()
+        + " ml of milk"
+        + System.lineSeparator()
+        + inventory.getBeansGrLeft()
+        + " g of coffee beans"
+        + System.lineSeparator()
+        + inventory.getDisposableCupsLeft()
+        + " disposable cups"
+        + System.lineSeparator()
+        + MoneyFormat.getInstance(getCurrency()).format(inventory.getCash())
+        + " of money"
+        + System.lineSeparator();
   }
 }
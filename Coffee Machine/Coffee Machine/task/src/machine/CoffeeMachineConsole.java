@@ -0,0 +1,297 @@
+package machine;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+class CoffeeMachineConsole {
+  private static final byte[] ACTION_PROMPT =
+      ResponseWriter.encode("Write action (buy, fill, take, remaining, exit):");
+  private static final byte[] WRONG_ACTION = ResponseWriter.encode("Wrong action!");
+  private static final byte[] MAKING_COFFEE =
+      ResponseWriter.encode("I have enough resources, making you a coffee!");
+  private static final byte[] WATER_PROMPT =
+      ResponseWriter.encode("Write how many ml of water you want to add:");
+  private static final byte[] MILK_PROMPT =
+      ResponseWriter.encode("Write how many ml of milk you want to add:");
+  private static final byte[] BEANS_PROMPT =
+      ResponseWriter.encode("Write how many grams of coffee beans you want to add:");
+  private static final byte[] DISPOSABLE_CUPS_PROMPT =
+      ResponseWriter.encode("Write how many disposable cups of coffee you want to add:");
+  private static final byte[] CASH_GIVEN = ResponseWriter.encode("I gave you ");
+  private static final byte[] STATUS_HEADER = ResponseWriter.encode("The coffee machine has:");
+  private static final byte[] WATER_SUFFIX = ResponseWriter.encode(" ml of water");
+  private static final byte[] MILK_SUFFIX = ResponseWriter.encode(" ml of milk");
+  private static final byte[] BEANS_SUFFIX = ResponseWriter.encode(" g of coffee beans");
+  private static final byte[] DISPOSABLE_CUPS_SUFFIX = ResponseWriter.encode(" disposable cups");
+  private static final byte[] CASH_SUFFIX = ResponseWriter.encode(" of money");
+  private static final byte[] SOMETHING_WENT_WRONG = ResponseWriter.encode("Something went wrong!");
+
+  private final CoffeeMachine coffeeMachine;
+  private final CommandReader commandReader;
+  private final ResponseWriter responseWriter;
+  private final MoneyFormat moneyFormat;
+  private Recipe[] promptedRecipes;
+  private byte[] recipePrompt;
+  private byte[][] shortageMessages = new byte[0][];
+
+  CoffeeMachineConsole(
+      CoffeeMachine coffeeMachine, CommandReader commandReader, ResponseWriter responseWriter) {
+    this.coffeeMachine = coffeeMachine;
+    this.commandReader = commandReader;
+    this.responseWriter = responseWriter;
+    this.moneyFormat = MoneyFormat.getInstance(coffeeMachine.getCurrency());
+  }
+
+  public void run() throws IOException {
+    Action action;
+
+    try {
+      while (true) {
+        try {
+          action = askForAction();
+
+          if (action != null) {
+            switch (action) {
+              case BUY:
+                purchase();
+
+                break;
+              case FILL:
+                maintenance();
+
+                break;
+              case TAKE:
+                cashCollection();
+
+                break;
+              case REMAINING:
+                printStatus();
+
+                break;
+              case EXIT:
+                return;
+              default:
+                break;
+            }
+          } else {
+            printWithLineSeparator(WRONG_ACTION);
+          }
+        } catch (Exception e) {
+          processException(e);
+        }
+      }
+    } finally {
+      responseWriter.flush();
+    }
+  }
+
+  private Action askForAction() throws IOException {
+    printWithLineSeparator(ACTION_PROMPT);
+
+    if (!commandReader.readLine()) {
+      return Action.EXIT;
+    }
+
+    return Action.getInstance(commandReader.getLine(), commandReader.getLineLength());
+  }
+
+  private void purchase() throws IOException {
+    Recipe recipe;
+
+    try {
+      printWithLineSeparator(getRecipePrompt());
+      recipe = coffeeMachine.getRecipeCatalog().getRecipe(commandReader.nextInt());
+
+      if (recipe != null) {
+        OrderOutcome orderOutcome = coffeeMachine.order(recipe);
+
+        if (orderOutcome.isCompleted()) {
+          println(MAKING_COFFEE);
+        } else {
+          println(getShortageMessage(orderOutcome.getMissingResource()));
+        }
+      }
+    } catch (Exception e) {
+      processException(e);
+    }
+  }
+
+  private void maintenance() throws IOException {
+    try {
+      printWithLineSeparator(WATER_PROMPT);
+      int waterMlToAdd = commandReader.nextInt();
+      println(MILK_PROMPT);
+      int milkMlToAdd = commandReader.nextInt();
+      println(BEANS_PROMPT);
+      int beansGrToAdd = commandReader.nextInt();
+      println(DISPOSABLE_CUPS_PROMPT);
+      int disposableCupsToAdd = commandReader.nextInt();
+
+      coffeeMachine.refill(waterMlToAdd, milkMlToAdd, beansGrToAdd, disposableCupsToAdd);
+    } catch (Exception e) {
+      processException(e);
+    }
+  }
+
+  private void cashCollection() throws IOException {
+    responseWriter.write(CASH_GIVEN).writeMoney(coffeeMachine.collectCash(), moneyFormat).newLine();
+  }
+
+  private void printStatus() throws IOException {
+    Inventory inventory = coffeeMachine.snapshot();
+
+    responseWriter.newLine().newLine().write(STATUS_HEADER).newLine();
+    responseWriter.writeLong(inventory.getWaterMlLeft()).write(WATER_SUFFIX).newLine();
+    responseWriter.writeLong(inventory.getMilkMlLeft()).write(MILK_SUFFIX).newLine();
+    responseWriter.writeLong(inventory.getBeansGrLeft()).write(BEANS_SUFFIX).newLine();
+    responseWriter
+        .writeLong(inventory.getDisposableCupsLeft())
+        .write(DISPOSABLE_CUPS_SUFFIX)
+        .newLine();
+    responseWriter
+        .writeMoney(inventory.getCash(), moneyFormat)
+        .write(CASH_SUFFIX)
+        .newLine()
+        .newLine();
+  }
+
+  private byte[] getRecipePrompt() {
+    Recipe[] recipes = coffeeMachine.getRecipeCatalog().getPublishedRecipes();
+
+    if (recipes != promptedRecipes) {
+      StringBuilder prompt = new StringBuilder("What do you want to buy?");
+
+      for (Recipe recipe : recipes) {
+        prompt.append(' ').append(recipe.getId()).append(" - ").append(recipe.getName()).append(',');
+      }
+
+      recipePrompt = ResponseWriter.encode(prompt.append(" back - to main menu:").toString());
+      promptedRecipes = recipes;
+      shortageMessages = new byte[0][];
+    }
+
+    return recipePrompt;
+  }
+
+  private byte[] getShortageMessage(Resource resource) {
+    int index = resource.getIndex();
+
+    if (index >= shortageMessages.length) {
+      shortageMessages = Arrays.copyOf(shortageMessages, index + 1);
+    }
+
+    byte[] shortageMessage = shortageMessages[index];
+
+    if (shortageMessage == null) {
+      shortageMessage = ResponseWriter.encode("Sorry, not enough " + resource.getName() + "!");
+      shortageMessages[index] = shortageMessage;
+    }
+
+    return shortageMessage;
+  }
+
+  private void println(byte[] message) throws IOException {
+    responseWriter.write(message).newLine();
+  }
+
+  private void printWithLineSeparator(byte[] message) throws IOException {
+    responseWriter.newLine().write(message).newLine();
+  }
+
+  private void processException(Exception e) throws IOException {
+    MachineMetrics metrics = coffeeMachine.getMetrics();
+
+    if (metrics != null) {
+      metrics.recordError(e);
+    }
+
+    println(SOMETHING_WENT_WRONG);
+    e.printStackTrace();
+  }
+}
+
+enum Action {
+  BUY("buy"),
+  FILL("fill"),
+  TAKE("take"),
+  REMAINING("remaining"),
+  EXIT("exit");
+
+  private static final int HASH_MULTIPLIER;
+  private static final int HASH_MASK;
+  private static final Action[] ACTIONS_BY_HASH;
+
+  static {
+    Action[] actions = values();
+    int mask = Integer.highestOneBit(actions.length) * 2 - 1;
+    int multiplier = 1;
+    Action[] actionsByHash;
+
+    while ((actionsByHash = index(actions, multiplier, mask)) == null) {
+      if (++multiplier > mask) {
+        mask = mask * 2 + 1;
+        multiplier = 1;
+      }
+    }
+
+    HASH_MULTIPLIER = multiplier;
+    HASH_MASK = mask;
+    ACTIONS_BY_HASH = actionsByHash;
+  }
+
+  private final String type;
+  private final byte[] typeBytes;
+
+  Action(String type) {
+    this.type = type;
+    this.typeBytes = ResponseWriter.encode(type);
+  }
+
+  public static Action getInstance(byte[] bytes, int length) {
+    if (length == 0) {
+      return null;
+    }
+
+    Action action = ACTIONS_BY_HASH[hash(bytes[0], length, HASH_MULTIPLIER, HASH_MASK)];
+
+    return action != null && action.matches(bytes, length) ? action : null;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  private static int hash(byte first, int length, int multiplier, int mask) {
+    return ((first | 0x20) * multiplier + length) & mask;
+  }
+
+  private static Action[] index(Action[] actions, int multiplier, int mask) {
+    Action[] actionsByHash = new Action[mask + 1];
+
+    for (Action action : actions) {
+      int slot = hash(action.typeBytes[0], action.typeBytes.length, multiplier, mask);
+
+      if (actionsByHash[slot] != null) {
+        return null;
+      }
+
+      actionsByHash[slot] = action;
+    }
+
+    return actionsByHash;
+  }
+
+  private boolean matches(byte[] bytes, int length) {
+    if (typeBytes.length != length) {
+      return false;
+    }
+
+    for (int i = 0; i < length; i++) {
+      if ((bytes[i] | 0x20) != typeBytes[i]) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+}
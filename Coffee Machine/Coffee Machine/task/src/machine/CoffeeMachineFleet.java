@@ -0,0 +1,187 @@
+package machine;
+
+public class CoffeeMachineFleet {
+  private final int size;
+  private final int[] waterMlLeft;
+  private final int[] milkMlLeft;
+  private final int[] beansGrLeft;
+  private final int[] disposableCupsLeft;
+  private final long[] cash;
+
+  public CoffeeMachineFleet(int size, Inventory initialInventory) {
+    this.size = size;
+    this.waterMlLeft = new int[size];
+    this.milkMlLeft = new int[size];
+    this.beansGrLeft = new int[size];
+    this.disposableCupsLeft = new int[size];
+    this.cash = new long[size];
+
+    for (int machine = 0; machine < size; machine++) {
+      reset(machine, initialInventory);
+    }
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public OrderOutcome order(int machine, Recipe recipe) {
+    int[] amountsLeft = getAmountsLeft(machine);
+
+    if (FeasibilityKernel.calculateCupsLeft(amountsLeft, recipe.getAmounts()) < 1) {
+      int missing = FeasibilityKernel.findFirstMissing(amountsLeft, recipe.getAmounts());
+
+      return OrderOutcome.getInstance(recipe.getResource(missing));
+    }
+
+    waterMlLeft[machine] -= recipe.getWaterMlRequired();
+    milkMlLeft[machine] -= recipe.getMilkMlRequired();
+    beansGrLeft[machine] -= recipe.getBeansGrRequired();
+    disposableCupsLeft[machine] -= recipe.getDisposableCupsRequired();
+    cash[machine] += recipe.getPrice();
+
+    return OrderOutcome.COMPLETED;
+  }
+
+  public void fill(
+      int machine, int waterMlToAdd, int milkMlToAdd, int beansGrToAdd, int cupsToAdd) {
+    waterMlLeft[machine] += waterMlToAdd;
+    milkMlLeft[machine] += milkMlToAdd;
+    beansGrLeft[machine] += beansGrToAdd;
+    disposableCupsLeft[machine] += cupsToAdd;
+  }
+
+  public long take(int machine) {
+    long taken = cash[machine];
+    cash[machine] = 0;
+
+    return taken;
+  }
+
+  public void reset(int machine, Inventory inventory) {
+    waterMlLeft[machine] = inventory.getWaterMlLeft();
+    milkMlLeft[machine] = inventory.getMilkMlLeft();
+    beansGrLeft[machine] = inventory.getBeansGrLeft();
+    disposableCupsLeft[machine] = inventory.getDisposableCupsLeft();
+    cash[machine] = inventory.getCash();
+  }
+
+  public Inventory snapshot(int machine) {
+    return new Inventory(
+        waterMlLeft[machine],
+        milkMlLeft[machine],
+        beansGrLeft[machine],
+        disposableCupsLeft[machine],
+        cash[machine]);
+  }
+
+  public int calculateCoffeeCupsLeft(int machine, Recipe recipe) {
+    return FeasibilityKernel.calculateCupsLeft(getAmountsLeft(machine), recipe.getAmounts());
+  }
+
+  public int countMachinesAbleToMake(Recipe recipe, int cups) {
+    long waterMlRequired = (long) cups * recipe.getWaterMlRequired();
+    long milkMlRequired = (long) cups * recipe.getMilkMlRequired();
+    long beansGrRequired = (long) cups * recipe.getBeansGrRequired();
+    long disposableCupsRequired = (long) cups * recipe.getDisposableCupsRequired();
+
+    if (!usesOnlyStandardResources(recipe)) {
+      return 0;
+    }
+
+    if (Math.max(
+            Math.max(waterMlRequired, milkMlRequired),
+            Math.max(beansGrRequired, disposableCupsRequired))
+        > Integer.MAX_VALUE) {
+      return 0;
+    }
+
+    int waterThreshold = (int) waterMlRequired;
+    int milkThreshold = (int) milkMlRequired;
+    int beansThreshold = (int) beansGrRequired;
+    int disposableCupsThreshold = (int) disposableCupsRequired;
+    int count = 0;
+
+    for (int machine = 0; machine < size; machine++) {
+      boolean able =
+          waterMlLeft[machine] >= waterThreshold
+              & milkMlLeft[machine] >= milkThreshold
+              & beansGrLeft[machine] >= beansThreshold
+              & disposableCupsLeft[machine] >= disposableCupsThreshold;
+
+      count += able ? 1 : 0;
+    }
+
+    return count;
+  }
+
+  public int findMachinesAbleToMake(Recipe recipe, int cups, int[] machines) {
+    long waterMlRequired = (long) cups * recipe.getWaterMlRequired();
+    long milkMlRequired = (long) cups * recipe.getMilkMlRequired();
+    long beansGrRequired = (long) cups * recipe.getBeansGrRequired();
+    long disposableCupsRequired = (long) cups * recipe.getDisposableCupsRequired();
+
+    if (!usesOnlyStandardResources(recipe)) {
+      return 0;
+    }
+
+    if (Math.max(
+            Math.max(waterMlRequired, milkMlRequired),
+            Math.max(beansGrRequired, disposableCupsRequired))
+        > Integer.MAX_VALUE) {
+      return 0;
+    }
+
+    int waterThreshold = (int) waterMlRequired;
+    int milkThreshold = (int) milkMlRequired;
+    int beansThreshold = (int) beansGrRequired;
+    int disposableCupsThreshold = (int) disposableCupsRequired;
+    int count = 0;
+
+    for (int machine = 0; machine < size && count < machines.length; machine++) {
+      boolean able =
+          waterMlLeft[machine] >= waterThreshold
+              & milkMlLeft[machine] >= milkThreshold
+              & beansGrLeft[machine] >= beansThreshold
+              & disposableCupsLeft[machine] >= disposableCupsThreshold;
+
+      machines[count] = machine;
+      count += able ? 1 : 0;
+    }
+
+    return count;
+  }
+
+  public long calculateTotalCash() {
+    long totalCash = 0;
+
+    for (int machine = 0; machine < size; machine++) {
+      totalCash += cash[machine];
+    }
+
+    return totalCash;
+  }
+
+  private int[] getAmountsLeft(int machine) {
+    int[] amountsLeft = new int[Resource.STANDARD_RESOURCE_COUNT];
+
+    amountsLeft[Resource.WATER.getIndex()] = waterMlLeft[machine];
+    amountsLeft[Resource.MILK.getIndex()] = milkMlLeft[machine];
+    amountsLeft[Resource.BEANS.getIndex()] = beansGrLeft[machine];
+    amountsLeft[Resource.DISPOSABLE_CUPS.getIndex()] = disposableCupsLeft[machine];
+
+    return amountsLeft;
+  }
+
+  private static boolean usesOnlyStandardResources(Recipe recipe) {
+    int[] amountsRequired = recipe.getAmounts();
+
+    for (int i = Resource.STANDARD_RESOURCE_COUNT; i < amountsRequired.length; i++) {
+      if (amountsRequired[i] > 0) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+}
@@ -0,0 +1,152 @@
+package machine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class CoffeeMachineLoadGenerator {
+  private static final int REFILL_AMOUNT = 10_000;
+
+  private final InetSocketAddress address;
+  private final int connections;
+  private final int pipelineDepth;
+  private final long durationNanos;
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private volatile long deadline;
+
+  public CoffeeMachineLoadGenerator(
+      InetSocketAddress address, int connections, int pipelineDepth, long durationMillis) {
+    this.address = address;
+    this.connections = connections;
+    this.pipelineDepth = pipelineDepth;
+    this.durationNanos = TimeUnit.MILLISECONDS.toNanos(durationMillis);
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    String host = args.length > 0 ? args[0] : "localhost";
+    int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+    int connections = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+    int pipelineDepth = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+    long durationMillis = args.length > 4 ? Long.parseLong(args[4]) : 10_000;
+
+    new CoffeeMachineLoadGenerator(
+            new InetSocketAddress(host, port), connections, pipelineDepth, durationMillis)
+        .run();
+  }
+
+  public void run() throws InterruptedException {
+    ExecutorService executor = CoffeeMachineServer.newConnectionExecutor();
+    CountDownLatch connected = new CountDownLatch(connections);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch finished = new CountDownLatch(connections);
+
+    for (int i = 0; i < connections; i++) {
+      executor.execute(() -> runConnection(connected, started, finished));
+    }
+
+    connected.await();
+
+    long start = System.nanoTime();
+
+    deadline = start + durationNanos;
+    started.countDown();
+    finished.await();
+
+    long elapsedNanos = System.nanoTime() - start;
+    long[] latencyCounts = latency.snapshot();
+
+    executor.shutdown();
+    System.out.printf(
+        "connections: %d, requests: %d, failures: %d, requests/s: %.0f,"
+            + " p50: %d us, p99: %d us%n",
+        connections,
+        requests.sum(),
+        failures.sum(),
+        requests.sum() * 1e9 / elapsedNanos,
+        TimeUnit.NANOSECONDS.toMicros(LatencyHistogram.percentile(latencyCounts, 50)),
+        TimeUnit.NANOSECONDS.toMicros(LatencyHistogram.percentile(latencyCounts, 99)));
+  }
+
+  private void runConnection(
+      CountDownLatch connected, CountDownLatch started, CountDownLatch finished) {
+    try (Socket socket = new Socket()) {
+      socket.setTcpNoDelay(true);
+      socket.connect(address);
+
+      DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+      out.writeByte(BinaryProtocolHandler.MAGIC);
+      connected.countDown();
+      connected = null;
+      started.await();
+
+      boolean refillNeeded = false;
+
+      while (System.nanoTime() < deadline) {
+        long batchStart = System.nanoTime();
+
+        // The refill goes ahead of the buys it is meant to unblock, so its ack comes first.
+        if (refillNeeded) {
+          writeRefill(out);
+        }
+
+        for (int i = 0; i < pipelineDepth; i++) {
+          out.writeByte(BinaryProtocolHandler.BUY);
+          out.writeInt(ThreadLocalRandom.current().nextInt(3) + 1);
+        }
+
+        out.flush();
+
+        if (refillNeeded) {
+          in.readByte();
+        }
+
+        refillNeeded = false;
+
+        for (int i = 0; i < pipelineDepth; i++) {
+          refillNeeded |= in.readByte() != BinaryProtocolHandler.COMPLETED;
+        }
+
+        long batchLatency = System.nanoTime() - batchStart;
+
+        for (int i = 0; i < pipelineDepth; i++) {
+          latency.record(batchLatency);
+        }
+
+        requests.add(pipelineDepth);
+      }
+    } catch (IOException e) {
+      failures.increment();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      if (connected != null) {
+        connected.countDown();
+      }
+
+      finished.countDown();
+    }
+  }
+
+  private static void writeRefill(DataOutputStream out) throws IOException {
+    out.writeByte(BinaryProtocolHandler.FILL);
+    out.writeByte(Resource.STANDARD_RESOURCE_COUNT);
+
+    for (int i = 0; i < Resource.STANDARD_RESOURCE_COUNT; i++) {
+      out.writeInt(REFILL_AMOUNT);
+    }
+  }
+}
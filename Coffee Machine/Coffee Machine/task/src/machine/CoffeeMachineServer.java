@@ -0,0 +1,120 @@
+package machine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class CoffeeMachineServer implements Closeable {
+  private static final int ACCEPT_BACKLOG = 16384;
+
+  private final CoffeeMachine coffeeMachine;
+  private final ServerSocket serverSocket;
+  private final ExecutorService connectionExecutor = newConnectionExecutor();
+  private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+  private final Thread acceptor;
+
+  private CoffeeMachineServer(CoffeeMachine coffeeMachine, InetSocketAddress address)
+      throws IOException {
+    this.coffeeMachine = coffeeMachine;
+    this.serverSocket = new ServerSocket();
+    this.serverSocket.setReuseAddress(true);
+    this.serverSocket.bind(address, ACCEPT_BACKLOG);
+    this.acceptor = new Thread(this::acceptConnections, "coffee-machine-acceptor");
+    this.acceptor.start();
+  }
+
+  public static CoffeeMachineServer start(CoffeeMachine coffeeMachine, InetSocketAddress address)
+      throws IOException {
+    return new CoffeeMachineServer(coffeeMachine, address);
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  public void awaitTermination() throws InterruptedException {
+    acceptor.join();
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+
+    for (Socket connection : connections) {
+      connection.close();
+    }
+
+    connectionExecutor.shutdown();
+  }
+
+  static ExecutorService newConnectionExecutor() {
+    try {
+      return (ExecutorService)
+          Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+      return Executors.newCachedThreadPool(
+          task -> {
+            Thread thread = new Thread(task, "coffee-machine-connection");
+            thread.setDaemon(true);
+
+            return thread;
+          });
+    }
+  }
+
+  private void acceptConnections() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket connection = serverSocket.accept();
+
+        connection.setTcpNoDelay(true);
+        connections.add(connection);
+        connectionExecutor.execute(() -> serve(connection));
+      } catch (SocketException e) {
+        return;
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
+    }
+  }
+
+  private void serve(Socket connection) {
+    try (connection) {
+      PushbackInputStream inputStream = new PushbackInputStream(connection.getInputStream());
+      OutputStream outputStream = connection.getOutputStream();
+      int firstByte = inputStream.read();
+
+      if (firstByte == BinaryProtocolHandler.MAGIC) {
+        new BinaryProtocolHandler(coffeeMachine, inputStream, outputStream).run();
+      } else if (firstByte >= 0) {
+        inputStream.unread(firstByte);
+        serveText(inputStream, outputStream);
+      }
+    } catch (IOException e) {
+      if (!serverSocket.isClosed()) {
+        e.printStackTrace();
+      }
+    } finally {
+      connections.remove(connection);
+    }
+  }
+
+  private void serveText(InputStream inputStream, OutputStream outputStream) throws IOException {
+    ResponseWriter responseWriter = new ResponseWriter(outputStream);
+
+    new CoffeeMachineConsole(
+            coffeeMachine, new CommandReader(inputStream, responseWriter), responseWriter)
+        .run();
+  }
+}
@@ -0,0 +1,53 @@
+package machine;
+
+import java.nio.ByteBuffer;
+
+final class ColumnDecoder {
+  private final ByteBuffer buffer;
+  private final int offset;
+  private long bitPosition;
+  private long previousValue;
+  private long previousDelta;
+
+  ColumnDecoder(ByteBuffer buffer, int offset) {
+    this.buffer = buffer;
+    this.offset = offset;
+  }
+
+  long next() {
+    long zigZag;
+
+    if (readBits(1) == 0) {
+      zigZag = 0;
+    } else if (readBits(1) == 0) {
+      zigZag = readBits(7);
+    } else if (readBits(1) == 0) {
+      zigZag = readBits(12);
+    } else if (readBits(1) == 0) {
+      zigZag = readBits(20);
+    } else {
+      zigZag = readBits(64);
+    }
+
+    previousDelta += (zigZag >>> 1) ^ -(zigZag & 1);
+    previousValue += previousDelta;
+
+    return previousValue;
+  }
+
+  private long readBits(int count) {
+    long bits = 0;
+
+    while (count > 0) {
+      int bitOffset = (int) (bitPosition & 7);
+      int taken = Math.min(8 - bitOffset, count);
+      int current = buffer.get(offset + (int) (bitPosition >>> 3)) & 0xFF;
+
+      bits = bits << taken | (current >>> (8 - bitOffset - taken)) & ((1 << taken) - 1);
+      bitPosition += taken;
+      count -= taken;
+    }
+
+    return bits;
+  }
+}
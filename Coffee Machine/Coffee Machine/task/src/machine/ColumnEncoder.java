@@ -0,0 +1,68 @@
+package machine;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+final class ColumnEncoder {
+  private byte[] bytes = new byte[256];
+  private long bitLength;
+  private long previousValue;
+  private long previousDelta;
+
+  void append(long value) {
+    long delta = value - previousValue;
+    long deltaOfDelta = delta - previousDelta;
+    long zigZag = (deltaOfDelta << 1) ^ (deltaOfDelta >> 63);
+
+    previousValue = value;
+    previousDelta = delta;
+
+    if (zigZag == 0) {
+      writeBits(0, 1);
+    } else if (zigZag >>> 7 == 0) {
+      writeBits(0b10L << 7 | zigZag, 9);
+    } else if (zigZag >>> 12 == 0) {
+      writeBits(0b110L << 12 | zigZag, 15);
+    } else if (zigZag >>> 20 == 0) {
+      writeBits(0b1110L << 20 | zigZag, 24);
+    } else {
+      writeBits(0b1111, 4);
+      writeBits(zigZag, 64);
+    }
+  }
+
+  int getByteLength() {
+    return (int) ((bitLength + 7) >>> 3);
+  }
+
+  void copyTo(ByteBuffer buffer, int offset) {
+    buffer.put(offset, bytes, 0, getByteLength());
+  }
+
+  ColumnDecoder decoder() {
+    return new ColumnDecoder(ByteBuffer.wrap(bytes), 0);
+  }
+
+  void reset() {
+    Arrays.fill(bytes, 0, getByteLength(), (byte) 0);
+    bitLength = 0;
+    previousValue = 0;
+    previousDelta = 0;
+  }
+
+  private void writeBits(long bits, int count) {
+    if ((bitLength + count + 7) >>> 3 > bytes.length) {
+      bytes = Arrays.copyOf(bytes, bytes.length * 2);
+    }
+
+    while (count > 0) {
+      int bitOffset = (int) (bitLength & 7);
+      int taken = Math.min(8 - bitOffset, count);
+      int chunk = (int) (bits >>> (count - taken)) & ((1 << taken) - 1);
+
+      bytes[(int) (bitLength >>> 3)] |= (byte) (chunk << (8 - bitOffset - taken));
+      bitLength += taken;
+      count -= taken;
+    }
+  }
+}
@@ -0,0 +1,165 @@
+package machine;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+class CommandReader {
+  private static final int BUFFER_SIZE = 8192;
+
+  private final InputStream inputStream;
+  private final Flushable output;
+  private byte[] buffer = new byte[BUFFER_SIZE];
+  private int position;
+  private int limit;
+  private byte[] line = new byte[64];
+  private int lineLength;
+
+  CommandReader(InputStream inputStream, Flushable output) {
+    this.inputStream = inputStream;
+    this.output = output;
+  }
+
+  public boolean readLine() throws IOException {
+    lineLength = 0;
+
+    while (true) {
+      if (position == limit && !fill()) {
+        return lineLength > 0;
+      }
+
+      byte b = buffer[position++];
+
+      if (b == '\n') {
+        if (lineLength > 0 && line[lineLength - 1] == '\r') {
+          lineLength--;
+        }
+
+        return true;
+      }
+
+      if (lineLength == line.length) {
+        line = Arrays.copyOf(line, line.length * 2);
+      }
+
+      line[lineLength++] = b;
+    }
+  }
+
+  public byte[] getLine() {
+    return line;
+  }
+
+  public int getLineLength() {
+    return lineLength;
+  }
+
+  public int nextInt() throws IOException {
+    while (true) {
+      if (position == limit && !fill()) {
+        throw new NoSuchElementException();
+      }
+
+      if (!isWhitespace(buffer[position])) {
+        break;
+      }
+
+      position++;
+    }
+
+    int tokenLength = 0;
+
+    while (true) {
+      if (position + tokenLength == limit && !fill()) {
+        break;
+      }
+
+      if (isWhitespace(buffer[position + tokenLength])) {
+        break;
+      }
+
+      tokenLength++;
+    }
+
+    int value = parseInt(buffer, position, tokenLength);
+    position += tokenLength;
+
+    return value;
+  }
+
+  private static int parseInt(byte[] bytes, int offset, int length) {
+    int index = offset;
+    int end = offset + length;
+    boolean negative = false;
+
+    if (bytes[index] == '-' || bytes[index] == '+') {
+      negative = bytes[index] == '-';
+      index++;
+    }
+
+    if (index == end) {
+      throw new InputMismatchException();
+    }
+
+    long value = 0;
+
+    while (index < end) {
+      int digit = bytes[index++] - '0';
+
+      if (digit < 0 || digit > 9) {
+        throw new InputMismatchException();
+      }
+
+      value = value * 10 + digit;
+
+      if (value > Integer.MAX_VALUE + 1L) {
+        throw new InputMismatchException();
+      }
+    }
+
+    if (negative) {
+      value = -value;
+    }
+
+    if (value > Integer.MAX_VALUE) {
+      throw new InputMismatchException();
+    }
+
+    return (int) value;
+  }
+
+  private static boolean isWhitespace(byte b) {
+    return b == ' ' || (b >= '\t' && b <= '\r') || (b >= 0x1C && b <= 0x1F);
+  }
+
+  private boolean fill() throws IOException {
+    if (position > 0) {
+      System.arraycopy(buffer, position, buffer, 0, limit - position);
+      limit -= position;
+      position = 0;
+    }
+
+    if (limit == buffer.length) {
+      buffer = Arrays.copyOf(buffer, buffer.length * 2);
+    }
+
+    output.flush();
+
+    int read;
+
+    do {
+      read = inputStream.read(buffer, limit, buffer.length - limit);
+    } while (read == 0);
+
+    if (read < 0) {
+      return false;
+    }
+
+    limit += read;
+
+    return true;
+  }
+}
@@ -0,0 +1,67 @@
+package machine;
+
+import java.util.Arrays;
+
+final class ConsistentHashRing {
+  private final long[] points;
+  private final int[] shards;
+  private final int shardCount;
+
+  ConsistentHashRing(int shardCount, int virtualNodes) {
+    long[] unsortedPoints = new long[shardCount * virtualNodes];
+    long[] sortedPoints = new long[unsortedPoints.length];
+    int[] owners = new int[unsortedPoints.length];
+    Integer[] order = new Integer[unsortedPoints.length];
+
+    for (int shard = 0; shard < shardCount; shard++) {
+      for (int node = 0; node < virtualNodes; node++) {
+        int point = shard * virtualNodes + node;
+
+        unsortedPoints[point] = mix(((long) shard << 32) | node);
+        order[point] = point;
+      }
+    }
+
+    Arrays.sort(order, (left, right) -> Long.compare(unsortedPoints[left], unsortedPoints[right]));
+
+    for (int i = 0; i < order.length; i++) {
+      sortedPoints[i] = unsortedPoints[order[i]];
+      owners[i] = order[i] / virtualNodes;
+    }
+
+    this.points = sortedPoints;
+    this.shards = owners;
+    this.shardCount = shardCount;
+  }
+
+  int getShardCount() {
+    return shardCount;
+  }
+
+  int getShard(String key) {
+    int point = Arrays.binarySearch(points, hash(key));
+
+    if (point < 0) {
+      point = -point - 1;
+    }
+
+    return shards[point == points.length ? 0 : point];
+  }
+
+  static long hash(String key) {
+    long hash = 0xcbf29ce484222325L;
+
+    for (int i = 0; i < key.length(); i++) {
+      hash = (hash ^ key.charAt(i)) * 0x100000001b3L;
+    }
+
+    return mix(hash);
+  }
+
+  private static long mix(long value) {
+    value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+    value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+
+    return value ^ (value >>> 33);
+  }
+}
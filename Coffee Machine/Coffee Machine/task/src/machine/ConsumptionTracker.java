@@ -0,0 +1,133 @@
+package machine;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+public class ConsumptionTracker implements InventoryListener {
+  private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final double decayNanos;
+  private final LongSupplier nanoClock;
+  private final long startNanos;
+  private volatile LongAdder[] amountsUsed =
+      newAdders(new LongAdder[0], Resource.STANDARD_RESOURCE_COUNT);
+  private long[] amountsFolded = new long[0];
+  private double[] ratesPerNano = new double[0];
+  private long lastUpdateNanos;
+
+  public ConsumptionTracker(long halfLifeMillis) {
+    this(halfLifeMillis, System::nanoTime);
+  }
+
+  ConsumptionTracker(long halfLifeMillis, LongSupplier nanoClock) {
+    this.decayNanos = TimeUnit.MILLISECONDS.toNanos(halfLifeMillis) / Math.log(2);
+    this.nanoClock = nanoClock;
+    this.startNanos = nanoClock.getAsLong();
+    this.lastUpdateNanos = startNanos;
+  }
+
+  @Override
+  public void onInventoryChange(InventoryEvent event, Inventory previous, Inventory current) {
+    if (event == InventoryEvent.FILL || event == InventoryEvent.TAKE) {
+      return;
+    }
+
+    int[] previousAmounts = previous.getAmountsLeft();
+    int[] currentAmounts = current.getAmountsLeft();
+    int resourceCount = Math.min(previousAmounts.length, currentAmounts.length);
+    LongAdder[] adders = getAdders(resourceCount);
+
+    for (int i = 0; i < resourceCount; i++) {
+      if (previousAmounts[i] != currentAmounts[i]) {
+        adders[i].add(previousAmounts[i] - currentAmounts[i]);
+      }
+    }
+  }
+
+  public void recordConsumption(int[] amountsUsed, int times) {
+    LongAdder[] adders = getAdders(amountsUsed.length);
+
+    for (int i = 0; i < amountsUsed.length; i++) {
+      if (amountsUsed[i] != 0) {
+        adders[i].add((long) amountsUsed[i] * times);
+      }
+    }
+  }
+
+  public synchronized double getRatePerSecond(Resource resource) {
+    long now = nanoClock.getAsLong();
+    int index = resource.getIndex();
+
+    fold(now);
+
+    if (index >= ratesPerNano.length) {
+      return 0;
+    }
+
+    double observedWeight = -Math.expm1((startNanos - now) / decayNanos);
+
+    return observedWeight > 0 ? ratesPerNano[index] / observedWeight * NANOS_PER_SECOND : 0;
+  }
+
+  public long predictMillisUntilEmpty(Inventory inventory, Resource resource) {
+    double ratePerSecond = getRatePerSecond(resource);
+
+    if (ratePerSecond <= 0) {
+      return Long.MAX_VALUE;
+    }
+
+    double millis = inventory.getLeft(resource) / ratePerSecond * 1000;
+
+    return millis >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) millis;
+  }
+
+  // Writers only add to striped counters; readers fold what was used since the last fold into
+  // the decayed rates, spreading it evenly over the interval it was used in.
+  private void fold(long now) {
+    LongAdder[] adders = amountsUsed;
+    double elapsedNanos = now - lastUpdateNanos;
+    double factor = Math.exp(-elapsedNanos / decayNanos);
+    double weight =
+        elapsedNanos > 0 ? -Math.expm1(-elapsedNanos / decayNanos) / elapsedNanos : 1 / decayNanos;
+
+    if (adders.length > ratesPerNano.length) {
+      ratesPerNano = Arrays.copyOf(ratesPerNano, adders.length);
+      amountsFolded = Arrays.copyOf(amountsFolded, adders.length);
+    }
+
+    for (int i = 0; i < adders.length; i++) {
+      long used = adders[i].sum();
+
+      ratesPerNano[i] = ratesPerNano[i] * factor + (used - amountsFolded[i]) * weight;
+      amountsFolded[i] = used;
+    }
+
+    lastUpdateNanos = now;
+  }
+
+  private LongAdder[] getAdders(int resourceCount) {
+    LongAdder[] adders = amountsUsed;
+
+    return adders.length >= resourceCount ? adders : growAdders(resourceCount);
+  }
+
+  private synchronized LongAdder[] growAdders(int resourceCount) {
+    if (amountsUsed.length < resourceCount) {
+      amountsUsed = newAdders(amountsUsed, resourceCount);
+    }
+
+    return amountsUsed;
+  }
+
+  private static LongAdder[] newAdders(LongAdder[] adders, int resourceCount) {
+    LongAdder[] grown = Arrays.copyOf(adders, resourceCount);
+
+    for (int i = adders.length; i < resourceCount; i++) {
+      grown[i] = new LongAdder();
+    }
+
+    return grown;
+  }
+}
@@ -0,0 +1,64 @@
+package machine;
+
+public final class DownsampledSeries {
+  private final long fromMillis;
+  private final long bucketMillis;
+  private final long[] counts;
+  private final long[] minimums;
+  private final long[] maximums;
+  private final long[] lasts;
+
+  DownsampledSeries(long fromMillis, long bucketMillis, int size) {
+    this.fromMillis = fromMillis;
+    this.bucketMillis = bucketMillis;
+    this.counts = new long[size];
+    this.minimums = new long[size];
+    this.maximums = new long[size];
+    this.lasts = new long[size];
+  }
+
+  public int size() {
+    return counts.length;
+  }
+
+  public long getBucketStartMillis(int bucket) {
+    return fromMillis + bucket * bucketMillis;
+  }
+
+  public long getCount(int bucket) {
+    return counts[bucket];
+  }
+
+  public long getMinimum(int bucket) {
+    return minimums[bucket];
+  }
+
+  public long getMaximum(int bucket) {
+    return maximums[bucket];
+  }
+
+  public long getLast(int bucket) {
+    return lasts[bucket];
+  }
+
+  int getBucket(long timestampMillis) {
+    return (int) ((timestampMillis - fromMillis) / bucketMillis);
+  }
+
+  void add(int bucket, long value) {
+    add(bucket, 1, value, value, value);
+  }
+
+  void add(int bucket, long count, long minimum, long maximum, long last) {
+    if (counts[bucket] == 0) {
+      minimums[bucket] = minimum;
+      maximums[bucket] = maximum;
+    } else {
+      minimums[bucket] = Math.min(minimums[bucket], minimum);
+      maximums[bucket] = Math.max(maximums[bucket], maximum);
+    }
+
+    counts[bucket] += count;
+    lasts[bucket] = last;
+  }
+}
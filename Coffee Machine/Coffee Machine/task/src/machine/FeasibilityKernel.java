@@ -0,0 +1,48 @@
+package machine;
+
+final class FeasibilityKernel {
+  private FeasibilityKernel() {}
+
+  static int calculateCupsLeft(int[] amountsLeft, int[] amountsRequired) {
+    int commonLength = Math.min(amountsLeft.length, amountsRequired.length);
+    int cupsLeft = Integer.MAX_VALUE;
+
+    for (int i = 0; i < commonLength; i++) {
+      if (amountsRequired[i] > 0) {
+        cupsLeft = Math.min(cupsLeft, Math.floorDiv(amountsLeft[i], amountsRequired[i]));
+      }
+    }
+
+    for (int i = commonLength; i < amountsRequired.length; i++) {
+      if (amountsRequired[i] > 0) {
+        return 0;
+      }
+    }
+
+    return cupsLeft;
+  }
+
+  static int findFirstMissing(int[] amountsLeft, int[] amountsRequired) {
+    for (int i = 0; i < amountsRequired.length; i++) {
+      int amountLeft = i < amountsLeft.length ? amountsLeft[i] : 0;
+
+      if (amountsRequired[i] > 0 && amountLeft < amountsRequired[i]) {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
+  static int findFirstShortage(int[] amountsLeft, long[] amountsToUse) {
+    for (int i = 0; i < amountsToUse.length; i++) {
+      long amountLeft = i < amountsLeft.length ? amountsLeft[i] : 0;
+
+      if (amountsToUse[i] > 0 && amountLeft < amountsToUse[i]) {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+}
@@ -0,0 +1,94 @@
+package cinema;
+
+public final class HallLayout {
+  private final String name;
+  private final SeatMap seats;
+  private final BookingStatistics emptyStatistics;
+
+  public HallLayout(String name, int rows, int seatsInRow) {
+    this(name, new SeatMap(rows, seatsInRow), null);
+  }
+
+  private HallLayout(String name, SeatMap seats, long[] seatsByZone) {
+    this.name = name;
+    this.seats = seats;
+    this.emptyStatistics =
+        BookingStatistics.forSeats(seatsByZone == null ? countSeatsByZone() : seatsByZone);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getRows() {
+    return seats.getRows();
+  }
+
+  public int getSeatsInRow() {
+    return seats.getSeatsInRow();
+  }
+
+  public SeatZone getZone(int rowNumber) {
+    if ((long) getRows() * getSeatsInRow() <= Cinema.SMALL_MEDIUM_ROOM_SIZE) {
+      return SeatZone.STANDARD;
+    } else if (rowNumber <= getRows() / 2) {
+      return SeatZone.FRONT_HALF;
+    } else {
+      return SeatZone.BACK_HALF;
+    }
+  }
+
+  public boolean isBlocked(int rowNumber, int seatNumber) {
+    return seats.isBooked(rowNumber - 1, seatNumber - 1);
+  }
+
+  public HallLayout withBlockedSeat(int rowNumber, int seatNumber) {
+    if (!seats.contains(rowNumber - 1, seatNumber - 1)) {
+      throw new IllegalArgumentException(
+          "No seat " + seatNumber + " in row " + rowNumber + " of " + name);
+    }
+
+    if (isBlocked(rowNumber, seatNumber)) {
+      return this;
+    }
+
+    SeatMap blockedSeats = new SeatMap(seats);
+    long[] seatsByZone = new long[SeatZone.COUNT];
+
+    for (SeatZone zone : SeatZone.values()) {
+      seatsByZone[zone.ordinal()] = emptyStatistics.getSeats(zone);
+    }
+
+    blockedSeats.book(rowNumber - 1, seatNumber - 1);
+    seatsByZone[getZone(rowNumber).ordinal()]--;
+
+    return new HallLayout(name, blockedSeats, seatsByZone);
+  }
+
+  public BookingStatistics getEmptyStatistics() {
+    return emptyStatistics;
+  }
+
+  SeatMap getSeats() {
+    return seats;
+  }
+
+  private long[] countSeatsByZone() {
+    long[] seatsByZone = new long[SeatZone.COUNT];
+
+    int frontHalfRows = getRows() / 2;
+
+    if (getRows() > 0) {
+      seatsByZone[getZone(1).ordinal()] += (long) frontHalfRows * getSeatsInRow();
+      seatsByZone[getZone(getRows()).ordinal()] +=
+          (long) (getRows() - frontHalfRows) * getSeatsInRow();
+    }
+
+    return seatsByZone;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
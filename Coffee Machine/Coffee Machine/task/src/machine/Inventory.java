@@ -0,0 +1,167 @@
+package machine;
+
+import java.util.Arrays;
+
+public final class Inventory {
+  private static final int[] NOTHING_HELD = new int[0];
+
+  private final int[] amountsLeft;
+  private final int[] amountsHeld;
+  private final long cash;
+  private final long version;
+
+  public Inventory(
+      int waterMlLeft, int milkMlLeft, int beansGrLeft, int disposableCupsLeft, long cash) {
+    this(
+        0,
+        cash,
+        new int[] {waterMlLeft, milkMlLeft, beansGrLeft, disposableCupsLeft},
+        NOTHING_HELD);
+  }
+
+  public Inventory(int[] amountsLeft, long cash) {
+    this(0, cash, amountsLeft.clone(), NOTHING_HELD);
+  }
+
+  Inventory(int[] amountsLeft, int[] amountsHeld, long cash) {
+    this(0, cash, amountsLeft.clone(), amountsHeld.clone());
+  }
+
+  private Inventory(long version, long cash, int[] amountsLeft, int[] amountsHeld) {
+    this.amountsLeft = amountsLeft;
+    this.amountsHeld = amountsHeld;
+    this.cash = cash;
+    this.version = version;
+  }
+
+  public int getLeft(Resource resource) {
+    return resource.getIndex() < amountsLeft.length ? amountsLeft[resource.getIndex()] : 0;
+  }
+
+  public int getResourceCount() {
+    return amountsLeft.length;
+  }
+
+  public int getWaterMlLeft() {
+    return getLeft(Resource.WATER);
+  }
+
+  public int getMilkMlLeft() {
+    return getLeft(Resource.MILK);
+  }
+
+  public int getBeansGrLeft() {
+    return getLeft(Resource.BEANS);
+  }
+
+  public int getDisposableCupsLeft() {
+    return getLeft(Resource.DISPOSABLE_CUPS);
+  }
+
+  public long getCash() {
+    return cash;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public boolean coffeeProductionPossible(Recipe recipe) {
+    return calculateCoffeeCupsLeft(recipe) > 0;
+  }
+
+  public Resource findFirstMissingResource(Recipe recipe) {
+    int missing = FeasibilityKernel.findFirstMissing(amountsLeft, recipe.getAmounts());
+
+    return missing < 0 ? null : recipe.getResource(missing);
+  }
+
+  public int calculateCoffeeCupsLeft(Recipe recipe) {
+    return FeasibilityKernel.calculateCupsLeft(amountsLeft, recipe.getAmounts());
+  }
+
+  int[] getAmountsLeft() {
+    return amountsLeft;
+  }
+
+  int[] getAmountsHeld() {
+    return amountsHeld;
+  }
+
+  Inventory withPurchase(Recipe recipe, long price) {
+    int[] amountsRequired = recipe.getAmounts();
+    int[] next = copyOf(Math.max(amountsLeft.length, amountsRequired.length));
+
+    for (int i = 0; i < amountsRequired.length; i++) {
+      next[i] -= amountsRequired[i];
+    }
+
+    return new Inventory(version + 1, getCash() + price, next, amountsHeld);
+  }
+
+  Inventory withHold(Recipe recipe) {
+    int[] amountsRequired = recipe.getAmounts();
+    int[] next = copyOf(Math.max(amountsLeft.length, amountsRequired.length));
+    int[] held = Arrays.copyOf(amountsHeld, Math.max(amountsHeld.length, amountsRequired.length));
+
+    for (int i = 0; i < amountsRequired.length; i++) {
+      next[i] -= amountsRequired[i];
+      held[i] += amountsRequired[i];
+    }
+
+    return new Inventory(version + 1, getCash(), next, held);
+  }
+
+  Inventory withConfirmation(int[] amountsConfirmed, long price) {
+    int[] held = Arrays.copyOf(amountsHeld, Math.max(amountsHeld.length, amountsConfirmed.length));
+
+    for (int i = 0; i < amountsConfirmed.length; i++) {
+      held[i] -= amountsConfirmed[i];
+    }
+
+    return new Inventory(version + 1, getCash() + price, amountsLeft, held);
+  }
+
+  Inventory withRelease(int[] amountsToReturn) {
+    int[] next = copyOf(Math.max(amountsLeft.length, amountsToReturn.length));
+    int[] held = Arrays.copyOf(amountsHeld, Math.max(amountsHeld.length, amountsToReturn.length));
+
+    for (int i = 0; i < amountsToReturn.length; i++) {
+      next[i] += amountsToReturn[i];
+      held[i] -= amountsToReturn[i];
+    }
+
+    return new Inventory(version + 1, getCash(), next, held);
+  }
+
+  Inventory withConsumption(long[] amountsToUse, long cashToDeposit) {
+    int[] next = copyOf(Math.max(amountsLeft.length, amountsToUse.length));
+
+    for (int i = 0; i < amountsToUse.length; i++) {
+      next[i] -= (int) amountsToUse[i];
+    }
+
+    return new Inventory(version + 1, getCash() + cashToDeposit, next, amountsHeld);
+  }
+
+  Inventory withSupply(int[] amountsToAdd) {
+    int[] next = copyOf(Math.max(amountsLeft.length, amountsToAdd.length));
+
+    for (int i = 0; i < amountsToAdd.length; i++) {
+      next[i] += amountsToAdd[i];
+    }
+
+    return new Inventory(version + 1, getCash(), next, amountsHeld);
+  }
+
+  Inventory withoutCash() {
+    return new Inventory(version + 1, 0, amountsLeft, amountsHeld);
+  }
+
+  private int[] copyOf(int length) {
+    int[] copy = new int[length];
+    System.arraycopy(amountsLeft, 0, copy, 0, amountsLeft.length);
+
+    return copy;
+  }
+}
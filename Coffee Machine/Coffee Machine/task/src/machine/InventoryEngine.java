@@ -0,0 +1,231 @@
+package machine;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+class InventoryEngine {
+  private final AtomicReference<Inventory> inventory;
+  private final InventoryListener inventoryListener;
+  private final PricingEngine pricingEngine;
+
+  InventoryEngine(
+      Inventory inventory, InventoryListener inventoryListener, PricingEngine pricingEngine) {
+    this.inventory = new AtomicReference<>(inventory);
+    this.inventoryListener = inventoryListener;
+    this.pricingEngine = pricingEngine;
+  }
+
+  public Inventory getInventory() {
+    return inventory.get();
+  }
+
+  public Resource purchase(Recipe recipe, int customerTier) {
+    while (true) {
+      Inventory current = inventory.get();
+
+      if (!current.coffeeProductionPossible(recipe)) {
+        return current.findFirstMissingResource(recipe);
+      }
+
+      Inventory next =
+          current.withPurchase(recipe, pricingEngine.price(recipe, current, customerTier));
+
+      if (inventory.compareAndSet(current, next)) {
+        inventoryListener.onInventoryChange(InventoryEvent.PURCHASE, current, next);
+
+        return null;
+      }
+
+      Thread.onSpinWait();
+    }
+  }
+
+  public long reserve(Recipe recipe, int customerTier) {
+    while (true) {
+      Inventory current = inventory.get();
+
+      if (!current.coffeeProductionPossible(recipe)) {
+        return -1 - current.findFirstMissingResource(recipe).getIndex();
+      }
+
+      long price = pricingEngine.price(recipe, current, customerTier);
+      Inventory next = current.withHold(recipe);
+
+      if (inventory.compareAndSet(current, next)) {
+        inventoryListener.onInventoryChange(InventoryEvent.RESERVE, current, next);
+
+        return price;
+      }
+
+      Thread.onSpinWait();
+    }
+  }
+
+  public void confirm(Recipe recipe, long price) {
+    while (true) {
+      Inventory current = inventory.get();
+      Inventory next = current.withConfirmation(recipe.getAmounts(), price);
+
+      if (inventory.compareAndSet(current, next)) {
+        inventoryListener.onInventoryChange(InventoryEvent.CONFIRM, current, next);
+
+        return;
+      }
+
+      Thread.onSpinWait();
+    }
+  }
+
+  public BatchResult purchase(OrderBatch orderBatch, BatchMode batchMode, int customerTier) {
+    int entries = orderBatch.size();
+    Recipe[] recipes = new Recipe[entries];
+    int resourceCount = 0;
+
+    for (int entry = 0; entry < entries; entry++) {
+      recipes[entry] = orderBatch.getRecipe(entry);
+      resourceCount = Math.max(resourceCount, recipes[entry].getAmounts().length);
+    }
+
+    while (true) {
+      Inventory current = inventory.get();
+      int[] amountsLeft = current.getAmountsLeft();
+      int[] fulfilled = new int[entries];
+      long[] amountsToUse = new long[resourceCount];
+      long cashToDeposit = 0;
+      long cupsGranted = 0;
+      Resource limitingResource = null;
+
+      for (int entry = 0; entry < entries; entry++) {
+        Recipe recipe = recipes[entry];
+        int[] amountsRequired = recipe.getAmounts();
+        int requested = orderBatch.getCount(entry);
+
+        if (requested == 0) {
+          continue;
+        }
+
+        int granted = requested;
+
+        if (batchMode == BatchMode.BEST_EFFORT) {
+          int cupsLeft = Integer.MAX_VALUE;
+
+          for (int i = 0; i < amountsRequired.length; i++) {
+            if (amountsRequired[i] > 0) {
+              long amountLeft = (i < amountsLeft.length ? amountsLeft[i] : 0) - amountsToUse[i];
+
+              cupsLeft = (int) Math.min(cupsLeft, amountLeft / amountsRequired[i]);
+            }
+          }
+
+          if (cupsLeft < requested) {
+            granted = Math.max(cupsLeft, 0);
+          }
+        }
+
+        fulfilled[entry] = granted;
+
+        for (int i = 0; i < amountsRequired.length; i++) {
+          amountsToUse[i] += (long) granted * amountsRequired[i];
+        }
+
+        cashToDeposit += granted * pricingEngine.price(recipe, current, customerTier);
+        cupsGranted += granted;
+
+        if (granted < requested) {
+          for (int i = 0; i < amountsRequired.length; i++) {
+            long amountLeft = (i < amountsLeft.length ? amountsLeft[i] : 0) - amountsToUse[i];
+
+            if (amountsRequired[i] > 0 && amountLeft < amountsRequired[i]) {
+              limitingResource = recipe.getResource(i);
+
+              break;
+            }
+          }
+
+          break;
+        }
+      }
+
+      if (batchMode == BatchMode.ALL_OR_NOTHING) {
+        int shortage = FeasibilityKernel.findFirstShortage(amountsLeft, amountsToUse);
+
+        if (shortage >= 0) {
+          return new BatchResult(recipes, new int[entries], findResource(recipes, shortage));
+        }
+      }
+
+      if (cupsGranted == 0) {
+        return new BatchResult(recipes, fulfilled, limitingResource);
+      }
+
+      Inventory next = current.withConsumption(amountsToUse, cashToDeposit);
+
+      if (inventory.compareAndSet(current, next)) {
+        inventoryListener.onInventoryChange(InventoryEvent.PURCHASE, current, next);
+
+        return new BatchResult(recipes, fulfilled, limitingResource);
+      }
+
+      Thread.onSpinWait();
+    }
+  }
+
+  public void supply(int[] amountsToAdd) {
+    while (true) {
+      Inventory current = inventory.get();
+      Inventory next = current.withSupply(amountsToAdd);
+
+      if (inventory.compareAndSet(current, next)) {
+        inventoryListener.onInventoryChange(InventoryEvent.FILL, current, next);
+
+        return;
+      }
+
+      Thread.onSpinWait();
+    }
+  }
+
+  public void release(int[] amountsToReturn) {
+    while (true) {
+      Inventory current = inventory.get();
+      Inventory next = current.withRelease(amountsToReturn);
+
+      if (inventory.compareAndSet(current, next)) {
+        inventoryListener.onInventoryChange(InventoryEvent.RELEASE, current, next);
+
+        return;
+      }
+
+      Thread.onSpinWait();
+    }
+  }
+
+  public long withdrawAllCash() {
+    while (true) {
+      Inventory current = inventory.get();
+
+      if (current.getCash() == 0) {
+        return 0;
+      }
+
+      Inventory next = current.withoutCash();
+
+      if (inventory.compareAndSet(current, next)) {
+        inventoryListener.onInventoryChange(InventoryEvent.TAKE, current, next);
+
+        return current.getCash();
+      }
+
+      Thread.onSpinWait();
+    }
+  }
+
+  private static Resource findResource(Recipe[] recipes, int index) {
+    for (Recipe recipe : recipes) {
+      if (index < recipe.getAmounts().length && recipe.getResource(index) != null) {
+        return recipe.getResource(index);
+      }
+    }
+
+    return null;
+  }
+}
@@ -0,0 +1,10 @@
+package machine;
+
+public enum InventoryEvent {
+  PURCHASE,
+  FILL,
+  TAKE,
+  RESERVE,
+  CONFIRM,
+  RELEASE
+}
@@ -0,0 +1,51 @@
+package machine;
+
+import java.util.function.LongSupplier;
+
+public class InventoryHistory implements InventoryListener {
+  public static final int CASH_COLUMN = 0;
+
+  private final TimeSeriesStore store;
+  private final int seriesId;
+  private final LongSupplier clock;
+  private final long[] values;
+  private long lastVersion = -1;
+
+  public InventoryHistory(TimeSeriesStore store, int seriesId) {
+    this(store, seriesId, System::currentTimeMillis);
+  }
+
+  InventoryHistory(TimeSeriesStore store, int seriesId, LongSupplier clock) {
+    this.store = store;
+    this.seriesId = seriesId;
+    this.clock = clock;
+    this.values = new long[store.getColumnCount()];
+  }
+
+  public static int getColumnCount(RecipeCatalog recipeCatalog) {
+    return recipeCatalog.getResources().length + 1;
+  }
+
+  public static int getColumn(Resource resource) {
+    return resource.getIndex() + 1;
+  }
+
+  @Override
+  public synchronized void onInventoryChange(
+      InventoryEvent event, Inventory previous, Inventory current) {
+    if (current.getVersion() <= lastVersion) {
+      return;
+    }
+
+    int[] amountsLeft = current.getAmountsLeft();
+
+    lastVersion = current.getVersion();
+    values[CASH_COLUMN] = current.getCash();
+
+    for (int column = 1; column < values.length; column++) {
+      values[column] = column <= amountsLeft.length ? amountsLeft[column - 1] : 0;
+    }
+
+    store.append(seriesId, clock.getAsLong(), values);
+  }
+}
@@ -0,0 +1,14 @@
+package machine;
+
+public interface InventoryListener {
+  InventoryListener NONE = (event, previous, current) -> {};
+
+  void onInventoryChange(InventoryEvent event, Inventory previous, Inventory current);
+
+  default InventoryListener andThen(InventoryListener next) {
+    return (event, previous, current) -> {
+      onInventoryChange(event, previous, current);
+      next.onInventoryChange(event, previous, current);
+    };
+  }
+}
@@ -0,0 +1,415 @@
+package machine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32C;
+
+/**
+ * Group-commits inventory changes to a memory-mapped journal.
+ *
+ * <p>A change is acknowledged to the buyer before it is forced to disk, so a crash can lose the
+ * changes of the last group-commit window. Each record carries a CRC32C, and recovery stops at the
+ * first record whose checksum does not match, so a torn tail is dropped rather than replayed.
+ *
+ * <p>The journal also tracks the amounts held by open reservations. A CONFIRM record carries the
+ * change in held amounts rather than in amounts left, and whatever is still held on recovery is
+ * released back into the inventory, since the reservations themselves do not survive a restart.
+ */
+public class Journal implements InventoryListener, Closeable {
+  public static final long DEFAULT_GROUP_COMMIT_WINDOW_MILLIS = 10;
+
+  private static final String JOURNAL_FILE = "journal.dat";
+  private static final String SNAPSHOT_FILE = "snapshot.dat";
+  private static final int RECORD_HEADER_SIZE = 16;
+  private static final int CHECKSUM_OFFSET = 4;
+  private static final int CASH_OFFSET = 8;
+  private static final int CHUNK_SIZE = 64 << 20;
+  private static final long SNAPSHOT_INTERVAL = 32L << 20;
+  private static final int SKIP_MARKER = 0xFF;
+  private static final VarHandle INT_VIEW =
+      MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+  private static final ThreadLocal<CRC32C> CHECKSUMS = ThreadLocal.withInitial(CRC32C::new);
+
+  private final FileChannel channel;
+  private final Path snapshotPath;
+  private final long groupCommitWindowNanos;
+  private final AtomicLong appendPosition;
+  private long[] committedAmounts;
+  private long[] committedHeld;
+  private long committedCash;
+  private final Inventory recoveredInventory;
+  private final Thread committer;
+  private final Object chunkLock = new Object();
+  private volatile MappedByteBuffer[] chunks = new MappedByteBuffer[0];
+  private volatile boolean closed;
+  private long committedPosition;
+  private long forcedPosition;
+  private long snapshotPosition;
+
+  private Journal(Path directory, long groupCommitWindowMillis, Inventory initialInventory)
+      throws IOException {
+    Files.createDirectories(directory);
+
+    this.channel =
+        FileChannel.open(
+            directory.resolve(JOURNAL_FILE),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    this.snapshotPath = directory.resolve(SNAPSHOT_FILE);
+    this.groupCommitWindowNanos = TimeUnit.MILLISECONDS.toNanos(groupCommitWindowMillis);
+    readSnapshot(initialInventory);
+    this.committedPosition = scan(snapshotPosition, channel.size(), false);
+    discardTail(committedPosition);
+    this.forcedPosition = committedPosition;
+    this.appendPosition = new AtomicLong(committedPosition);
+    this.recoveredInventory = recoverInventory();
+    this.committer = new Thread(this::runCommitter, "coffee-machine-journal");
+    this.committer.setDaemon(true);
+    this.committer.start();
+  }
+
+  public static Journal open(
+      Path directory, long groupCommitWindowMillis, Inventory initialInventory) throws IOException {
+    return new Journal(directory, groupCommitWindowMillis, initialInventory);
+  }
+
+  public Inventory getRecoveredInventory() {
+    return recoveredInventory;
+  }
+
+  long getAppendPosition() {
+    return appendPosition.get();
+  }
+
+  @Override
+  public void onInventoryChange(InventoryEvent event, Inventory previous, Inventory current) {
+    boolean confirmation = event == InventoryEvent.CONFIRM;
+    int[] previousAmounts = confirmation ? previous.getAmountsHeld() : previous.getAmountsLeft();
+    int[] currentAmounts = confirmation ? current.getAmountsHeld() : current.getAmountsLeft();
+    int resourceCount = Math.max(previousAmounts.length, currentAmounts.length);
+    int recordSize = (RECORD_HEADER_SIZE + Integer.BYTES * resourceCount + 7) & ~7;
+    long position = reserve(recordSize);
+    ByteBuffer chunk = getChunk(position);
+    int offset = (int) (position % CHUNK_SIZE);
+
+    int marker = resourceCount << 8 | (event.ordinal() + 1);
+
+    chunk.putLong(offset + CASH_OFFSET, current.getCash() - previous.getCash());
+
+    for (int i = 0; i < resourceCount; i++) {
+      int previousAmount = i < previousAmounts.length ? previousAmounts[i] : 0;
+      int currentAmount = i < currentAmounts.length ? currentAmounts[i] : 0;
+
+      chunk.putInt(offset + RECORD_HEADER_SIZE + Integer.BYTES * i, currentAmount - previousAmount);
+    }
+
+    chunk.putInt(offset + CHECKSUM_OFFSET, checksum(chunk, offset, marker));
+    INT_VIEW.setRelease(chunk, offset, marker);
+  }
+
+  public synchronized void commit() throws IOException {
+    committedPosition = scan(committedPosition, Long.MAX_VALUE, true);
+
+    for (long chunkStart = forcedPosition - forcedPosition % CHUNK_SIZE;
+        chunkStart < committedPosition;
+        chunkStart += CHUNK_SIZE) {
+      int from = (int) (Math.max(chunkStart, forcedPosition) - chunkStart);
+      int to = (int) (Math.min(chunkStart + CHUNK_SIZE, committedPosition) - chunkStart);
+
+      getChunk(chunkStart).force(from, to - from);
+    }
+
+    forcedPosition = committedPosition;
+
+    if (committedPosition - snapshotPosition >= SNAPSHOT_INTERVAL) {
+      writeSnapshot();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    LockSupport.unpark(committer);
+
+    try {
+      committer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    commit();
+    writeSnapshot();
+    channel.close();
+  }
+
+  private void runCommitter() {
+    while (!closed) {
+      LockSupport.parkNanos(groupCommitWindowNanos);
+
+      try {
+        commit();
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
+    }
+  }
+
+  private long reserve(int recordSize) {
+    while (true) {
+      long position = appendPosition.get();
+      int offset = (int) (position % CHUNK_SIZE);
+      long start = offset + recordSize > CHUNK_SIZE ? position - offset + CHUNK_SIZE : position;
+
+      if (appendPosition.compareAndSet(position, start + recordSize)) {
+        if (start != position) {
+          INT_VIEW.setRelease(getChunk(position), offset, SKIP_MARKER);
+        }
+
+        return start;
+      }
+    }
+  }
+
+  private long scan(long position, long limit, boolean concurrent) {
+    while (position + RECORD_HEADER_SIZE <= limit) {
+      ByteBuffer chunk = getChunk(position);
+      int offset = (int) (position % CHUNK_SIZE);
+      int marker =
+          concurrent ? (int) INT_VIEW.getAcquire(chunk, offset) : (int) INT_VIEW.get(chunk, offset);
+
+      if (marker == 0) {
+        break;
+      }
+
+      if (marker == SKIP_MARKER) {
+        position += CHUNK_SIZE - offset;
+
+        continue;
+      }
+
+      int resourceCount = marker >>> 8;
+      int event = (marker & 0xFF) - 1;
+      int recordSize = (RECORD_HEADER_SIZE + Integer.BYTES * resourceCount + 7) & ~7;
+
+      if (!concurrent
+          && (offset + recordSize > CHUNK_SIZE
+              || position + recordSize > limit
+              || chunk.getInt(offset + CHECKSUM_OFFSET) != checksum(chunk, offset, marker))) {
+        break;
+      }
+
+      if (resourceCount > committedAmounts.length) {
+        committedAmounts = Arrays.copyOf(committedAmounts, resourceCount);
+      }
+
+      if (resourceCount > committedHeld.length) {
+        committedHeld = Arrays.copyOf(committedHeld, resourceCount);
+      }
+
+      committedCash += chunk.getLong(offset + CASH_OFFSET);
+
+      for (int i = 0; i < resourceCount; i++) {
+        int delta = chunk.getInt(offset + RECORD_HEADER_SIZE + Integer.BYTES * i);
+
+        if (event == InventoryEvent.CONFIRM.ordinal()) {
+          committedHeld[i] += delta;
+        } else {
+          committedAmounts[i] += delta;
+
+          if (event == InventoryEvent.RESERVE.ordinal()
+              || event == InventoryEvent.RELEASE.ordinal()) {
+            committedHeld[i] -= delta;
+          }
+        }
+      }
+
+      position += recordSize;
+    }
+
+    return position;
+  }
+
+  private static int checksum(ByteBuffer chunk, int offset, int marker) {
+    CRC32C checksum = CHECKSUMS.get();
+    ByteBuffer record = chunk.duplicate();
+
+    record.limit(offset + RECORD_HEADER_SIZE + Integer.BYTES * (marker >>> 8));
+    record.position(offset + CASH_OFFSET);
+    checksum.reset();
+    checksum.update(record);
+
+    for (int shift = 24; shift >= 0; shift -= 8) {
+      checksum.update(marker >>> shift);
+    }
+
+    return (int) checksum.getValue();
+  }
+
+  private void discardTail(long position) throws IOException {
+    long journalSize = channel.size();
+
+    for (position -= position % Long.BYTES; position < journalSize; position += Long.BYTES) {
+      ByteBuffer chunk = getChunk(position);
+      int offset = (int) (position % CHUNK_SIZE);
+
+      if (chunk.getLong(offset) != 0) {
+        chunk.putLong(offset, 0);
+      }
+    }
+  }
+
+  private void readSnapshot(Inventory initialInventory) throws IOException {
+    if (!Files.exists(snapshotPath)) {
+      int[] amountsLeft = initialInventory.getAmountsLeft();
+
+      snapshotPosition = 0;
+      committedCash = initialInventory.getCash();
+      committedAmounts = new long[amountsLeft.length];
+      committedHeld = new long[0];
+
+      for (int i = 0; i < amountsLeft.length; i++) {
+        committedAmounts[i] = amountsLeft[i];
+      }
+
+      return;
+    }
+
+    ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(snapshotPath));
+
+    snapshotPosition = snapshot.getLong();
+    committedCash = snapshot.getLong();
+    committedAmounts = new long[snapshot.getInt()];
+
+    for (int i = 0; i < committedAmounts.length; i++) {
+      committedAmounts[i] = snapshot.getLong();
+    }
+
+    committedHeld = new long[snapshot.hasRemaining() ? snapshot.getInt() : 0];
+
+    for (int i = 0; i < committedHeld.length; i++) {
+      committedHeld[i] = snapshot.getLong();
+    }
+  }
+
+  private void writeSnapshot() throws IOException {
+    ByteBuffer snapshot =
+        ByteBuffer.allocate(
+                Long.BYTES * 2
+                    + Integer.BYTES * 2
+                    + Long.BYTES * (committedAmounts.length + committedHeld.length))
+            .putLong(committedPosition)
+            .putLong(committedCash)
+            .putInt(committedAmounts.length);
+
+    for (long amount : committedAmounts) {
+      snapshot.putLong(amount);
+    }
+
+    snapshot.putInt(committedHeld.length);
+
+    for (long amount : committedHeld) {
+      snapshot.putLong(amount);
+    }
+
+    snapshot.flip();
+
+    Path temporaryPath = snapshotPath.resolveSibling(SNAPSHOT_FILE + ".tmp");
+
+    try (FileChannel snapshotChannel =
+        FileChannel.open(
+            temporaryPath,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE)) {
+      while (snapshot.hasRemaining()) {
+        snapshotChannel.write(snapshot);
+      }
+
+      snapshotChannel.force(true);
+    }
+
+    Files.move(
+        temporaryPath,
+        snapshotPath,
+        StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+    snapshotPosition = committedPosition;
+  }
+
+  private MappedByteBuffer getChunk(long position) {
+    int chunkIndex = (int) (position / CHUNK_SIZE);
+    MappedByteBuffer[] mappedChunks = chunks;
+
+    if (chunkIndex < mappedChunks.length) {
+      return mappedChunks[chunkIndex];
+    }
+
+    return mapChunks(chunkIndex);
+  }
+
+  private MappedByteBuffer mapChunks(int chunkIndex) {
+    synchronized (chunkLock) {
+      MappedByteBuffer[] mappedChunks = chunks;
+
+      if (chunkIndex < mappedChunks.length) {
+        return mappedChunks[chunkIndex];
+      }
+
+      MappedByteBuffer[] grownChunks = Arrays.copyOf(mappedChunks, chunkIndex + 1);
+
+      try {
+        for (int i = mappedChunks.length; i <= chunkIndex; i++) {
+          grownChunks[i] =
+              channel.map(FileChannel.MapMode.READ_WRITE, (long) i * CHUNK_SIZE, CHUNK_SIZE);
+        }
+      } catch (IOException e) {
+        throw new IllegalStateException("Unable to map journal chunk " + chunkIndex, e);
+      }
+
+      chunks = grownChunks;
+
+      return grownChunks[chunkIndex];
+    }
+  }
+
+  private Inventory recoverInventory() {
+    int[] amountsLeft = new int[committedAmounts.length];
+    int[] amountsHeld = new int[committedHeld.length];
+    boolean held = false;
+
+    for (int i = 0; i < amountsLeft.length; i++) {
+      amountsLeft[i] = (int) committedAmounts[i];
+    }
+
+    for (int i = 0; i < amountsHeld.length; i++) {
+      amountsHeld[i] = (int) committedHeld[i];
+      held |= amountsHeld[i] != 0;
+    }
+
+    if (!held) {
+      return new Inventory(amountsLeft, committedCash);
+    }
+
+    Inventory heldInventory = new Inventory(amountsLeft, amountsHeld, committedCash);
+    Inventory releasedInventory = heldInventory.withRelease(amountsHeld);
+
+    onInventoryChange(InventoryEvent.RELEASE, heldInventory, releasedInventory);
+
+    return new Inventory(releasedInventory.getAmountsLeft(), committedCash);
+  }
+}
@@ -0,0 +1,83 @@
+package machine;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+final class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+  private static final int STRIPES =
+      Integer.highestOneBit(Math.min(Runtime.getRuntime().availableProcessors(), 32) * 2 - 1);
+
+  private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPES];
+
+  LatencyHistogram() {
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new AtomicLongArray(BUCKETS);
+    }
+  }
+
+  void record(long valueNanos) {
+    int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+
+    stripes[stripe].getAndIncrement(indexOf(Math.max(valueNanos, 0)));
+  }
+
+  long[] snapshot() {
+    long[] counts = new long[BUCKETS];
+
+    for (AtomicLongArray stripe : stripes) {
+      for (int i = 0; i < BUCKETS; i++) {
+        counts[i] += stripe.get(i);
+      }
+    }
+
+    return counts;
+  }
+
+  static long percentile(long[] counts, double percentile) {
+    long total = 0;
+
+    for (long count : counts) {
+      total += count;
+    }
+
+    if (total == 0) {
+      return 0;
+    }
+
+    long rank = (long) Math.ceil(total * percentile / 100.0);
+    long seen = 0;
+
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+
+      if (seen >= rank) {
+        return highestValueOf(i);
+      }
+    }
+
+    return highestValueOf(counts.length - 1);
+  }
+
+  private static int indexOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+
+    return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+  }
+
+  private static long highestValueOf(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+
+    int shift = index / SUB_BUCKETS - 1;
+    long lowestValue = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+
+    return lowestValue + (1L << shift) - 1;
+  }
+}
@@ -0,0 +1,277 @@
+package machine;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LoadSimulator {
+  private static final String PROPERTY_PREFIX = "simulator.";
+  private static final String NANOS_PER_OPERATION = "nanos_per_operation";
+  private static final String BYTES_PER_OPERATION = "bytes_per_operation";
+  private static final int WARM_UP_RUNS = 3;
+
+  private final RecipeCatalog recipeCatalog;
+  private final Inventory initialInventory;
+  private final int statusReaders;
+
+  public LoadSimulator(RecipeCatalog recipeCatalog, Inventory initialInventory) {
+    this(recipeCatalog, initialInventory, 0);
+  }
+
+  public LoadSimulator(RecipeCatalog recipeCatalog, Inventory initialInventory, int statusReaders) {
+    this.recipeCatalog = recipeCatalog;
+    this.initialInventory = initialInventory;
+    this.statusReaders = statusReaders;
+  }
+
+  public static void main(String[] args) throws IOException {
+    String recipesFile = getProperty("recipes", null);
+    RecipeCatalog recipeCatalog =
+        recipesFile == null
+            ? RecipeCatalog.createDefault()
+            : RecipeCatalog.load(Paths.get(recipesFile));
+    String replayFile = getProperty("replay", null);
+    String recordFile = getProperty("record", null);
+    String baselineFile = getProperty("baseline", null);
+    SimulatedWorkload workload;
+
+    if (replayFile == null) {
+      workload =
+          SimulatedWorkload.generate(
+              recipeCatalog,
+              getProperty("mix", "espresso:30,latte:30,cappuccino:30,fill:5,take:5"),
+              getProperty("arrivals", "poisson:50"),
+              parseAmounts(getProperty("fill", "5000,2000,400,20")),
+              Integer.parseInt(getProperty("operations", "1000000")),
+              Long.parseLong(getProperty("seed", "42")));
+    } else {
+      workload = SimulatedWorkload.read(Paths.get(replayFile), recipeCatalog);
+    }
+
+    if (recordFile != null) {
+      workload.write(Paths.get(recordFile));
+    }
+
+    LoadSimulator loadSimulator =
+        new LoadSimulator(
+            recipeCatalog,
+            new CoffeeMachine(recipeCatalog).snapshot(),
+            Integer.parseInt(getProperty("readers", "0")));
+
+    for (int run = 0; run < WARM_UP_RUNS; run++) {
+      loadSimulator.run(workload);
+    }
+
+    SimulationResult result = loadSimulator.run(workload);
+    StringBuilder report = new StringBuilder();
+
+    result.writeTo(report);
+    System.out.print(report);
+
+    if (baselineFile == null) {
+      return;
+    }
+
+    Path baselinePath = Paths.get(baselineFile);
+
+    if (Boolean.parseBoolean(getProperty("update-baseline", "false"))
+        || !Files.exists(baselinePath)) {
+      writeBaseline(baselinePath, result);
+
+      return;
+    }
+
+    List<String> regressions =
+        findRegressions(
+            readBaseline(baselinePath),
+            result,
+            Double.parseDouble(getProperty("threshold", "10")));
+
+    for (String regression : regressions) {
+      System.out.println(regression);
+    }
+
+    if (!regressions.isEmpty()) {
+      System.exit(1);
+    }
+  }
+
+  SimulationResult run(SimulatedWorkload workload) {
+    CoffeeMachine coffeeMachine = new CoffeeMachine(recipeCatalog, initialInventory);
+    long[] rejectionsByResource = new long[recipeCatalog.getResources().length];
+    long completedOrders = 0;
+    StatusReaders readers = new StatusReaders(coffeeMachine, statusReaders);
+    ThreadMXBean threadMxBean = ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    long allocatedBefore = getAllocatedBytes(threadMxBean, threadId);
+    long start = System.nanoTime();
+
+    for (int i = 0; i < workload.size(); i++) {
+      switch (workload.getOperation(i)) {
+        case SimulatedWorkload.BUY:
+          OrderOutcome orderOutcome =
+              coffeeMachine.order(recipeCatalog.getRecipe(workload.getRecipeId(i)));
+
+          if (orderOutcome.isCompleted()) {
+            completedOrders++;
+          } else {
+            int index = orderOutcome.getMissingResource().getIndex();
+
+            if (index >= rejectionsByResource.length) {
+              rejectionsByResource = Arrays.copyOf(rejectionsByResource, index + 1);
+            }
+
+            rejectionsByResource[index]++;
+          }
+
+          break;
+        case SimulatedWorkload.FILL:
+          coffeeMachine.refill(workload.getFill(i));
+
+          break;
+        default:
+          coffeeMachine.collectCash();
+
+          break;
+      }
+    }
+
+    long elapsedNanos = System.nanoTime() - start;
+    long allocatedBytes = getAllocatedBytes(threadMxBean, threadId) - allocatedBefore;
+
+    return new SimulationResult(
+        workload.size(),
+        elapsedNanos,
+        allocatedBefore < 0 ? -1 : allocatedBytes,
+        completedOrders,
+        rejectionsByResource,
+        recipeCatalog.getResources(),
+        statusReaders,
+        readers.stop());
+  }
+
+  static List<String> findRegressions(
+      Properties baseline, SimulationResult result, double thresholdPercent) {
+    List<String> regressions = new ArrayList<>();
+    double tolerance = 1 + thresholdPercent / 100;
+    double baselineNanos = Double.parseDouble(baseline.getProperty(NANOS_PER_OPERATION, "0"));
+    double baselineBytes = Double.parseDouble(baseline.getProperty(BYTES_PER_OPERATION, "0"));
+
+    if (baselineNanos > 0 && result.getNanosPerOperation() > baselineNanos * tolerance) {
+      regressions.add(
+          String.format(
+              "ns/operation regressed: %.1f > %.1f", result.getNanosPerOperation(), baselineNanos));
+    }
+
+    if (result.getBytesPerOperation() > baselineBytes * tolerance) {
+      regressions.add(
+          String.format(
+              "bytes/operation regressed: %.1f > %.1f",
+              result.getBytesPerOperation(), baselineBytes));
+    }
+
+    return regressions;
+  }
+
+  private static final class StatusReaders {
+    private final Thread[] threads;
+    private final LongAdder reads = new LongAdder();
+    private volatile boolean running = true;
+
+    private StatusReaders(CoffeeMachine coffeeMachine, int count) {
+      threads = new Thread[count];
+
+      for (int reader = 0; reader < count; reader++) {
+        threads[reader] = new Thread(() -> readStatus(coffeeMachine), "status-reader-" + reader);
+        threads[reader].setDaemon(true);
+        threads[reader].start();
+      }
+    }
+
+    private void readStatus(CoffeeMachine coffeeMachine) {
+      long lastVersion = -1;
+      long readCount = 0;
+
+      while (running) {
+        Inventory inventory = coffeeMachine.snapshot();
+
+        if (inventory.getVersion() < lastVersion) {
+          throw new IllegalStateException("Inventory version went backwards");
+        }
+
+        lastVersion = inventory.getVersion();
+        readCount++;
+      }
+
+      reads.add(readCount);
+    }
+
+    private long stop() {
+      running = false;
+
+      for (Thread thread : threads) {
+        try {
+          thread.join();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+
+      return reads.sum();
+    }
+  }
+
+  private static long getAllocatedBytes(ThreadMXBean threadMxBean, long threadId) {
+    if (threadMxBean instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) threadMxBean).getThreadAllocatedBytes(threadId);
+    }
+
+    return -1;
+  }
+
+  private static Properties readBaseline(Path path) throws IOException {
+    Properties baseline = new Properties();
+
+    try (Reader reader = Files.newBufferedReader(path)) {
+      baseline.load(reader);
+    }
+
+    return baseline;
+  }
+
+  private static void writeBaseline(Path path, SimulationResult result) throws IOException {
+    Properties baseline = new Properties();
+
+    baseline.setProperty(NANOS_PER_OPERATION, Double.toString(result.getNanosPerOperation()));
+    baseline.setProperty(BYTES_PER_OPERATION, Double.toString(result.getBytesPerOperation()));
+
+    try (Writer writer = Files.newBufferedWriter(path)) {
+      baseline.store(writer, "LoadSimulator baseline");
+    }
+  }
+
+  private static int[] parseAmounts(String amounts) {
+    String[] fields = amounts.split(",");
+    int[] parsedAmounts = new int[fields.length];
+
+    for (int i = 0; i < fields.length; i++) {
+      parsedAmounts[i] = Integer.parseInt(fields[i].trim());
+    }
+
+    return parsedAmounts;
+  }
+
+  private static String getProperty(String name, String defaultValue) {
+    return System.getProperty(PROPERTY_PREFIX + name, defaultValue);
+  }
+}
@@ -0,0 +1,162 @@
+package machine;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+public class MachineMetrics {
+  private static final int LATENCY_SAMPLE_MASK = 63;
+
+  private final LatencyHistogram orderLatency = new LatencyHistogram();
+  private final LongAdder cashCollections = new LongAdder();
+  private final LongAdder cashCollected = new LongAdder();
+  private final Map<String, LongAdder> errorsByType = new ConcurrentHashMap<>();
+  private final CounterArray ordersByRecipe = new CounterArray();
+  private final CounterArray rejectionsByResource = new CounterArray();
+  private final CounterArray fillsByResource = new CounterArray();
+
+  public boolean sampleLatency() {
+    return (ThreadLocalRandom.current().nextInt() & LATENCY_SAMPLE_MASK) == 0;
+  }
+
+  public void recordOrderLatency(long latencyNanos) {
+    orderLatency.record(latencyNanos);
+  }
+
+  public void recordOrder(Recipe recipe, Resource missingResource) {
+    if (missingResource == null) {
+      ordersByRecipe.get(recipe.getId()).increment();
+    } else {
+      rejectionsByResource.get(missingResource.getIndex()).increment();
+    }
+  }
+
+  public void recordBatch(BatchResult batchResult, OrderBatch orderBatch) {
+    for (int entry = 0; entry < orderBatch.size(); entry++) {
+      int fulfilled = batchResult.getFulfilled(entry);
+
+      if (fulfilled > 0) {
+        ordersByRecipe.get(orderBatch.getRecipe(entry).getId()).add(fulfilled);
+      }
+    }
+
+    if (batchResult.getLimitingResource() != null) {
+      rejectionsByResource.get(batchResult.getLimitingResource().getIndex()).increment();
+    }
+  }
+
+  public void recordFill(int[] amountsAdded) {
+    for (int i = 0; i < amountsAdded.length; i++) {
+      if (amountsAdded[i] != 0) {
+        fillsByResource.get(i).add(amountsAdded[i]);
+      }
+    }
+  }
+
+  public void recordCashCollection(long cash) {
+    cashCollections.increment();
+    cashCollected.add(cash);
+  }
+
+  public void recordError(Exception e) {
+    errorsByType.computeIfAbsent(e.getClass().getName(), type -> new LongAdder()).increment();
+  }
+
+  public MetricsSnapshot snapshot() {
+    return new MetricsSnapshot(
+        ordersByRecipe.sum(),
+        rejectionsByResource.sum(),
+        fillsByResource.sum(),
+        cashCollections.sum(),
+        cashCollected.sum(),
+        sum(errorsByType),
+        orderLatency.snapshot());
+  }
+
+  public void dump(Path path, RecipeCatalog recipeCatalog) throws IOException {
+    Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+
+    try (Writer writer = Files.newBufferedWriter(temporaryPath)) {
+      snapshot().writeTo(writer, recipeCatalog);
+    }
+
+    Files.move(
+        temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  public Thread startDumping(Path path, RecipeCatalog recipeCatalog, long periodMillis) {
+    Thread dumper =
+        new Thread(
+            () -> {
+              while (!Thread.currentThread().isInterrupted()) {
+                try {
+                  dump(path, recipeCatalog);
+                  Thread.sleep(periodMillis);
+                } catch (InterruptedException e) {
+                  return;
+                } catch (IOException e) {
+                  e.printStackTrace();
+                }
+              }
+            },
+            "coffee-machine-metrics");
+    dumper.setDaemon(true);
+    dumper.start();
+
+    return dumper;
+  }
+
+  private static Map<String, Long> sum(Map<String, LongAdder> counters) {
+    Map<String, Long> sums = new TreeMap<>();
+
+    counters.forEach((key, counter) -> sums.put(key, counter.sum()));
+
+    return sums;
+  }
+
+  private static final class CounterArray {
+    private volatile LongAdder[] counters = new LongAdder[0];
+
+    private LongAdder get(int index) {
+      LongAdder[] currentCounters = counters;
+      LongAdder counter = index < currentCounters.length ? currentCounters[index] : null;
+
+      return counter != null ? counter : create(index);
+    }
+
+    private synchronized LongAdder create(int index) {
+      LongAdder[] grownCounters = counters;
+
+      if (index >= grownCounters.length) {
+        grownCounters = Arrays.copyOf(grownCounters, index + 1);
+      }
+
+      if (grownCounters[index] == null) {
+        grownCounters[index] = new LongAdder();
+      }
+
+      counters = grownCounters;
+
+      return grownCounters[index];
+    }
+
+    private long[] sum() {
+      LongAdder[] currentCounters = counters;
+      long[] sums = new long[currentCounters.length];
+
+      for (int i = 0; i < currentCounters.length; i++) {
+        sums[i] = currentCounters[i] == null ? 0 : currentCounters[i].sum();
+      }
+
+      return sums;
+    }
+  }
+}
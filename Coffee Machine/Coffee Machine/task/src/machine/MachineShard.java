@@ -0,0 +1,94 @@
+package machine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+final class MachineShard {
+  private final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+  private final Map<String, CoffeeMachine> machines = new HashMap<>();
+  private final Map<String, List<Runnable>> handovers = new HashMap<>();
+  private final Thread eventLoop;
+  private volatile boolean stopped;
+
+  MachineShard(int index) {
+    this.eventLoop = new Thread(this::runEventLoop, "coffee-machine-shard-" + index);
+    this.eventLoop.setDaemon(true);
+    this.eventLoop.start();
+  }
+
+  void execute(Runnable task) {
+    if (stopped) {
+      throw new IllegalStateException("The shard is stopped");
+    }
+
+    tasks.add(task);
+  }
+
+  CoffeeMachine getMachine(String machineId) {
+    return machines.get(machineId);
+  }
+
+  void putMachine(String machineId, CoffeeMachine coffeeMachine) {
+    machines.put(machineId, coffeeMachine);
+  }
+
+  void removeMachine(String machineId) {
+    machines.remove(machineId);
+  }
+
+  void awaitHandover(String machineId) {
+    handovers.put(machineId, new ArrayList<>());
+  }
+
+  boolean deferUntilHandover(String machineId, Runnable task) {
+    List<Runnable> deferredTasks = handovers.get(machineId);
+
+    if (deferredTasks == null) {
+      return false;
+    }
+
+    deferredTasks.add(task);
+
+    return true;
+  }
+
+  void completeHandover(String machineId, CoffeeMachine coffeeMachine) {
+    machines.put(machineId, coffeeMachine);
+
+    for (Runnable task : handovers.remove(machineId)) {
+      task.run();
+    }
+  }
+
+  void stop() throws InterruptedException {
+    stopped = true;
+    tasks.add(() -> {});
+    eventLoop.join();
+  }
+
+  private void runEventLoop() {
+    while (true) {
+      Runnable task;
+
+      try {
+        task = tasks.take();
+      } catch (InterruptedException e) {
+        return;
+      }
+
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        e.printStackTrace();
+      }
+
+      if (stopped && tasks.isEmpty()) {
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package machine;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+public final class MetricsSnapshot {
+  private static final double[] REPORTED_PERCENTILES = {50, 90, 99, 99.9, 100};
+
+  private final long[] ordersByRecipe;
+  private final long[] rejectionsByResource;
+  private final long[] fillsByResource;
+  private final long cashCollections;
+  private final long cashCollected;
+  private final Map<String, Long> errorsByType;
+  private final long[] orderLatencyCounts;
+
+  MetricsSnapshot(
+      long[] ordersByRecipe,
+      long[] rejectionsByResource,
+      long[] fillsByResource,
+      long cashCollections,
+      long cashCollected,
+      Map<String, Long> errorsByType,
+      long[] orderLatencyCounts) {
+    this.ordersByRecipe = ordersByRecipe;
+    this.rejectionsByResource = rejectionsByResource;
+    this.fillsByResource = fillsByResource;
+    this.cashCollections = cashCollections;
+    this.cashCollected = cashCollected;
+    this.errorsByType = Collections.unmodifiableMap(errorsByType);
+    this.orderLatencyCounts = orderLatencyCounts;
+  }
+
+  public long getOrders(Recipe recipe) {
+    return valueAt(ordersByRecipe, recipe.getId());
+  }
+
+  public long getRejections(Resource resource) {
+    return valueAt(rejectionsByResource, resource.getIndex());
+  }
+
+  public long getFilled(Resource resource) {
+    return valueAt(fillsByResource, resource.getIndex());
+  }
+
+  public long getCashCollections() {
+    return cashCollections;
+  }
+
+  public long getCashCollected() {
+    return cashCollected;
+  }
+
+  public Map<String, Long> getErrorsByType() {
+    return errorsByType;
+  }
+
+  public long getOrderLatencySamples() {
+    long samples = 0;
+
+    for (long bucketCount : orderLatencyCounts) {
+      samples += bucketCount;
+    }
+
+    return samples;
+  }
+
+  public long getOrderLatencyNanos(double percentile) {
+    return LatencyHistogram.percentile(orderLatencyCounts, percentile);
+  }
+
+  public void writeTo(Appendable out, RecipeCatalog recipeCatalog) throws IOException {
+    for (Recipe recipe : recipeCatalog.getPublishedRecipes()) {
+      line(out, "orders{recipe=\"" + recipe.getName() + "\"}", getOrders(recipe));
+    }
+
+    for (Resource resource : recipeCatalog.getResources()) {
+      if (resource != null) {
+        line(out, "rejections{resource=\"" + resource.getKey() + "\"}", getRejections(resource));
+      }
+    }
+
+    for (Resource resource : recipeCatalog.getResources()) {
+      if (resource != null) {
+        line(out, "filled{resource=\"" + resource.getKey() + "\"}", getFilled(resource));
+      }
+    }
+
+    line(out, "cash_collections", cashCollections);
+    line(out, "cash_collected", cashCollected);
+
+    for (Map.Entry<String, Long> error : errorsByType.entrySet()) {
+      line(out, "errors{type=\"" + error.getKey() + "\"}", error.getValue());
+    }
+
+    line(out, "order_latency_samples", getOrderLatencySamples());
+
+    for (double percentile : REPORTED_PERCENTILES) {
+      line(
+          out,
+          "order_latency_nanos{percentile=\"" + percentile + "\"}",
+          getOrderLatencyNanos(percentile));
+    }
+  }
+
+  private static void line(Appendable out, String name, long value) throws IOException {
+    out.append(name).append(' ').append(Long.toString(value)).append(System.lineSeparator());
+  }
+
+  private static long valueAt(long[] values, int index) {
+    return index < values.length ? values[index] : 0;
+  }
+}
@@ -0,0 +1,83 @@
+package machine;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class MoneyFormat {
+  private static final Map<Currency, MoneyFormat> FORMATS = new ConcurrentHashMap<>();
+
+  private final Currency currency;
+  private final String symbol;
+  private final byte[] symbolBytes;
+  private final int fractionDigits;
+  private final long minorUnitsPerMajorUnit;
+
+  private MoneyFormat(Currency currency) {
+    this.currency = currency;
+    this.symbol = currency.getSymbol();
+    this.symbolBytes = ResponseWriter.encode(symbol);
+    this.fractionDigits = Math.max(currency.getDefaultFractionDigits(), 0);
+    this.minorUnitsPerMajorUnit = BigDecimal.ONE.movePointRight(fractionDigits).longValueExact();
+  }
+
+  public static MoneyFormat getInstance(Currency currency) {
+    return FORMATS.computeIfAbsent(currency, MoneyFormat::new);
+  }
+
+  public Currency getCurrency() {
+    return currency;
+  }
+
+  public int getFractionDigits() {
+    return fractionDigits;
+  }
+
+  public long toMinorUnits(long majorUnits) {
+    return Math.multiplyExact(majorUnits, minorUnitsPerMajorUnit);
+  }
+
+  public long parse(String amount) {
+    try {
+      return new BigDecimal(amount.trim()).movePointRight(fractionDigits).longValueExact();
+    } catch (ArithmeticException | NumberFormatException e) {
+      throw new IllegalArgumentException(
+          "Invalid " + currency.getCurrencyCode() + " amount: " + amount, e);
+    }
+  }
+
+  public String format(long minorUnits) {
+    StringBuilder formatted = new StringBuilder();
+
+    if (minorUnits < 0) {
+      formatted.append('-');
+    }
+
+    formatted.append(symbol).append(Math.abs(minorUnits / minorUnitsPerMajorUnit));
+
+    long fraction = Math.abs(minorUnits % minorUnitsPerMajorUnit);
+
+    if (fraction != 0) {
+      String digits = Long.toString(fraction);
+
+      formatted.append('.');
+
+      for (int i = digits.length(); i < fractionDigits; i++) {
+        formatted.append('0');
+      }
+
+      formatted.append(digits);
+    }
+
+    return formatted.toString();
+  }
+
+  byte[] getSymbolBytes() {
+    return symbolBytes;
+  }
+
+  long getMinorUnitsPerMajorUnit() {
+    return minorUnitsPerMajorUnit;
+  }
+}
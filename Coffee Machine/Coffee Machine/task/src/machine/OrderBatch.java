@@ -0,0 +1,65 @@
+package machine;
+
+import java.util.Arrays;
+
+public final class OrderBatch {
+  private Recipe[] recipes = new Recipe[4];
+  private int[] counts = new int[4];
+  private int size;
+
+  public OrderBatch add(Recipe recipe, int count) {
+    if (count < 0) {
+      throw new IllegalArgumentException("Count must not be negative: " + count);
+    }
+
+    int entry = indexOf(recipe);
+
+    if (entry < 0) {
+      if (size == recipes.length) {
+        recipes = Arrays.copyOf(recipes, size * 2);
+        counts = Arrays.copyOf(counts, size * 2);
+      }
+
+      entry = size++;
+      recipes[entry] = recipe;
+    }
+
+    counts[entry] += count;
+
+    return this;
+  }
+
+  public int getCount(Recipe recipe) {
+    int entry = indexOf(recipe);
+
+    return entry < 0 ? 0 : counts[entry];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public Recipe getRecipe(int entry) {
+    return recipes[entry];
+  }
+
+  public int getCount(int entry) {
+    return counts[entry];
+  }
+
+  public void clear() {
+    Arrays.fill(recipes, 0, size, null);
+    Arrays.fill(counts, 0, size, 0);
+    size = 0;
+  }
+
+  private int indexOf(Recipe recipe) {
+    for (int entry = 0; entry < size; entry++) {
+      if (recipes[entry].getId() == recipe.getId()) {
+        return entry;
+      }
+    }
+
+    return -1;
+  }
+}
@@ -0,0 +1,45 @@
+package machine;
+
+public final class OrderOutcome {
+  public static final OrderOutcome COMPLETED = new OrderOutcome(null);
+  public static final OrderOutcome NOT_ENOUGH_WATER = new OrderOutcome(Resource.WATER);
+  public static final OrderOutcome NOT_ENOUGH_MILK = new OrderOutcome(Resource.MILK);
+  public static final OrderOutcome NOT_ENOUGH_BEANS = new OrderOutcome(Resource.BEANS);
+  public static final OrderOutcome NOT_ENOUGH_DISPOSABLE_CUPS =
+      new OrderOutcome(Resource.DISPOSABLE_CUPS);
+
+  private static final OrderOutcome[] STANDARD_SHORTAGES = {
+    NOT_ENOUGH_WATER, NOT_ENOUGH_MILK, NOT_ENOUGH_BEANS, NOT_ENOUGH_DISPOSABLE_CUPS
+  };
+
+  private final Resource missingResource;
+
+  OrderOutcome(Resource missingResource) {
+    this.missingResource = missingResource;
+  }
+
+  public static OrderOutcome getInstance(Resource missingResource) {
+    if (missingResource == null) {
+      return COMPLETED;
+    }
+
+    if (missingResource.getIndex() < STANDARD_SHORTAGES.length) {
+      return STANDARD_SHORTAGES[missingResource.getIndex()];
+    }
+
+    return missingResource.getShortageOutcome();
+  }
+
+  public boolean isCompleted() {
+    return missingResource == null;
+  }
+
+  public Resource getMissingResource() {
+    return missingResource;
+  }
+
+  @Override
+  public String toString() {
+    return missingResource == null ? "COMPLETED" : "NOT_ENOUGH_" + missingResource.getKey();
+  }
+}
@@ -0,0 +1,54 @@
+package machine;
+
+import java.util.Arrays;
+
+final class OrderQueue {
+  private int[] orderIds = new int[16];
+  private long[] enqueuedMillis = new long[16];
+  private int head;
+  private int size;
+
+  void add(int orderId, long millis) {
+    if (size == orderIds.length) {
+      grow();
+    }
+
+    int tail = (head + size) & (orderIds.length - 1);
+
+    orderIds[tail] = orderId;
+    enqueuedMillis[tail] = millis;
+    size++;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  int size() {
+    return size;
+  }
+
+  int peekOrderId() {
+    return orderIds[head];
+  }
+
+  long peekEnqueuedMillis() {
+    return enqueuedMillis[head];
+  }
+
+  void remove() {
+    head = (head + 1) & (orderIds.length - 1);
+    size--;
+  }
+
+  private void grow() {
+    int[] grownOrderIds = Arrays.copyOf(orderIds, orderIds.length * 2);
+    long[] grownEnqueuedMillis = Arrays.copyOf(enqueuedMillis, enqueuedMillis.length * 2);
+    int wrapped = head;
+
+    System.arraycopy(orderIds, 0, grownOrderIds, orderIds.length, wrapped);
+    System.arraycopy(enqueuedMillis, 0, grownEnqueuedMillis, enqueuedMillis.length, wrapped);
+    orderIds = grownOrderIds;
+    enqueuedMillis = grownEnqueuedMillis;
+  }
+}
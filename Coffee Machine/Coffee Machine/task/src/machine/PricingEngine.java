@@ -0,0 +1,70 @@
+package machine;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PricingEngine {
+  public static final int STANDARD_TIER = 0;
+
+  private final Clock clock;
+  private volatile PricingTable pricingTable;
+  private volatile HourWindow hourWindow;
+
+  public PricingEngine() {
+    this(Clock.systemDefaultZone());
+  }
+
+  PricingEngine(Clock clock) {
+    this.clock = clock;
+  }
+
+  public void setRules(List<PricingRule> rules) {
+    pricingTable = rules.isEmpty() ? null : PricingTable.compile(new ArrayList<>(rules));
+  }
+
+  public long price(Recipe recipe, Inventory inventory, int customerTier) {
+    PricingTable currentPricingTable = pricingTable;
+
+    if (currentPricingTable == null) {
+      return recipe.getPrice();
+    }
+
+    int hour = currentPricingTable.isHourDependent() ? getCurrentHour() : 0;
+
+    return currentPricingTable.price(recipe, inventory.getAmountsLeft(), hour, customerTier);
+  }
+
+  private int getCurrentHour() {
+    long now = clock.millis();
+    HourWindow currentHourWindow = hourWindow;
+
+    if (currentHourWindow == null || !currentHourWindow.contains(now)) {
+      currentHourWindow = new HourWindow(Instant.ofEpochMilli(now).atZone(clock.getZone()));
+      hourWindow = currentHourWindow;
+    }
+
+    return currentHourWindow.hour;
+  }
+
+  private static final class HourWindow {
+    private final long startMillis;
+    private final long endMillis;
+    private final int hour;
+
+    private HourWindow(ZonedDateTime time) {
+      ZonedDateTime start = time.truncatedTo(ChronoUnit.HOURS);
+
+      this.startMillis = start.toInstant().toEpochMilli();
+      this.endMillis = start.plusHours(1).toInstant().toEpochMilli();
+      this.hour = start.getHour();
+    }
+
+    private boolean contains(long millis) {
+      return millis >= startMillis && millis < endMillis;
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package machine;
+
+public final class PricingRule {
+  public static final int ANY_RECIPE = -1;
+
+  private final int recipeId;
+  private final int fromHour;
+  private final int toHour;
+  private final int minimumTier;
+  private final Resource scarceResource;
+  private final int scarcityThreshold;
+  private final int percentChangeBasisPoints;
+  private final long amountChange;
+
+  private PricingRule(Builder builder) {
+    this.recipeId = builder.recipeId;
+    this.fromHour = builder.fromHour;
+    this.toHour = builder.toHour;
+    this.minimumTier = builder.minimumTier;
+    this.scarceResource = builder.scarceResource;
+    this.scarcityThreshold = builder.scarcityThreshold;
+    this.percentChangeBasisPoints = builder.percentChangeBasisPoints;
+    this.amountChange = builder.amountChange;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public int getRecipeId() {
+    return recipeId;
+  }
+
+  public int getMinimumTier() {
+    return minimumTier;
+  }
+
+  public Resource getScarceResource() {
+    return scarceResource;
+  }
+
+  public int getScarcityThreshold() {
+    return scarcityThreshold;
+  }
+
+  public int getPercentChangeBasisPoints() {
+    return percentChangeBasisPoints;
+  }
+
+  public long getAmountChange() {
+    return amountChange;
+  }
+
+  public boolean isHourDependent() {
+    return fromHour != 0 || toHour != 24;
+  }
+
+  public boolean appliesAt(int hour) {
+    if (fromHour <= toHour) {
+      return hour >= fromHour && hour < toHour;
+    }
+
+    return hour >= fromHour || hour < toHour;
+  }
+
+  public static final class Builder {
+    private int recipeId = ANY_RECIPE;
+    private int fromHour = 0;
+    private int toHour = 24;
+    private int minimumTier = 0;
+    private Resource scarceResource;
+    private int scarcityThreshold;
+    private int percentChangeBasisPoints;
+    private long amountChange;
+
+    private Builder() {}
+
+    public Builder recipe(Recipe recipe) {
+      this.recipeId = recipe.getId();
+
+      return this;
+    }
+
+    public Builder hours(int fromHour, int toHour) {
+      if (fromHour < 0 || fromHour > 23 || toHour < 0 || toHour > 24) {
+        throw new IllegalArgumentException("Invalid hours: " + fromHour + "-" + toHour);
+      }
+
+      this.fromHour = fromHour;
+      this.toHour = toHour;
+
+      return this;
+    }
+
+    public Builder minimumTier(int minimumTier) {
+      if (minimumTier < 0) {
+        throw new IllegalArgumentException("Tier must not be negative: " + minimumTier);
+      }
+
+      this.minimumTier = minimumTier;
+
+      return this;
+    }
+
+    public Builder whenBelow(Resource scarceResource, int scarcityThreshold) {
+      this.scarceResource = scarceResource;
+      this.scarcityThreshold = scarcityThreshold;
+
+      return this;
+    }
+
+    public Builder percentChange(double percent) {
+      this.percentChangeBasisPoints = (int) Math.round(percent * 100);
+
+      return this;
+    }
+
+    public Builder amountChange(long amountChange) {
+      this.amountChange = amountChange;
+
+      return this;
+    }
+
+    public PricingRule build() {
+      return new PricingRule(this);
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package machine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class PricingTable {
+  private static final int HOURS = 24;
+  private static final int MAX_SCARCITY_CONDITIONS = 8;
+  private static final int MAX_CELLS = 1 << 24;
+  private static final long BASIS_POINTS = 10_000;
+
+  private final int recipeSlots;
+  private final int tiers;
+  private final boolean hourDependent;
+  private final int[] scarceResources;
+  private final int[] scarcityThresholds;
+  private final int[] basisPoints;
+  private final long[] amountChanges;
+
+  private PricingTable(
+      int recipeSlots,
+      int tiers,
+      boolean hourDependent,
+      int[] scarceResources,
+      int[] scarcityThresholds) {
+    int cells = recipeSlots * HOURS * tiers << scarceResources.length;
+
+    this.recipeSlots = recipeSlots;
+    this.tiers = tiers;
+    this.hourDependent = hourDependent;
+    this.scarceResources = scarceResources;
+    this.scarcityThresholds = scarcityThresholds;
+    this.basisPoints = new int[cells];
+    this.amountChanges = new long[cells];
+  }
+
+  static PricingTable compile(List<PricingRule> rules) {
+    int maxRecipeId = -1;
+    int maxTier = 0;
+    boolean hourDependent = false;
+    List<PricingRule> scarcityConditions = new ArrayList<>();
+
+    for (PricingRule rule : rules) {
+      maxRecipeId = Math.max(maxRecipeId, rule.getRecipeId());
+      maxTier = Math.max(maxTier, rule.getMinimumTier());
+      hourDependent |= rule.isHourDependent();
+
+      if (rule.getScarceResource() != null && findCondition(scarcityConditions, rule) < 0) {
+        scarcityConditions.add(rule);
+      }
+    }
+
+    if (scarcityConditions.size() > MAX_SCARCITY_CONDITIONS) {
+      throw new IllegalArgumentException(
+          "At most " + MAX_SCARCITY_CONDITIONS + " distinct scarcity conditions are supported");
+    }
+
+    int recipeSlots = maxRecipeId + 2;
+    int tiers = maxTier + 1;
+
+    if ((long) recipeSlots * HOURS * tiers << scarcityConditions.size() > MAX_CELLS) {
+      throw new IllegalArgumentException("Pricing rules do not fit in a decision table");
+    }
+
+    int[] scarceResources = new int[scarcityConditions.size()];
+    int[] scarcityThresholds = new int[scarcityConditions.size()];
+
+    for (int i = 0; i < scarceResources.length; i++) {
+      scarceResources[i] = scarcityConditions.get(i).getScarceResource().getIndex();
+      scarcityThresholds[i] = scarcityConditions.get(i).getScarcityThreshold();
+    }
+
+    PricingTable table =
+        new PricingTable(recipeSlots, tiers, hourDependent, scarceResources, scarcityThresholds);
+
+    for (PricingRule rule : rules) {
+      table.add(rule, findCondition(scarcityConditions, rule));
+    }
+
+    return table;
+  }
+
+  boolean isHourDependent() {
+    return hourDependent;
+  }
+
+  long price(Recipe recipe, int[] amountsLeft, int hour, int tier) {
+    int scarcity = 0;
+
+    for (int i = 0; i < scarceResources.length; i++) {
+      int resource = scarceResources[i];
+      int amountLeft = resource < amountsLeft.length ? amountsLeft[resource] : 0;
+
+      scarcity |= (amountLeft < scarcityThresholds[i] ? 1 : 0) << i;
+    }
+
+    int cell =
+        index(
+            Math.min(recipe.getId(), recipeSlots - 1),
+            hour,
+            Math.max(0, Math.min(tier, tiers - 1)),
+            scarcity);
+    long scaledPrice = recipe.getPrice() * (BASIS_POINTS + basisPoints[cell]);
+    long price =
+        Math.floorDiv(scaledPrice + BASIS_POINTS / 2, BASIS_POINTS) + amountChanges[cell];
+
+    return Math.max(price, 0);
+  }
+
+  private void add(PricingRule rule, int scarcityCondition) {
+    int fromRecipeSlot = rule.getRecipeId() == PricingRule.ANY_RECIPE ? 0 : rule.getRecipeId();
+    int toRecipeSlot =
+        rule.getRecipeId() == PricingRule.ANY_RECIPE ? recipeSlots : rule.getRecipeId() + 1;
+    int scarcityMasks = 1 << scarceResources.length;
+
+    for (int recipeSlot = fromRecipeSlot; recipeSlot < toRecipeSlot; recipeSlot++) {
+      for (int hour = 0; hour < HOURS; hour++) {
+        if (!rule.appliesAt(hour)) {
+          continue;
+        }
+
+        for (int tier = rule.getMinimumTier(); tier < tiers; tier++) {
+          for (int scarcity = 0; scarcity < scarcityMasks; scarcity++) {
+            if (scarcityCondition >= 0 && (scarcity >>> scarcityCondition & 1) == 0) {
+              continue;
+            }
+
+            int cell = index(recipeSlot, hour, tier, scarcity);
+
+            basisPoints[cell] += rule.getPercentChangeBasisPoints();
+            amountChanges[cell] += rule.getAmountChange();
+          }
+        }
+      }
+    }
+  }
+
+  private int index(int recipeSlot, int hour, int tier, int scarcity) {
+    return ((recipeSlot * HOURS + hour) * tiers + tier) << scarceResources.length | scarcity;
+  }
+
+  private static int findCondition(List<PricingRule> scarcityConditions, PricingRule rule) {
+    if (rule.getScarceResource() == null) {
+      return -1;
+    }
+
+    for (int i = 0; i < scarcityConditions.size(); i++) {
+      PricingRule condition = scarcityConditions.get(i);
+
+      if (condition.getScarceResource().getIndex() == rule.getScarceResource().getIndex()
+          && condition.getScarcityThreshold() == rule.getScarcityThreshold()) {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+}
@@ -0,0 +1,83 @@
+package machine;
+
+import java.util.Map;
+
+public final class Recipe {
+  private final int id;
+  private final String name;
+  private final long price;
+  private final int[] amounts;
+  private final Resource[] resources;
+
+  public Recipe(int id, String name, long price, Map<Resource, Integer> ingredients) {
+    if (id < 0) {
+      throw new IllegalArgumentException("Recipe id must not be negative: " + id);
+    }
+
+    if (price < 0) {
+      throw new IllegalArgumentException("Price of " + name + " must not be negative");
+    }
+
+    int resourceCount = 0;
+
+    for (Resource resource : ingredients.keySet()) {
+      resourceCount = Math.max(resourceCount, resource.getIndex() + 1);
+    }
+
+    this.id = id;
+    this.name = name;
+    this.price = price;
+    this.amounts = new int[resourceCount];
+    this.resources = new Resource[resourceCount];
+
+    for (Map.Entry<Resource, Integer> ingredient : ingredients.entrySet()) {
+      if (ingredient.getValue() < 0) {
+        throw new IllegalArgumentException(
+            "Amount of " + ingredient.getKey().getName() + " must not be negative in " + name);
+      }
+
+      this.amounts[ingredient.getKey().getIndex()] = ingredient.getValue();
+      this.resources[ingredient.getKey().getIndex()] = ingredient.getKey();
+    }
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getPrice() {
+    return price;
+  }
+
+  public int getRequired(Resource resource) {
+    return resource.getIndex() < amounts.length ? amounts[resource.getIndex()] : 0;
+  }
+
+  public int getWaterMlRequired() {
+    return getRequired(Resource.WATER);
+  }
+
+  public int getMilkMlRequired() {
+    return getRequired(Resource.MILK);
+  }
+
+  public int getBeansGrRequired() {
+    return getRequired(Resource.BEANS);
+  }
+
+  public int getDisposableCupsRequired() {
+    return getRequired(Resource.DISPOSABLE_CUPS);
+  }
+
+  int[] getAmounts() {
+    return amounts;
+  }
+
+  Resource getResource(int index) {
+    return resources[index];
+  }
+}
@@ -0,0 +1,321 @@
+package machine;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+public class RecipeCatalog {
+  private static final String RECIPE_PREFIX = "recipe.";
+  private static final String RESOURCE_PREFIX = "resource.";
+  private static final String CURRENCY_KEY = "currency";
+  private static final Currency DEFAULT_CURRENCY = Currency.getInstance("USD");
+  private static final long RELOAD_QUIET_MILLIS = 200;
+
+  private final Path path;
+  private final Currency currency;
+  private volatile Contents contents;
+
+  private RecipeCatalog(
+      Path path, Currency currency, Resource[] resources, List<Recipe> recipes) {
+    this.path = path;
+    this.currency = currency;
+    publish(resources, recipes);
+  }
+
+  public static RecipeCatalog createDefault() {
+    List<Recipe> recipes = new ArrayList<>();
+
+    MoneyFormat moneyFormat = MoneyFormat.getInstance(DEFAULT_CURRENCY);
+
+    recipes.add(
+        new Recipe(1, "espresso", moneyFormat.toMinorUnits(4), ingredients(250, 0, 16)));
+    recipes.add(new Recipe(2, "latte", moneyFormat.toMinorUnits(7), ingredients(350, 75, 20)));
+    recipes.add(
+        new Recipe(3, "cappuccino", moneyFormat.toMinorUnits(6), ingredients(200, 100, 12)));
+
+    return new RecipeCatalog(null, DEFAULT_CURRENCY, Resource.getStandardResources(), recipes);
+  }
+
+  public static RecipeCatalog load(Path path) throws IOException {
+    Properties properties = read(path);
+    Currency currency = readCurrency(properties);
+    Resource[] resources = readResources(properties);
+
+    return new RecipeCatalog(
+        path, currency, resources, readRecipes(properties, currency, resources));
+  }
+
+  public Currency getCurrency() {
+    return currency;
+  }
+
+  public Resource[] getResources() {
+    return contents.resources.clone();
+  }
+
+  public int getResourceCount() {
+    return contents.resources.length;
+  }
+
+  public Resource getResource(String key) {
+    for (Resource resource : contents.resources) {
+      if (resource != null && resource.getKey().equals(key)) {
+        return resource;
+      }
+    }
+
+    return null;
+  }
+
+  public Recipe getRecipe(int id) {
+    Recipe[] currentRecipesById = contents.recipesById;
+
+    return id >= 0 && id < currentRecipesById.length ? currentRecipesById[id] : null;
+  }
+
+  public Recipe[] getRecipes() {
+    return contents.recipes.clone();
+  }
+
+  Recipe[] getPublishedRecipes() {
+    return contents.recipes;
+  }
+
+  public int size() {
+    return contents.recipes.length;
+  }
+
+  public synchronized void reload() throws IOException {
+    if (path == null) {
+      throw new IllegalStateException("The default recipe catalog has no file to reload");
+    }
+
+    Properties properties = read(path);
+
+    if (readCurrency(properties) != currency) {
+      throw new IllegalArgumentException("The catalog currency cannot change on reload");
+    }
+
+    Resource[] loadedResources = readResources(properties);
+
+    publish(loadedResources, readRecipes(properties, currency, loadedResources));
+  }
+
+  public Thread startWatching() throws IOException {
+    if (path == null) {
+      throw new IllegalStateException("The default recipe catalog has no file to watch");
+    }
+
+    Path directory = path.toAbsolutePath().getParent();
+    WatchService watchService = FileSystems.getDefault().newWatchService();
+    directory.register(
+        watchService,
+        StandardWatchEventKinds.ENTRY_CREATE,
+        StandardWatchEventKinds.ENTRY_MODIFY);
+
+    Thread watcher = new Thread(() -> watch(watchService), "coffee-machine-recipes");
+    watcher.setDaemon(true);
+    watcher.start();
+
+    return watcher;
+  }
+
+  private void watch(WatchService watchService) {
+    Path fileName = path.getFileName();
+
+    try (watchService) {
+      while (true) {
+        WatchKey watchKey = watchService.take();
+        boolean changed = false;
+
+        // Wait until the file has been quiet for a while, so a writer still appending to it
+        // is not parsed halfway through.
+        while (watchKey != null) {
+          for (WatchEvent<?> event : watchKey.pollEvents()) {
+            changed |= fileName.equals(event.context());
+          }
+
+          if (!watchKey.reset()) {
+            return;
+          }
+
+          watchKey =
+              changed ? watchService.poll(RELOAD_QUIET_MILLIS, TimeUnit.MILLISECONDS) : null;
+        }
+
+        if (changed) {
+          try {
+            reload();
+          } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (IOException | ClosedWatchServiceException e) {
+      e.printStackTrace();
+    }
+  }
+
+  private void publish(Resource[] loadedResources, List<Recipe> loadedRecipes) {
+    int maxId = -1;
+
+    for (Recipe recipe : loadedRecipes) {
+      maxId = Math.max(maxId, recipe.getId());
+    }
+
+    Recipe[] loadedRecipesById = new Recipe[maxId + 1];
+
+    for (Recipe recipe : loadedRecipes) {
+      if (loadedRecipesById[recipe.getId()] != null) {
+        throw new IllegalArgumentException("Duplicate recipe id: " + recipe.getId());
+      }
+
+      loadedRecipesById[recipe.getId()] = recipe;
+    }
+
+    List<Recipe> sortedRecipes = new ArrayList<>();
+
+    for (Recipe recipe : loadedRecipesById) {
+      if (recipe != null) {
+        sortedRecipes.add(recipe);
+      }
+    }
+
+    this.contents =
+        new Contents(loadedResources, loadedRecipesById, sortedRecipes.toArray(new Recipe[0]));
+  }
+
+  private static Properties read(Path path) throws IOException {
+    Properties properties = new Properties();
+
+    try (Reader reader = Files.newBufferedReader(path)) {
+      properties.load(reader);
+    }
+
+    return properties;
+  }
+
+  private static Currency readCurrency(Properties properties) {
+    String currencyCode = properties.getProperty(CURRENCY_KEY);
+
+    if (currencyCode == null) {
+      return DEFAULT_CURRENCY;
+    }
+
+    try {
+      return Currency.getInstance(currencyCode.trim());
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid currency: " + currencyCode, e);
+    }
+  }
+
+  private static Resource[] readResources(Properties properties) {
+    List<Resource> resources = new ArrayList<>(Arrays.asList(Resource.getStandardResources()));
+
+    for (String key : properties.stringPropertyNames()) {
+      if (key.startsWith(RESOURCE_PREFIX)) {
+        int index = parseInt(key, key.substring(RESOURCE_PREFIX.length()));
+
+        if (index < Resource.STANDARD_RESOURCE_COUNT) {
+          throw new IllegalArgumentException("Resource index " + index + " is reserved");
+        }
+
+        while (resources.size() <= index) {
+          resources.add(null);
+        }
+
+        String resourceKey = properties.getProperty(key).trim();
+        resources.set(index, new Resource(index, resourceKey, resourceKey.replace('_', ' ')));
+      }
+    }
+
+    return resources.toArray(new Resource[0]);
+  }
+
+  private static List<Recipe> readRecipes(
+      Properties properties, Currency currency, Resource[] resources) {
+    List<Recipe> recipes = new ArrayList<>();
+
+    for (String key : properties.stringPropertyNames()) {
+      if (key.startsWith(RECIPE_PREFIX) && key.endsWith(".name")) {
+        String id = key.substring(RECIPE_PREFIX.length(), key.length() - ".name".length());
+
+        recipes.add(readRecipe(properties, currency, resources, id));
+      }
+    }
+
+    return recipes;
+  }
+
+  private static Recipe readRecipe(
+      Properties properties, Currency currency, Resource[] resources, String id) {
+    String prefix = RECIPE_PREFIX + id + ".";
+    Map<Resource, Integer> ingredients = new HashMap<>();
+
+    for (Resource resource : resources) {
+      if (resource == null) {
+        continue;
+      }
+
+      String amount = properties.getProperty(prefix + resource.getKey());
+
+      if (amount != null) {
+        ingredients.put(resource, parseInt(prefix + resource.getKey(), amount));
+      }
+    }
+
+    return new Recipe(
+        parseInt(prefix + "id", id),
+        properties.getProperty(prefix + "name").trim(),
+        MoneyFormat.getInstance(currency).parse(properties.getProperty(prefix + "price", "0")),
+        ingredients);
+  }
+
+  private static int parseInt(String key, String value) {
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid number for " + key + ": " + value, e);
+    }
+  }
+
+  private static Map<Resource, Integer> ingredients(int waterMl, int milkMl, int beansGr) {
+    Map<Resource, Integer> ingredients = new HashMap<>();
+
+    ingredients.put(Resource.WATER, waterMl);
+    ingredients.put(Resource.MILK, milkMl);
+    ingredients.put(Resource.BEANS, beansGr);
+    ingredients.put(Resource.DISPOSABLE_CUPS, 1);
+
+    return ingredients;
+  }
+
+  private static final class Contents {
+    private final Resource[] resources;
+    private final Recipe[] recipesById;
+    private final Recipe[] recipes;
+
+    private Contents(Resource[] resources, Recipe[] recipesById, Recipe[] recipes) {
+      this.resources = resources;
+      this.recipesById = recipesById;
+      this.recipes = recipes;
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package machine;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public class RefillPlanner {
+  private final Resource[] resources;
+  private final int resourceCount;
+  private final long horizonMillis;
+  private final long leadTimeMillis;
+
+  public RefillPlanner(Resource[] resources, long horizonMillis, long leadTimeMillis) {
+    this.resources = resources.clone();
+    this.resourceCount = countResources(resources);
+    this.horizonMillis = horizonMillis;
+    this.leadTimeMillis = leadTimeMillis;
+  }
+
+  public List<RefillTask> plan(CoffeeMachineFleet fleet, ConsumptionTracker[] trackers) {
+    Inventory[] inventories = new Inventory[fleet.getSize()];
+
+    for (int machine = 0; machine < inventories.length; machine++) {
+      inventories[machine] = fleet.snapshot(machine);
+    }
+
+    return plan(inventories, trackers);
+  }
+
+  public List<RefillTask> plan(Inventory[] inventories, ConsumptionTracker[] trackers) {
+    List<RefillTask> refillTasks = new ArrayList<>();
+
+    for (int machine = 0; machine < inventories.length; machine++) {
+      RefillTask refillTask = plan(machine, inventories[machine], trackers[machine]);
+
+      if (refillTask != null) {
+        refillTasks.add(refillTask);
+      }
+    }
+
+    refillTasks.sort(Comparator.comparingLong(RefillTask::getDueMillis));
+
+    return refillTasks;
+  }
+
+  private RefillTask plan(int machine, Inventory inventory, ConsumptionTracker tracker) {
+    Resource limitingResource = null;
+    long millisUntilEmpty = Long.MAX_VALUE;
+
+    for (Resource resource : resources) {
+      if (resource == null) {
+        continue;
+      }
+
+      long resourceMillisUntilEmpty = tracker.predictMillisUntilEmpty(inventory, resource);
+
+      if (resourceMillisUntilEmpty < millisUntilEmpty) {
+        millisUntilEmpty = resourceMillisUntilEmpty;
+        limitingResource = resource;
+      }
+    }
+
+    if (millisUntilEmpty - leadTimeMillis > horizonMillis) {
+      return null;
+    }
+
+    int[] amountsToAdd = new int[resourceCount];
+
+    for (Resource resource : resources) {
+      if (resource == null) {
+        continue;
+      }
+
+      double demand = tracker.getRatePerSecond(resource) * horizonMillis / 1000;
+      double shortage = Math.ceil(demand) - inventory.getLeft(resource);
+
+      amountsToAdd[resource.getIndex()] =
+          shortage > 0 ? (int) Math.min(shortage, Integer.MAX_VALUE) : 0;
+    }
+
+    return new RefillTask(
+        machine, Math.max(millisUntilEmpty - leadTimeMillis, 0), limitingResource, amountsToAdd);
+  }
+
+  private static int countResources(Resource[] resources) {
+    int resourceCount = 0;
+
+    for (Resource resource : resources) {
+      if (resource != null) {
+        resourceCount = Math.max(resourceCount, resource.getIndex() + 1);
+      }
+    }
+
+    return resourceCount;
+  }
+}
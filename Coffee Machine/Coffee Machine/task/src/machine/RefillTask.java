@@ -0,0 +1,36 @@
+package machine;
+
+public final class RefillTask {
+  private final int machine;
+  private final long dueMillis;
+  private final Resource limitingResource;
+  private final int[] amountsToAdd;
+
+  RefillTask(int machine, long dueMillis, Resource limitingResource, int[] amountsToAdd) {
+    this.machine = machine;
+    this.dueMillis = dueMillis;
+    this.limitingResource = limitingResource;
+    this.amountsToAdd = amountsToAdd;
+  }
+
+  public int getMachine() {
+    return machine;
+  }
+
+  public long getDueMillis() {
+    return dueMillis;
+  }
+
+  public Resource getLimitingResource() {
+    return limitingResource;
+  }
+
+  public int getAmountToAdd(Resource resource) {
+    return resource.getIndex() < amountsToAdd.length ? amountsToAdd[resource.getIndex()] : 0;
+  }
+
+  @Override
+  public String toString() {
+    return "machine " + machine + " in " + dueMillis + " ms (" + limitingResource + ")";
+  }
+}
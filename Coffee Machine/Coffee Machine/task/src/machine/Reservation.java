@@ -0,0 +1,43 @@
+package machine;
+
+public final class Reservation {
+  public static final long NO_TOKEN = -1;
+
+  private final long token;
+  private final Recipe recipe;
+  private final long price;
+  private final long expiresAtMillis;
+  private final OrderOutcome outcome;
+
+  Reservation(long token, Recipe recipe, long price, long expiresAtMillis, OrderOutcome outcome) {
+    this.token = token;
+    this.recipe = recipe;
+    this.price = price;
+    this.expiresAtMillis = expiresAtMillis;
+    this.outcome = outcome;
+  }
+
+  public boolean isReserved() {
+    return outcome.isCompleted();
+  }
+
+  public long getToken() {
+    return token;
+  }
+
+  public Recipe getRecipe() {
+    return recipe;
+  }
+
+  public long getPrice() {
+    return price;
+  }
+
+  public long getExpiresAtMillis() {
+    return expiresAtMillis;
+  }
+
+  public OrderOutcome getOutcome() {
+    return outcome;
+  }
+}
@@ -0,0 +1,259 @@
+package machine;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+// Two timing wheels: the first has one bucket per tick, the second one bucket per rotation of the
+// first. Reservations further out than the second wheel wait in an overflow list that is only
+// walked once per rotation of the second wheel.
+final class ReservationBook {
+  private static final int NONE = -1;
+
+  private final long tickMillis;
+  private final int wheelSize;
+  private final int wheelBits;
+  private final int wheelMask;
+  private final int overflowBucket;
+  private final int[] bucketHeads;
+  private Recipe[] recipes = new Recipe[16];
+  private long[] prices = new long[16];
+  private long[] expiryTicks = new long[16];
+  private int[] buckets = new int[16];
+  private int[] generations = new int[16];
+  private int[] next = new int[16];
+  private int[] previous = new int[16];
+  private int freeHead = NONE;
+  private int allocated;
+  private int outstanding;
+  private long currentTick;
+
+  ReservationBook(long tickMillis, int wheelSize, long nowMillis) {
+    if (Integer.bitCount(wheelSize) != 1) {
+      throw new IllegalArgumentException("The wheel size must be a power of two");
+    }
+
+    this.tickMillis = tickMillis;
+    this.wheelSize = wheelSize;
+    this.wheelBits = Integer.numberOfTrailingZeros(wheelSize);
+    this.wheelMask = wheelSize - 1;
+    this.overflowBucket = 2 * wheelSize;
+    this.bucketHeads = new int[overflowBucket + 1];
+    this.currentTick = nowMillis / tickMillis;
+    Arrays.fill(bucketHeads, NONE);
+  }
+
+  int getOutstanding() {
+    return outstanding;
+  }
+
+  long add(Recipe recipe, long price, long expiresAtMillis) {
+    int slot = allocate();
+    long expiryTick = Math.max(Math.floorDiv(expiresAtMillis, tickMillis), currentTick + 1);
+
+    recipes[slot] = recipe;
+    prices[slot] = price;
+    expiryTicks[slot] = expiryTick;
+    link(slot, selectBucket(expiryTick));
+    outstanding++;
+
+    return (long) generations[slot] << 32 | slot;
+  }
+
+  int find(long token) {
+    int slot = (int) token;
+
+    if (slot < 0 || slot >= allocated || generations[slot] != (int) (token >>> 32)) {
+      return NONE;
+    }
+
+    return recipes[slot] == null ? NONE : slot;
+  }
+
+  Recipe getRecipe(int slot) {
+    return recipes[slot];
+  }
+
+  long getPrice(int slot) {
+    return prices[slot];
+  }
+
+  boolean isExpired(int slot, long nowMillis) {
+    return expiryTicks[slot] <= Math.floorDiv(nowMillis, tickMillis);
+  }
+
+  void remove(int slot) {
+    unlink(slot);
+    free(slot);
+  }
+
+  int expire(long nowMillis, Consumer<Recipe> expired) {
+    long targetTick = Math.floorDiv(nowMillis, tickMillis);
+
+    if (targetTick - currentTick > wheelSize) {
+      return expireAll(targetTick, expired);
+    }
+
+    int expiredCount = 0;
+
+    for (long tick = currentTick + 1; tick <= targetTick; tick++) {
+      if ((tick & wheelMask) == 0) {
+        cascade(tick);
+      }
+
+      int slot = bucketHeads[(int) (tick & wheelMask)];
+
+      while (slot != NONE) {
+        int nextSlot = next[slot];
+
+        if (expiryTicks[slot] <= targetTick) {
+          expired.accept(recipes[slot]);
+          remove(slot);
+          expiredCount++;
+        }
+
+        slot = nextSlot;
+      }
+
+      currentTick = tick;
+    }
+
+    return expiredCount;
+  }
+
+  int clear(Consumer<Recipe> released) {
+    int releasedCount = 0;
+
+    for (int bucket = 0; bucket < bucketHeads.length; bucket++) {
+      while (bucketHeads[bucket] != NONE) {
+        int slot = bucketHeads[bucket];
+
+        released.accept(recipes[slot]);
+        remove(slot);
+        releasedCount++;
+      }
+    }
+
+    return releasedCount;
+  }
+
+  private int expireAll(long targetTick, Consumer<Recipe> expired) {
+    int expiredCount = 0;
+
+    currentTick = targetTick;
+
+    for (int bucket = 0; bucket < bucketHeads.length; bucket++) {
+      int slot = bucketHeads[bucket];
+
+      bucketHeads[bucket] = NONE;
+
+      while (slot != NONE) {
+        int nextSlot = next[slot];
+
+        if (expiryTicks[slot] <= targetTick) {
+          expired.accept(recipes[slot]);
+          free(slot);
+          expiredCount++;
+        } else {
+          link(slot, selectBucket(expiryTicks[slot]));
+        }
+
+        slot = nextSlot;
+      }
+    }
+
+    return expiredCount;
+  }
+
+  private void cascade(long tick) {
+    if ((tick >>> wheelBits & wheelMask) == 0) {
+      relink(overflowBucket);
+    }
+
+    relink(wheelSize + (int) (tick >>> wheelBits & wheelMask));
+  }
+
+  private void relink(int bucket) {
+    int slot = bucketHeads[bucket];
+
+    bucketHeads[bucket] = NONE;
+
+    while (slot != NONE) {
+      int nextSlot = next[slot];
+
+      link(slot, selectBucket(expiryTicks[slot]));
+      slot = nextSlot;
+    }
+  }
+
+  private int selectBucket(long expiryTick) {
+    long nextTick = currentTick + 1;
+
+    if (expiryTick - nextTick < wheelSize) {
+      return (int) (expiryTick & wheelMask);
+    }
+
+    if ((expiryTick >>> wheelBits) - (nextTick >>> wheelBits) < wheelSize) {
+      return wheelSize + (int) (expiryTick >>> wheelBits & wheelMask);
+    }
+
+    return overflowBucket;
+  }
+
+  private void link(int slot, int bucket) {
+    buckets[slot] = bucket;
+    previous[slot] = NONE;
+    next[slot] = bucketHeads[bucket];
+
+    if (bucketHeads[bucket] != NONE) {
+      previous[bucketHeads[bucket]] = slot;
+    }
+
+    bucketHeads[bucket] = slot;
+  }
+
+  private void unlink(int slot) {
+    int bucket = buckets[slot];
+
+    if (previous[slot] == NONE) {
+      bucketHeads[bucket] = next[slot];
+    } else {
+      next[previous[slot]] = next[slot];
+    }
+
+    if (next[slot] != NONE) {
+      previous[next[slot]] = previous[slot];
+    }
+  }
+
+  private void free(int slot) {
+    recipes[slot] = null;
+    generations[slot]++;
+    next[slot] = freeHead;
+    freeHead = slot;
+    outstanding--;
+  }
+
+  private int allocate() {
+    if (freeHead != NONE) {
+      int slot = freeHead;
+
+      freeHead = next[slot];
+
+      return slot;
+    }
+
+    if (allocated == recipes.length) {
+      int capacity = recipes.length * 2;
+
+      recipes = Arrays.copyOf(recipes, capacity);
+      prices = Arrays.copyOf(prices, capacity);
+      expiryTicks = Arrays.copyOf(expiryTicks, capacity);
+      buckets = Arrays.copyOf(buckets, capacity);
+      generations = Arrays.copyOf(generations, capacity);
+      next = Arrays.copyOf(next, capacity);
+      previous = Arrays.copyOf(previous, capacity);
+    }
+
+    return allocated++;
+  }
+}
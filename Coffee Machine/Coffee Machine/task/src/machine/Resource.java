@@ -0,0 +1,68 @@
+package machine;
+
+public final class Resource {
+  public static final Resource WATER = new Resource(0, "water", "water");
+  public static final Resource MILK = new Resource(1, "milk", "milk");
+  public static final Resource BEANS = new Resource(2, "beans", "beans");
+  public static final Resource DISPOSABLE_CUPS =
+      new Resource(3, "disposable_cups", "disposable cups");
+
+  static final int STANDARD_RESOURCE_COUNT = 4;
+
+  private final int index;
+  private final String key;
+  private final String name;
+  private final OrderOutcome shortageOutcome;
+
+  Resource(int index, String key, String name) {
+    this.index = index;
+    this.key = key;
+    this.name = name;
+    this.shortageOutcome = index < STANDARD_RESOURCE_COUNT ? null : new OrderOutcome(this);
+  }
+
+  static Resource[] getStandardResources() {
+    return new Resource[] {WATER, MILK, BEANS, DISPOSABLE_CUPS};
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  OrderOutcome getShortageOutcome() {
+    return shortageOutcome;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+
+    if (!(o instanceof Resource)) {
+      return false;
+    }
+
+    Resource resource = (Resource) o;
+
+    return index == resource.index && key.equals(resource.key);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * index + key.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
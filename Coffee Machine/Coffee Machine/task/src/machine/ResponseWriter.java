@@ -0,0 +1,111 @@
+package machine;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+class ResponseWriter implements Flushable {
+  private static final int BUFFER_SIZE = 8192;
+  private static final byte[] LINE_SEPARATOR = encode(System.lineSeparator());
+
+  private final OutputStream outputStream;
+  private final byte[] digits = new byte[20];
+  private byte[] buffer = new byte[BUFFER_SIZE];
+  private int length;
+
+  ResponseWriter(OutputStream outputStream) {
+    this.outputStream = outputStream;
+  }
+
+  public static byte[] encode(String text) {
+    return text.getBytes(Charset.defaultCharset());
+  }
+
+  public ResponseWriter write(byte[] bytes) throws IOException {
+    ensureCapacity(bytes.length);
+    System.arraycopy(bytes, 0, buffer, length, bytes.length);
+    length += bytes.length;
+
+    return this;
+  }
+
+  public ResponseWriter writeLong(long value) throws IOException {
+    int digitsLength = 0;
+    boolean negative = value < 0;
+
+    do {
+      int digit = (int) (value % 10);
+      digits[digitsLength++] = (byte) ('0' + (negative ? -digit : digit));
+      value /= 10;
+    } while (value != 0);
+
+    ensureCapacity(digitsLength + 1);
+
+    if (negative) {
+      buffer[length++] = '-';
+    }
+
+    while (digitsLength > 0) {
+      buffer[length++] = digits[--digitsLength];
+    }
+
+    return this;
+  }
+
+  public ResponseWriter writeMoney(long minorUnits, MoneyFormat moneyFormat) throws IOException {
+    long minorUnitsPerMajorUnit = moneyFormat.getMinorUnitsPerMajorUnit();
+    long fraction = Math.abs(minorUnits % minorUnitsPerMajorUnit);
+
+    if (minorUnits < 0) {
+      writeByte((byte) '-');
+    }
+
+    write(moneyFormat.getSymbolBytes()).writeLong(Math.abs(minorUnits / minorUnitsPerMajorUnit));
+
+    if (fraction != 0) {
+      writeByte((byte) '.');
+
+      for (long scale = minorUnitsPerMajorUnit / 10; fraction < scale; scale /= 10) {
+        writeByte((byte) '0');
+      }
+
+      writeLong(fraction);
+    }
+
+    return this;
+  }
+
+  public ResponseWriter newLine() throws IOException {
+    return write(LINE_SEPARATOR);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    flushBuffer();
+    outputStream.flush();
+  }
+
+  private void writeByte(byte b) throws IOException {
+    ensureCapacity(1);
+    buffer[length++] = b;
+  }
+
+  private void ensureCapacity(int bytesToWrite) throws IOException {
+    if (length + bytesToWrite > buffer.length) {
+      flushBuffer();
+
+      if (bytesToWrite > buffer.length) {
+        buffer = Arrays.copyOf(buffer, bytesToWrite);
+      }
+    }
+  }
+
+  private void flushBuffer() throws IOException {
+    if (length > 0) {
+      outputStream.write(buffer, 0, length);
+      length = 0;
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package cinema;
+
+import java.time.LocalDateTime;
+
+public final class Screening {
+  private final int id;
+  private final HallLayout hall;
+  private final LocalDateTime startsAt;
+  private final CinemaHall seating;
+
+  Screening(int id, HallLayout hall, LocalDateTime startsAt, StatisticsCounter cinemaStatistics) {
+    this.id = id;
+    this.hall = hall;
+    this.startsAt = startsAt;
+    this.seating = new CinemaHall(hall, cinemaStatistics);
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public HallLayout getHall() {
+    return hall;
+  }
+
+  public LocalDateTime getStartsAt() {
+    return startsAt;
+  }
+
+  public CinemaHall getSeating() {
+    return seating;
+  }
+
+  @Override
+  public String toString() {
+    return hall + " at " + startsAt;
+  }
+}
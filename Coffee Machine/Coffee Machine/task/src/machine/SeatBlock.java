@@ -0,0 +1,35 @@
+package cinema;
+
+public final class SeatBlock {
+  private final int rowNumber;
+  private final int firstSeatNumber;
+  private final int seatCount;
+
+  SeatBlock(int rowNumber, int firstSeatNumber, int seatCount) {
+    this.rowNumber = rowNumber;
+    this.firstSeatNumber = firstSeatNumber;
+    this.seatCount = seatCount;
+  }
+
+  public int getRowNumber() {
+    return rowNumber;
+  }
+
+  public int getFirstSeatNumber() {
+    return firstSeatNumber;
+  }
+
+  public int getSeatCount() {
+    return seatCount;
+  }
+
+  @Override
+  public String toString() {
+    return "row "
+        + rowNumber
+        + ", seats "
+        + firstSeatNumber
+        + "-"
+        + (firstSeatNumber + seatCount - 1);
+  }
+}
@@ -0,0 +1,217 @@
+package cinema;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+final class SeatMap {
+  static final int NOT_FOUND = -1;
+
+  private final int rows;
+  private final int seatsInRow;
+  private final int wordsPerRow;
+  private volatile AtomicLongArray words;
+  private volatile boolean shared;
+
+  SeatMap(int rows, int seatsInRow) {
+    if (rows < 0 || seatsInRow < 0) {
+      throw new IllegalArgumentException("Hall dimensions must not be negative");
+    }
+
+    this.rows = rows;
+    this.seatsInRow = seatsInRow;
+    this.wordsPerRow = (seatsInRow + Long.SIZE - 1) >>> 6;
+    this.words = new AtomicLongArray(Math.multiplyExact(rows, wordsPerRow));
+  }
+
+  SeatMap(SeatMap template) {
+    this.rows = template.rows;
+    this.seatsInRow = template.seatsInRow;
+    this.wordsPerRow = template.wordsPerRow;
+    this.words = template.words;
+    this.shared = true;
+  }
+
+  int getRows() {
+    return rows;
+  }
+
+  int getSeatsInRow() {
+    return seatsInRow;
+  }
+
+  boolean contains(int row, int seat) {
+    return row >= 0 && row < rows && seat >= 0 && seat < seatsInRow;
+  }
+
+  boolean isBooked(int row, int seat) {
+    return (words.get(getWordIndex(row, seat)) & 1L << seat) != 0;
+  }
+
+  boolean book(int row, int seat) {
+    return claim(getWordIndex(row, seat), 1L << seat);
+  }
+
+  boolean bookRun(int row, int firstSeat, int seatCount) {
+    return claimRun(row, firstSeat, seatCount) == NOT_FOUND;
+  }
+
+  boolean cancel(int row, int seat) {
+    AtomicLongArray writableWords = getWritableWords();
+    int wordIndex = getWordIndex(row, seat);
+    long seatMask = 1L << seat;
+
+    while (true) {
+      long current = writableWords.get(wordIndex);
+
+      if ((current & seatMask) == 0) {
+        return false;
+      }
+
+      if (writableWords.compareAndSet(wordIndex, current, current & ~seatMask)) {
+        return true;
+      }
+    }
+  }
+
+  int bookAdjacent(int row, int seatCount) {
+    if (seatCount < 1 || seatCount > seatsInRow) {
+      return NOT_FOUND;
+    }
+
+    int seat = findFreeRun(row, seatCount, 0);
+
+    while (seat != NOT_FOUND) {
+      int blockedSeat = claimRun(row, seat, seatCount);
+
+      if (blockedSeat == NOT_FOUND) {
+        return seat;
+      }
+
+      seat = findFreeRun(row, seatCount, blockedSeat + 1);
+    }
+
+    return NOT_FOUND;
+  }
+
+  private int findFreeRun(int row, int seatCount, int fromSeat) {
+    int seat = fromSeat;
+
+    while (seat < seatsInRow) {
+      int freeSeat = findNext(row, seat, false);
+
+      if (freeSeat >= seatsInRow) {
+        return NOT_FOUND;
+      }
+
+      int bookedSeat = findNext(row, freeSeat, true);
+
+      if (bookedSeat - freeSeat >= seatCount) {
+        return freeSeat;
+      }
+
+      seat = bookedSeat + 1;
+    }
+
+    return NOT_FOUND;
+  }
+
+  private int findNext(int row, int fromSeat, boolean booked) {
+    int wordIndex = getWordIndex(row, fromSeat);
+    int rowEnd = (row + 1) * wordsPerRow;
+    long word = booked ? words.get(wordIndex) : ~words.get(wordIndex);
+
+    word &= -1L << fromSeat;
+
+    while (word == 0) {
+      if (++wordIndex == rowEnd) {
+        return seatsInRow;
+      }
+
+      word = booked ? words.get(wordIndex) : ~words.get(wordIndex);
+    }
+
+    int seat = (wordIndex - row * wordsPerRow) * Long.SIZE + Long.numberOfTrailingZeros(word);
+
+    return Math.min(seat, seatsInRow);
+  }
+
+  private int claimRun(int row, int firstSeat, int seatCount) {
+    int endSeat = firstSeat + seatCount;
+
+    for (int seat = firstSeat; seat < endSeat; seat = (seat | 63) + 1) {
+      int wordIndex = getWordIndex(row, seat);
+      long runMask = getRunMask(seat, Math.min(endSeat, (seat | 63) + 1));
+
+      if (!claim(wordIndex, runMask)) {
+        long blocked = words.get(wordIndex) & runMask;
+
+        release(row, firstSeat, seat);
+
+        return blocked == 0
+            ? firstSeat - 1
+            : (seat & ~63) + Long.SIZE - 1 - Long.numberOfLeadingZeros(blocked);
+      }
+    }
+
+    return NOT_FOUND;
+  }
+
+  private void release(int row, int firstSeat, int endSeat) {
+    AtomicLongArray writableWords = getWritableWords();
+
+    for (int seat = firstSeat; seat < endSeat; seat = (seat | 63) + 1) {
+      long runMask = getRunMask(seat, Math.min(endSeat, (seat | 63) + 1));
+      int wordIndex = getWordIndex(row, seat);
+      long current;
+
+      do {
+        current = writableWords.get(wordIndex);
+      } while (!writableWords.compareAndSet(wordIndex, current, current & ~runMask));
+    }
+  }
+
+  private boolean claim(int wordIndex, long seatMask) {
+    AtomicLongArray writableWords = getWritableWords();
+
+    while (true) {
+      long current = writableWords.get(wordIndex);
+
+      if ((current & seatMask) != 0) {
+        return false;
+      }
+
+      if (writableWords.compareAndSet(wordIndex, current, current | seatMask)) {
+        return true;
+      }
+    }
+  }
+
+  private AtomicLongArray getWritableWords() {
+    if (shared) {
+      copySharedWords();
+    }
+
+    return words;
+  }
+
+  private synchronized void copySharedWords() {
+    if (shared) {
+      AtomicLongArray sharedWords = words;
+      AtomicLongArray copy = new AtomicLongArray(sharedWords.length());
+
+      for (int i = 0; i < copy.length(); i++) {
+        copy.set(i, sharedWords.get(i));
+      }
+
+      words = copy;
+      shared = false;
+    }
+  }
+
+  private int getWordIndex(int row, int seat) {
+    return row * wordsPerRow + (seat >>> 6);
+  }
+
+  private static long getRunMask(int fromSeat, int toSeat) {
+    return -1L >>> (Long.SIZE - (toSeat - fromSeat)) << fromSeat;
+  }
+}
@@ -0,0 +1,76 @@
+package cinema;
+
+import java.util.Random;
+
+public class SeatMapCheck {
+  private static final String PROPERTY_PREFIX = "check.";
+  private static final int MAX_ROWS = 12;
+  private static final int MAX_SEATS_IN_ROW = 200;
+
+  public static void main(String[] args) {
+    long seed = Long.parseLong(getProperty("seed", "42"));
+    int halls = Integer.parseInt(getProperty("halls", "1000"));
+    Random random = new Random(seed);
+
+    for (int hall = 0; hall < halls; hall++) {
+      int rows = 1 + random.nextInt(MAX_ROWS);
+      int seatsInRow = 1 + random.nextInt(MAX_SEATS_IN_ROW);
+      String mismatch = compare(rows, seatsInRow, random);
+
+      if (mismatch != null) {
+        System.out.printf("Hall %d (%dx%d, seed %d): %s%n", hall, rows, seatsInRow, seed, mismatch);
+        System.exit(1);
+      }
+    }
+
+    System.out.printf("SeatMap matched the reference model in %d random halls%n", halls);
+  }
+
+  static String compare(int rows, int seatsInRow, Random random) {
+    SeatMap seatMap = new SeatMap(rows, seatsInRow);
+    boolean[][] booked = new boolean[rows][seatsInRow];
+    int operations = rows * seatsInRow * 4;
+
+    for (int operation = 0; operation < operations; operation++) {
+      int row = random.nextInt(rows + 2) - 1;
+      int seat = random.nextInt(seatsInRow + 2) - 1;
+      boolean inside = row >= 0 && row < rows && seat >= 0 && seat < seatsInRow;
+
+      if (seatMap.contains(row, seat) != inside) {
+        return "contains(" + row + ", " + seat + ") should be " + inside;
+      }
+
+      if (!inside) {
+        continue;
+      }
+
+      if (random.nextInt(3) == 0) {
+        if (seatMap.cancel(row, seat) != booked[row][seat]) {
+          return "cancel(" + row + ", " + seat + ") should be " + booked[row][seat];
+        }
+
+        booked[row][seat] = false;
+      } else {
+        if (seatMap.book(row, seat) == booked[row][seat]) {
+          return "book(" + row + ", " + seat + ") should be " + !booked[row][seat];
+        }
+
+        booked[row][seat] = true;
+      }
+    }
+
+    for (int row = 0; row < rows; row++) {
+      for (int seat = 0; seat < seatsInRow; seat++) {
+        if (seatMap.isBooked(row, seat) != booked[row][seat]) {
+          return "isBooked(" + row + ", " + seat + ") should be " + booked[row][seat];
+        }
+      }
+    }
+
+    return null;
+  }
+
+  private static String getProperty(String name, String defaultValue) {
+    return System.getProperty(PROPERTY_PREFIX + name, defaultValue);
+  }
+}
@@ -0,0 +1,229 @@
+package machine;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+public class ShardedCoffeeMachineService implements Closeable {
+  public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+  private final RecipeCatalog recipeCatalog;
+  private final int virtualNodes;
+  private final Map<String, CoffeeMachine> machines = new ConcurrentHashMap<>();
+  private final StampedLock routingLock = new StampedLock();
+  private volatile Topology topology;
+
+  public ShardedCoffeeMachineService(
+      RecipeCatalog recipeCatalog, int shardCount, int virtualNodes) {
+    if (shardCount < 1) {
+      throw new IllegalArgumentException("The service needs at least one shard");
+    }
+
+    MachineShard[] shards = new MachineShard[shardCount];
+
+    for (int shard = 0; shard < shardCount; shard++) {
+      shards[shard] = new MachineShard(shard);
+    }
+
+    this.recipeCatalog = recipeCatalog;
+    this.virtualNodes = virtualNodes;
+    this.topology = new Topology(shards, new ConsistentHashRing(shardCount, virtualNodes));
+  }
+
+  public synchronized CompletableFuture<Void> addMachine(String machineId, Inventory inventory) {
+    CoffeeMachine coffeeMachine = new CoffeeMachine(recipeCatalog, inventory);
+
+    if (machines.putIfAbsent(machineId, coffeeMachine) != null) {
+      throw new IllegalArgumentException("Machine " + machineId + " already exists");
+    }
+
+    CompletableFuture<Void> registered = new CompletableFuture<>();
+    MachineShard shard = topology.route(machineId);
+
+    shard.execute(
+        () -> {
+          shard.putMachine(machineId, coffeeMachine);
+          registered.complete(null);
+        });
+
+    return registered;
+  }
+
+  public CompletableFuture<OrderOutcome> order(String machineId, Recipe recipe) {
+    return submit(machineId, coffeeMachine -> coffeeMachine.order(recipe));
+  }
+
+  public CompletableFuture<Void> refill(String machineId, int[] amountsToAdd) {
+    return submit(
+        machineId,
+        coffeeMachine -> {
+          coffeeMachine.refill(amountsToAdd);
+
+          return null;
+        });
+  }
+
+  public CompletableFuture<Long> collectCash(String machineId) {
+    return submit(machineId, CoffeeMachine::collectCash);
+  }
+
+  public synchronized int addShard() {
+    Topology current = topology;
+    int newShardIndex = current.shards.length;
+    MachineShard newShard = new MachineShard(newShardIndex);
+    MachineShard[] shards = Arrays.copyOf(current.shards, newShardIndex + 1);
+    ConsistentHashRing ring = new ConsistentHashRing(newShardIndex + 1, virtualNodes);
+    List<String> movedMachineIds = new ArrayList<>();
+
+    shards[newShardIndex] = newShard;
+
+    for (String machineId : machines.keySet()) {
+      if (ring.getShard(machineId) != current.ring.getShard(machineId)) {
+        movedMachineIds.add(machineId);
+      }
+    }
+
+    // The new shard holds back operations on a moved machine until the old shard has run every
+    // operation routed to it before the switch, so each machine sees its operations in order.
+    newShard.execute(
+        () -> {
+          for (String machineId : movedMachineIds) {
+            newShard.awaitHandover(machineId);
+          }
+        });
+
+    long stamp = routingLock.writeLock();
+
+    try {
+      topology = new Topology(shards, ring);
+
+      for (String machineId : movedMachineIds) {
+        MachineShard previousShard = current.route(machineId);
+        CoffeeMachine coffeeMachine = machines.get(machineId);
+
+        previousShard.execute(
+            () -> {
+              previousShard.removeMachine(machineId);
+              newShard.execute(() -> newShard.completeHandover(machineId, coffeeMachine));
+            });
+      }
+    } finally {
+      routingLock.unlockWrite(stamp);
+    }
+
+    return movedMachineIds.size();
+  }
+
+  public int getShardCount() {
+    return topology.shards.length;
+  }
+
+  public int getShardOf(String machineId) {
+    return topology.ring.getShard(machineId);
+  }
+
+  public int getMachineCount() {
+    return machines.size();
+  }
+
+  public Inventory snapshot(String machineId) {
+    CoffeeMachine coffeeMachine = machines.get(machineId);
+
+    return coffeeMachine == null ? null : coffeeMachine.snapshot();
+  }
+
+  public long calculateTotalCash() {
+    long totalCash = 0;
+
+    for (CoffeeMachine coffeeMachine : machines.values()) {
+      totalCash += coffeeMachine.snapshot().getCash();
+    }
+
+    return totalCash;
+  }
+
+  public List<String> findLowStockMachines(Resource resource, int threshold) {
+    List<String> lowStockMachines = new ArrayList<>();
+
+    for (Map.Entry<String, CoffeeMachine> machine : machines.entrySet()) {
+      if (machine.getValue().snapshot().getLeft(resource) < threshold) {
+        lowStockMachines.add(machine.getKey());
+      }
+    }
+
+    return lowStockMachines;
+  }
+
+  @Override
+  public synchronized void close() {
+    for (MachineShard shard : topology.shards) {
+      try {
+        shard.stop();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+
+        return;
+      }
+    }
+  }
+
+  private <T> CompletableFuture<T> submit(String machineId, Function<CoffeeMachine, T> operation) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    long stamp = routingLock.readLock();
+
+    try {
+      MachineShard shard = topology.route(machineId);
+
+      shard.execute(() -> execute(shard, machineId, operation, result));
+    } finally {
+      routingLock.unlockRead(stamp);
+    }
+
+    return result;
+  }
+
+  private <T> void execute(
+      MachineShard shard,
+      String machineId,
+      Function<CoffeeMachine, T> operation,
+      CompletableFuture<T> result) {
+    if (shard.deferUntilHandover(
+        machineId, () -> execute(shard, machineId, operation, result))) {
+      return;
+    }
+
+    CoffeeMachine coffeeMachine = shard.getMachine(machineId);
+
+    if (coffeeMachine == null) {
+      result.completeExceptionally(new IllegalArgumentException("Unknown machine " + machineId));
+
+      return;
+    }
+
+    try {
+      result.complete(operation.apply(coffeeMachine));
+    } catch (RuntimeException e) {
+      result.completeExceptionally(e);
+    }
+  }
+
+  private static final class Topology {
+    private final MachineShard[] shards;
+    private final ConsistentHashRing ring;
+
+    private Topology(MachineShard[] shards, ConsistentHashRing ring) {
+      this.shards = shards;
+      this.ring = ring;
+    }
+
+    private MachineShard route(String machineId) {
+      return shards[ring.getShard(machineId)];
+    }
+  }
+}
@@ -0,0 +1,206 @@
+package machine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+final class SimulatedWorkload {
+  static final byte BUY = 0;
+  static final byte FILL = 1;
+  static final byte TAKE = 2;
+
+  private static final String BUY_COMMAND = "buy";
+  private static final String FILL_COMMAND = "fill";
+  private static final String TAKE_COMMAND = "take";
+
+  private final long[] arrivalMillis;
+  private final byte[] operations;
+  private final int[] arguments;
+  private final int[][] fills;
+
+  private SimulatedWorkload(
+      long[] arrivalMillis, byte[] operations, int[] arguments, int[][] fills) {
+    this.arrivalMillis = arrivalMillis;
+    this.operations = operations;
+    this.arguments = arguments;
+    this.fills = fills;
+  }
+
+  static SimulatedWorkload generate(
+      RecipeCatalog recipeCatalog,
+      String mix,
+      String arrivals,
+      int[] fillAmounts,
+      int size,
+      long seed) {
+    String[] mixEntries = mix.split(",");
+    byte[] mixOperations = new byte[mixEntries.length];
+    int[] mixArguments = new int[mixEntries.length];
+    double[] cumulativeWeights = new double[mixEntries.length];
+    double totalWeight = 0;
+
+    for (int i = 0; i < mixEntries.length; i++) {
+      String[] entry = mixEntries[i].trim().split(":");
+      String name = entry[0].trim();
+
+      if (name.equals(FILL_COMMAND)) {
+        mixOperations[i] = FILL;
+      } else if (name.equals(TAKE_COMMAND)) {
+        mixOperations[i] = TAKE;
+      } else {
+        mixOperations[i] = BUY;
+        mixArguments[i] = findRecipe(recipeCatalog, name).getId();
+      }
+
+      totalWeight += Double.parseDouble(entry[1].trim());
+      cumulativeWeights[i] = totalWeight;
+    }
+
+    String[] arrivalSettings = arrivals.split(":");
+    boolean poisson = arrivalSettings[0].trim().equals("poisson");
+    double meanGapMillis = Double.parseDouble(arrivalSettings[1].trim());
+    SplittableRandom random = new SplittableRandom(seed);
+    long[] arrivalMillis = new long[size];
+    byte[] operations = new byte[size];
+    int[] arguments = new int[size];
+    double time = 0;
+
+    for (int i = 0; i < size; i++) {
+      double weight = random.nextDouble() * totalWeight;
+      int entry = 0;
+
+      while (entry < cumulativeWeights.length - 1 && weight >= cumulativeWeights[entry]) {
+        entry++;
+      }
+
+      time += poisson ? -Math.log(1 - random.nextDouble()) * meanGapMillis : meanGapMillis;
+      arrivalMillis[i] = (long) time;
+      operations[i] = mixOperations[entry];
+      arguments[i] = mixArguments[entry];
+    }
+
+    return new SimulatedWorkload(arrivalMillis, operations, arguments, new int[][] {fillAmounts});
+  }
+
+  static SimulatedWorkload read(Path path, RecipeCatalog recipeCatalog) throws IOException {
+    List<String> lines = Files.readAllLines(path);
+    List<int[]> fills = new ArrayList<>();
+    long[] arrivalMillis = new long[lines.size()];
+    byte[] operations = new byte[lines.size()];
+    int[] arguments = new int[lines.size()];
+    int size = 0;
+
+    for (String line : lines) {
+      String[] fields = line.trim().split("\\s+");
+
+      if (fields[0].isEmpty() || fields[0].startsWith("#")) {
+        continue;
+      }
+
+      arrivalMillis[size] = Long.parseLong(fields[0]);
+
+      switch (fields[1]) {
+        case BUY_COMMAND:
+          operations[size] = BUY;
+          arguments[size] = Integer.parseInt(fields[2]);
+
+          if (recipeCatalog.getRecipe(arguments[size]) == null) {
+            throw new IllegalArgumentException("Unknown recipe in workload: " + line);
+          }
+
+          break;
+        case FILL_COMMAND:
+          int[] amountsToAdd = new int[fields.length - 2];
+
+          for (int i = 0; i < amountsToAdd.length; i++) {
+            amountsToAdd[i] = Integer.parseInt(fields[i + 2]);
+          }
+
+          operations[size] = FILL;
+          arguments[size] = fills.size();
+          fills.add(amountsToAdd);
+
+          break;
+        case TAKE_COMMAND:
+          operations[size] = TAKE;
+
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown operation in workload: " + line);
+      }
+
+      size++;
+    }
+
+    return new SimulatedWorkload(
+        Arrays.copyOf(arrivalMillis, size),
+        Arrays.copyOf(operations, size),
+        Arrays.copyOf(arguments, size),
+        fills.toArray(new int[0][]));
+  }
+
+  void write(Path path) throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+      for (int i = 0; i < operations.length; i++) {
+        writer.write(Long.toString(arrivalMillis[i]));
+        writer.write(' ');
+
+        switch (operations[i]) {
+          case BUY:
+            writer.write(BUY_COMMAND + " " + arguments[i]);
+
+            break;
+          case FILL:
+            writer.write(FILL_COMMAND);
+
+            for (int amountToAdd : fills[arguments[i]]) {
+              writer.write(" " + amountToAdd);
+            }
+
+            break;
+          default:
+            writer.write(TAKE_COMMAND);
+
+            break;
+        }
+
+        writer.newLine();
+      }
+    }
+  }
+
+  int size() {
+    return operations.length;
+  }
+
+  long getArrivalMillis(int index) {
+    return arrivalMillis[index];
+  }
+
+  byte getOperation(int index) {
+    return operations[index];
+  }
+
+  int getRecipeId(int index) {
+    return arguments[index];
+  }
+
+  int[] getFill(int index) {
+    return fills[arguments[index]];
+  }
+
+  private static Recipe findRecipe(RecipeCatalog recipeCatalog, String name) {
+    for (Recipe recipe : recipeCatalog.getPublishedRecipes()) {
+      if (recipe.getName().equals(name)) {
+        return recipe;
+      }
+    }
+
+    throw new IllegalArgumentException("Unknown recipe in mix: " + name);
+  }
+}
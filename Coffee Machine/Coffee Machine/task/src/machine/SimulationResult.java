@@ -0,0 +1,95 @@
+package machine;
+
+import java.io.IOException;
+
+public final class SimulationResult {
+  private final long operations;
+  private final long elapsedNanos;
+  private final long allocatedBytes;
+  private final long completedOrders;
+  private final long[] rejectionsByResource;
+  private final Resource[] resources;
+  private final int statusReaders;
+  private final long statusReads;
+
+  SimulationResult(
+      long operations,
+      long elapsedNanos,
+      long allocatedBytes,
+      long completedOrders,
+      long[] rejectionsByResource,
+      Resource[] resources,
+      int statusReaders,
+      long statusReads) {
+    this.operations = operations;
+    this.elapsedNanos = elapsedNanos;
+    this.allocatedBytes = allocatedBytes;
+    this.completedOrders = completedOrders;
+    this.rejectionsByResource = rejectionsByResource;
+    this.resources = resources;
+    this.statusReaders = statusReaders;
+    this.statusReads = statusReads;
+  }
+
+  public long getOperations() {
+    return operations;
+  }
+
+  public long getCompletedOrders() {
+    return completedOrders;
+  }
+
+  public long getRejections(Resource resource) {
+    int index = resource.getIndex();
+
+    return index < rejectionsByResource.length ? rejectionsByResource[index] : 0;
+  }
+
+  public double getNanosPerOperation() {
+    return operations == 0 ? 0 : (double) elapsedNanos / operations;
+  }
+
+  public double getBytesPerOperation() {
+    return operations == 0 || allocatedBytes < 0 ? 0 : (double) allocatedBytes / operations;
+  }
+
+  public double getOperationsPerSecond() {
+    return elapsedNanos == 0 ? 0 : operations * 1e9 / elapsedNanos;
+  }
+
+  public long getStatusReads() {
+    return statusReads;
+  }
+
+  public void writeTo(Appendable out) throws IOException {
+    long orders = completedOrders;
+
+    for (long rejections : rejectionsByResource) {
+      orders += rejections;
+    }
+
+    out.append(String.format("operations: %d%n", operations));
+    out.append(String.format("operations/s: %.0f%n", getOperationsPerSecond()));
+    out.append(String.format("ns/operation: %.1f%n", getNanosPerOperation()));
+    out.append(String.format("bytes/operation: %.1f%n", getBytesPerOperation()));
+    out.append(String.format("completed orders: %d%n", completedOrders));
+
+    if (statusReaders > 0) {
+      out.append(
+          String.format(
+              "status reads/s with %d readers: %.0f%n",
+              statusReaders, elapsedNanos == 0 ? 0 : statusReads * 1e9 / elapsedNanos));
+    }
+
+    for (Resource resource : resources) {
+      if (resource != null) {
+        long rejections = getRejections(resource);
+
+        out.append(
+            String.format(
+                "rejected for %s: %d (%.2f%%)%n",
+                resource.getName(), rejections, orders == 0 ? 0 : rejections * 100.0 / orders));
+      }
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package cinema;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+final class StatisticsCounter {
+  private final AtomicReference<BookingStatistics> statistics;
+  private final StatisticsCounter parent;
+
+  StatisticsCounter(BookingStatistics initialStatistics, StatisticsCounter parent) {
+    this.statistics = new AtomicReference<>(initialStatistics);
+    this.parent = parent;
+
+    if (parent != null) {
+      parent.update(current -> current.plus(initialStatistics));
+    }
+  }
+
+  BookingStatistics snapshot() {
+    return statistics.get();
+  }
+
+  void recordSoldTickets(SeatZone zone, int tickets) {
+    update(current -> current.withSoldTickets(zone, tickets));
+
+    if (parent != null) {
+      parent.recordSoldTickets(zone, tickets);
+    }
+  }
+
+  private void update(UnaryOperator<BookingStatistics> transition) {
+    while (true) {
+      BookingStatistics current = statistics.get();
+
+      if (statistics.compareAndSet(current, transition.apply(current))) {
+        return;
+      }
+
+      Thread.onSpinWait();
+    }
+  }
+}
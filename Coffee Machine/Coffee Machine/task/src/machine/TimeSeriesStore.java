@@ -0,0 +1,625 @@
+package machine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Stores per-machine inventory history as compressed column chunks in a memory-mapped file.
+ *
+ * <p>Only full chunks of {@value #POINTS_PER_CHUNK} points are sealed. The points of a series'
+ * open chunk are also written uncompressed to that series' slot in a tail file, which recovery
+ * replays, so a crash loses no acknowledged point and a quiet machine does not pay for a chunk
+ * header per handful of points. Chunks and tail records carry a CRC32C, and reopening truncates
+ * the chunk file at the first chunk that does not check out, so a torn seal is dropped and its
+ * points are sealed again from the tail.
+ */
+public class TimeSeriesStore implements Closeable {
+  static final int POINTS_PER_CHUNK = 2048;
+
+  private static final String DATA_FILE = "timeseries.dat";
+  private static final String TAIL_FILE = "timeseries.tail";
+  private static final int REGION_SIZE = 64 << 20;
+  private static final int SKIP_MARKER = -1;
+  private static final int CHECKSUM_OFFSET = 4;
+  private static final int SERIES_OFFSET = 8;
+  private static final int POINT_COUNT_OFFSET = 12;
+  private static final int COLUMN_COUNT_OFFSET = 16;
+  private static final int CHUNK_NUMBER_OFFSET = 20;
+  private static final int START_OFFSET = 24;
+  private static final int END_OFFSET = 32;
+  private static final int CHUNK_HEADER_SIZE = 40;
+  private static final int TIMESTAMP_OFFSET = 8;
+  private static final int TAIL_VALUES_OFFSET = 16;
+  private static final ThreadLocal<CRC32C> CHECKSUMS = ThreadLocal.withInitial(CRC32C::new);
+
+  private final int columnCount;
+  private final int streamsOffset;
+  private final int tailRecordSize;
+  private final int tailSlotsPerRegion;
+  private final MappedFile data;
+  private final MappedFile tail;
+  private final Object allocationLock = new Object();
+  private volatile Series[] series = new Series[0];
+  private long appendPosition;
+
+  private TimeSeriesStore(Path directory, int columnCount) throws IOException {
+    this.columnCount = columnCount;
+    this.streamsOffset =
+        ((CHUNK_HEADER_SIZE + Integer.BYTES * (columnCount + 1) + 7) & ~7)
+            + Long.BYTES * 3 * columnCount;
+    this.tailRecordSize = TAIL_VALUES_OFFSET + Long.BYTES * columnCount;
+    this.tailSlotsPerRegion = REGION_SIZE / (POINTS_PER_CHUNK * tailRecordSize);
+
+    if (columnCount < 0 || tailSlotsPerRegion == 0) {
+      throw new IllegalArgumentException("Unsupported column count: " + columnCount);
+    }
+
+    Files.createDirectories(directory);
+
+    this.data = new MappedFile(directory.resolve(DATA_FILE));
+    this.tail = new MappedFile(directory.resolve(TAIL_FILE));
+    this.appendPosition = scan(data.size());
+    discardTail(appendPosition);
+    replayTail(tail.size());
+  }
+
+  public static TimeSeriesStore open(Path directory, int columnCount) throws IOException {
+    return new TimeSeriesStore(directory, columnCount);
+  }
+
+  public int getColumnCount() {
+    return columnCount;
+  }
+
+  long getSealedBytes() {
+    synchronized (allocationLock) {
+      return appendPosition;
+    }
+  }
+
+  public void append(int seriesId, long timestampMillis, long[] values) {
+    Series target = getSeries(seriesId);
+
+    synchronized (target) {
+      long timestamp = Math.max(timestampMillis, target.endMillis);
+
+      writeTailRecord(target, timestamp, values);
+      addPoint(target, timestamp, values);
+    }
+  }
+
+  public DownsampledSeries query(
+      int seriesId, int column, long fromMillis, long toMillis, long bucketMillis) {
+    if (column < 0 || column >= columnCount) {
+      throw new IllegalArgumentException("Unknown column: " + column);
+    }
+
+    if (bucketMillis <= 0 || toMillis < fromMillis) {
+      throw new IllegalArgumentException("Invalid query range");
+    }
+
+    long buckets = (toMillis - fromMillis + bucketMillis - 1) / bucketMillis;
+
+    if (buckets > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Too many buckets: " + buckets);
+    }
+
+    DownsampledSeries result = new DownsampledSeries(fromMillis, bucketMillis, (int) buckets);
+    Series[] currentSeries = series;
+
+    if (seriesId < 0 || seriesId >= currentSeries.length || currentSeries[seriesId] == null) {
+      return result;
+    }
+
+    Series source = currentSeries[seriesId];
+    long[] chunkPositions;
+    long[] chunkStarts;
+    int chunkCount;
+
+    synchronized (source) {
+      chunkPositions = source.chunkPositions;
+      chunkStarts = source.chunkStarts;
+      chunkCount = source.chunkCount;
+    }
+
+    int chunk = findFirstChunk(chunkStarts, chunkCount, fromMillis);
+
+    if (readChunks(chunkPositions, chunk, chunkCount, column, result, toMillis)) {
+      return result;
+    }
+
+    synchronized (source) {
+      if (readChunks(
+          source.chunkPositions, chunkCount, source.chunkCount, column, result, toMillis)) {
+        return result;
+      }
+
+      if (source.pointCount > 0 && source.startMillis < toMillis) {
+        readOpenChunk(source, column, result, toMillis);
+      }
+    }
+
+    return result;
+  }
+
+  public void flush() {
+    data.force();
+    tail.force();
+  }
+
+  @Override
+  public void close() throws IOException {
+    flush();
+
+    try {
+      data.close();
+    } finally {
+      tail.close();
+    }
+  }
+
+  private Series getSeries(int seriesId) {
+    Series[] currentSeries = series;
+
+    if (seriesId < currentSeries.length && currentSeries[seriesId] != null) {
+      return currentSeries[seriesId];
+    }
+
+    return createSeries(seriesId);
+  }
+
+  private synchronized Series createSeries(int seriesId) {
+    if (seriesId < 0) {
+      throw new IllegalArgumentException("Series id must not be negative: " + seriesId);
+    }
+
+    Series[] currentSeries = series;
+
+    if (seriesId >= currentSeries.length) {
+      currentSeries = Arrays.copyOf(currentSeries, Math.max(seriesId + 1, currentSeries.length * 2));
+    }
+
+    if (currentSeries[seriesId] == null) {
+      currentSeries[seriesId] = new Series(seriesId, columnCount);
+    }
+
+    series = currentSeries;
+
+    return currentSeries[seriesId];
+  }
+
+  private void addPoint(Series target, long timestamp, long[] values) {
+    if (target.pointCount == 0) {
+      target.startMillis = timestamp;
+    }
+
+    target.endMillis = timestamp;
+    target.encoders[0].append(timestamp);
+
+    for (int column = 0; column < columnCount; column++) {
+      long value = column < values.length ? values[column] : 0;
+
+      target.encoders[column + 1].append(value);
+      target.minimums[column] =
+          target.pointCount == 0 ? value : Math.min(target.minimums[column], value);
+      target.maximums[column] =
+          target.pointCount == 0 ? value : Math.max(target.maximums[column], value);
+      target.lasts[column] = value;
+    }
+
+    if (++target.pointCount == POINTS_PER_CHUNK) {
+      seal(target);
+    }
+  }
+
+  private void writeTailRecord(Series target, long timestamp, long[] values) {
+    long position = getTailPosition(target.id, target.pointCount);
+    ByteBuffer region = tail.getRegion(position);
+    int offset = (int) (position % REGION_SIZE);
+
+    region.putLong(offset + TIMESTAMP_OFFSET, timestamp);
+
+    for (int column = 0; column < columnCount; column++) {
+      region.putLong(
+          offset + TAIL_VALUES_OFFSET + Long.BYTES * column,
+          column < values.length ? values[column] : 0);
+    }
+
+    region.putInt(
+        offset + CHECKSUM_OFFSET,
+        checksum(region, offset + TIMESTAMP_OFFSET, offset + tailRecordSize, target.chunkCount));
+    region.putInt(offset, target.chunkCount);
+  }
+
+  private void replayTail(long limit) {
+    long[] values = new long[columnCount];
+
+    for (long regionStart = 0; regionStart < limit; regionStart += REGION_SIZE) {
+      for (int slot = 0; slot < tailSlotsPerRegion; slot++) {
+        int seriesId = (int) (regionStart / REGION_SIZE * tailSlotsPerRegion + slot);
+        Series[] currentSeries = series;
+        int chunkNumber =
+            seriesId < currentSeries.length && currentSeries[seriesId] != null
+                ? currentSeries[seriesId].chunkCount
+                : 0;
+
+        for (int point = 0; point < POINTS_PER_CHUNK; point++) {
+          long position = getTailPosition(seriesId, point);
+          ByteBuffer region = tail.getRegion(position);
+          int offset = (int) (position % REGION_SIZE);
+
+          if (region.getInt(offset) != chunkNumber
+              || region.getInt(offset + CHECKSUM_OFFSET)
+                  != checksum(
+                      region, offset + TIMESTAMP_OFFSET, offset + tailRecordSize, chunkNumber)) {
+            break;
+          }
+
+          for (int column = 0; column < columnCount; column++) {
+            values[column] = region.getLong(offset + TAIL_VALUES_OFFSET + Long.BYTES * column);
+          }
+
+          addPoint(getSeries(seriesId), region.getLong(offset + TIMESTAMP_OFFSET), values);
+        }
+      }
+    }
+  }
+
+  private long getTailPosition(int seriesId, int point) {
+    return (long) (seriesId / tailSlotsPerRegion) * REGION_SIZE
+        + ((long) (seriesId % tailSlotsPerRegion) * POINTS_PER_CHUNK + point) * tailRecordSize;
+  }
+
+  private void seal(Series source) {
+    int chunkSize = streamsOffset;
+
+    for (ColumnEncoder encoder : source.encoders) {
+      chunkSize += encoder.getByteLength();
+    }
+
+    chunkSize = (chunkSize + 7) & ~7;
+
+    long position = allocate(chunkSize);
+    ByteBuffer region = data.getRegion(position);
+    int offset = (int) (position % REGION_SIZE);
+    int header = offset + CHUNK_HEADER_SIZE;
+    int stream = offset + streamsOffset;
+
+    region.putInt(offset + SERIES_OFFSET, source.id);
+    region.putInt(offset + POINT_COUNT_OFFSET, source.pointCount);
+    region.putInt(offset + COLUMN_COUNT_OFFSET, columnCount);
+    region.putInt(offset + CHUNK_NUMBER_OFFSET, source.chunkCount);
+    region.putLong(offset + START_OFFSET, source.startMillis);
+    region.putLong(offset + END_OFFSET, source.endMillis);
+
+    for (ColumnEncoder encoder : source.encoders) {
+      region.putInt(header, encoder.getByteLength());
+      encoder.copyTo(region, stream);
+      header += Integer.BYTES;
+      stream += encoder.getByteLength();
+      encoder.reset();
+    }
+
+    header = offset + streamsOffset - Long.BYTES * 3 * columnCount;
+
+    for (int column = 0; column < columnCount; column++) {
+      region.putLong(header, source.minimums[column]);
+      region.putLong(header + 8, source.maximums[column]);
+      region.putLong(header + 16, source.lasts[column]);
+      header += Long.BYTES * 3;
+    }
+
+    region.putInt(
+        offset + CHECKSUM_OFFSET,
+        checksum(region, offset + SERIES_OFFSET, offset + chunkSize, chunkSize));
+    region.putInt(offset, chunkSize);
+    source.addChunk(position, source.startMillis);
+    source.pointCount = 0;
+  }
+
+  private long allocate(int chunkSize) {
+    synchronized (allocationLock) {
+      long position = appendPosition;
+      int offset = (int) (position % REGION_SIZE);
+
+      if (offset + chunkSize > REGION_SIZE) {
+        data.getRegion(position).putInt(offset, SKIP_MARKER);
+        position += REGION_SIZE - offset;
+      }
+
+      appendPosition = position + chunkSize;
+
+      return position;
+    }
+  }
+
+  private long scan(long limit) {
+    long position = 0;
+
+    while (position + CHUNK_HEADER_SIZE <= limit) {
+      ByteBuffer region = data.getRegion(position);
+      int offset = (int) (position % REGION_SIZE);
+      int chunkSize = region.getInt(offset);
+
+      if (chunkSize == SKIP_MARKER) {
+        position += REGION_SIZE - offset;
+
+        continue;
+      }
+
+      if (chunkSize < streamsOffset
+          || (chunkSize & 7) != 0
+          || chunkSize > REGION_SIZE - offset
+          || region.getInt(offset + CHECKSUM_OFFSET)
+              != checksum(region, offset + SERIES_OFFSET, offset + chunkSize, chunkSize)) {
+        break;
+      }
+
+      if (region.getInt(offset + COLUMN_COUNT_OFFSET) != columnCount) {
+        throw new IllegalStateException(
+            "Time series chunk at "
+                + position
+                + " has "
+                + region.getInt(offset + COLUMN_COUNT_OFFSET)
+                + " columns");
+      }
+
+      int seriesId = region.getInt(offset + SERIES_OFFSET);
+      int pointCount = region.getInt(offset + POINT_COUNT_OFFSET);
+
+      if (seriesId < 0 || pointCount <= 0 || pointCount > POINTS_PER_CHUNK) {
+        break;
+      }
+
+      Series target = getSeries(seriesId);
+
+      if (region.getInt(offset + CHUNK_NUMBER_OFFSET) != target.chunkCount) {
+        break;
+      }
+
+      target.addChunk(position, region.getLong(offset + START_OFFSET));
+      target.endMillis = region.getLong(offset + END_OFFSET);
+      position += chunkSize;
+    }
+
+    return position;
+  }
+
+  private void discardTail(long position) throws IOException {
+    long dataSize = data.size();
+
+    for (position -= position % Long.BYTES; position < dataSize; position += Long.BYTES) {
+      ByteBuffer region = data.getRegion(position);
+      int offset = (int) (position % REGION_SIZE);
+
+      if (region.getLong(offset) != 0) {
+        region.putLong(offset, 0);
+      }
+    }
+  }
+
+  private static int checksum(ByteBuffer region, int from, int to, int seed) {
+    CRC32C checksum = CHECKSUMS.get();
+    ByteBuffer bytes = region.duplicate();
+
+    bytes.limit(to);
+    bytes.position(from);
+    checksum.reset();
+    checksum.update(bytes);
+
+    for (int shift = 24; shift >= 0; shift -= 8) {
+      checksum.update(seed >>> shift);
+    }
+
+    return (int) checksum.getValue();
+  }
+
+  private boolean readChunks(
+      long[] chunkPositions,
+      int fromChunk,
+      int toChunk,
+      int column,
+      DownsampledSeries result,
+      long toMillis) {
+    for (int chunk = fromChunk; chunk < toChunk; chunk++) {
+      ByteBuffer region = data.getRegion(chunkPositions[chunk]);
+      int offset = (int) (chunkPositions[chunk] % REGION_SIZE);
+
+      if (region.getLong(offset + START_OFFSET) >= toMillis) {
+        return true;
+      }
+
+      readChunk(region, offset, column, result, toMillis);
+    }
+
+    return false;
+  }
+
+  private void readChunk(
+      ByteBuffer region, int offset, int column, DownsampledSeries result, long toMillis) {
+    int pointCount = region.getInt(offset + POINT_COUNT_OFFSET);
+    long startMillis = region.getLong(offset + START_OFFSET);
+    long endMillis = region.getLong(offset + END_OFFSET);
+    int aggregates = offset + streamsOffset - Long.BYTES * 3 * (columnCount - column);
+
+    if (startMillis >= result.getBucketStartMillis(0)
+        && endMillis < toMillis
+        && result.getBucket(startMillis) == result.getBucket(endMillis)) {
+      result.add(
+          result.getBucket(startMillis),
+          pointCount,
+          region.getLong(aggregates),
+          region.getLong(aggregates + 8),
+          region.getLong(aggregates + 16));
+
+      return;
+    }
+
+    int valueStream = offset + streamsOffset;
+
+    for (int stream = 0; stream <= column; stream++) {
+      valueStream += region.getInt(offset + CHUNK_HEADER_SIZE + Integer.BYTES * stream);
+    }
+
+    decode(
+        new ColumnDecoder(region, offset + streamsOffset),
+        new ColumnDecoder(region, valueStream),
+        pointCount,
+        result,
+        toMillis);
+  }
+
+  private void readOpenChunk(
+      Series source, int column, DownsampledSeries result, long toMillis) {
+    decode(
+        source.encoders[0].decoder(),
+        source.encoders[column + 1].decoder(),
+        source.pointCount,
+        result,
+        toMillis);
+  }
+
+  private static void decode(
+      ColumnDecoder timestamps,
+      ColumnDecoder values,
+      int pointCount,
+      DownsampledSeries result,
+      long toMillis) {
+    long fromMillis = result.getBucketStartMillis(0);
+
+    for (int point = 0; point < pointCount; point++) {
+      long timestamp = timestamps.next();
+      long value = values.next();
+
+      if (timestamp >= toMillis) {
+        return;
+      }
+
+      if (timestamp >= fromMillis) {
+        result.add(result.getBucket(timestamp), value);
+      }
+    }
+  }
+
+  private static int findFirstChunk(long[] chunkStarts, int chunkCount, long fromMillis) {
+    int low = 0;
+    int high = chunkCount;
+
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+
+      if (chunkStarts[middle] <= fromMillis) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    return Math.max(low - 1, 0);
+  }
+
+  private static final class Series {
+    private final int id;
+    private final ColumnEncoder[] encoders;
+    private final long[] minimums;
+    private final long[] maximums;
+    private final long[] lasts;
+    private long[] chunkPositions = new long[16];
+    private long[] chunkStarts = new long[16];
+    private int chunkCount;
+    private int pointCount;
+    private long startMillis;
+    private long endMillis = Long.MIN_VALUE;
+
+    private Series(int id, int columnCount) {
+      this.id = id;
+      this.encoders = new ColumnEncoder[columnCount + 1];
+      this.minimums = new long[columnCount];
+      this.maximums = new long[columnCount];
+      this.lasts = new long[columnCount];
+
+      for (int i = 0; i < encoders.length; i++) {
+        encoders[i] = new ColumnEncoder();
+      }
+    }
+
+    private void addChunk(long position, long startMillis) {
+      if (chunkCount == chunkPositions.length) {
+        chunkPositions = Arrays.copyOf(chunkPositions, chunkCount * 2);
+        chunkStarts = Arrays.copyOf(chunkStarts, chunkCount * 2);
+      }
+
+      chunkPositions[chunkCount] = position;
+      chunkStarts[chunkCount] = startMillis;
+      chunkCount++;
+    }
+  }
+
+  private static final class MappedFile implements Closeable {
+    private final FileChannel channel;
+    private volatile MappedByteBuffer[] regions = new MappedByteBuffer[0];
+
+    private MappedFile(Path path) throws IOException {
+      this.channel =
+          FileChannel.open(
+              path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private long size() throws IOException {
+      return channel.size();
+    }
+
+    private MappedByteBuffer getRegion(long position) {
+      int regionIndex = (int) (position / REGION_SIZE);
+      MappedByteBuffer[] mappedRegions = regions;
+
+      if (regionIndex < mappedRegions.length) {
+        return mappedRegions[regionIndex];
+      }
+
+      return mapRegions(regionIndex);
+    }
+
+    private synchronized MappedByteBuffer mapRegions(int regionIndex) {
+      MappedByteBuffer[] mappedRegions = regions;
+
+      if (regionIndex < mappedRegions.length) {
+        return mappedRegions[regionIndex];
+      }
+
+      MappedByteBuffer[] grownRegions = Arrays.copyOf(mappedRegions, regionIndex + 1);
+
+      try {
+        for (int i = mappedRegions.length; i <= regionIndex; i++) {
+          grownRegions[i] =
+              channel.map(FileChannel.MapMode.READ_WRITE, (long) i * REGION_SIZE, REGION_SIZE);
+        }
+      } catch (IOException e) {
+        throw new IllegalStateException("Unable to map time series region " + regionIndex, e);
+      }
+
+      regions = grownRegions;
+
+      return grownRegions[regionIndex];
+    }
+
+    private void force() {
+      for (MappedByteBuffer region : regions) {
+        region.force();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+}
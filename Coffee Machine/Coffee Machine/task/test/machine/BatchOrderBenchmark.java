@@ -0,0 +1,73 @@
+package machine;
+
+class BatchOrderBenchmark extends Check {
+  private static final int STOCK = 1_000_000_000;
+
+  private final RecipeCatalog recipeCatalog = RecipeCatalog.createDefault();
+
+  @Override
+  void run() {
+    int cups = getIntProperty("cups", 3_000_000);
+    Recipe[] recipes = recipeCatalog.getRecipes();
+
+    report("single orders: %.1f ns/cup", measureNanosPerOperation(cups, () -> orderSingly(cups)));
+
+    for (int batchSize : new int[] {3, 30, 300}) {
+      OrderBatch orderBatch = new OrderBatch();
+
+      for (Recipe recipe : recipes) {
+        orderBatch.add(recipe, batchSize / recipes.length);
+      }
+
+      for (BatchMode batchMode : BatchMode.values()) {
+        report(
+            "%s batches of %d: %.1f ns/cup",
+            batchMode,
+            batchSize,
+            measureNanosPerOperation(cups, () -> orderInBatches(orderBatch, batchMode, cups)));
+      }
+    }
+  }
+
+  private void orderSingly(int cups) {
+    CoffeeMachine coffeeMachine = newCoffeeMachine();
+    Recipe[] recipes = recipeCatalog.getRecipes();
+    long sold = 0;
+
+    for (int cup = 0; cup < cups; cup++) {
+      sold += coffeeMachine.order(recipes[cup % recipes.length]).isCompleted() ? 1 : 0;
+    }
+
+    checkSold(sold, cups);
+  }
+
+  private void orderInBatches(OrderBatch orderBatch, BatchMode batchMode, int cups) {
+    CoffeeMachine coffeeMachine = newCoffeeMachine();
+    int cupsPerBatch = 0;
+    long sold = 0;
+
+    for (int entry = 0; entry < orderBatch.size(); entry++) {
+      cupsPerBatch += orderBatch.getCount(entry);
+    }
+
+    for (int cup = 0; cup < cups; cup += cupsPerBatch) {
+      BatchResult batchResult = coffeeMachine.order(orderBatch, batchMode);
+
+      for (int entry = 0; entry < orderBatch.size(); entry++) {
+        sold += batchResult.getFulfilled(entry);
+      }
+    }
+
+    checkSold(sold, (cups + cupsPerBatch - 1) / cupsPerBatch * cupsPerBatch);
+  }
+
+  private CoffeeMachine newCoffeeMachine() {
+    return new CoffeeMachine(recipeCatalog, new Inventory(STOCK, STOCK, STOCK, STOCK, 0));
+  }
+
+  private void checkSold(long sold, long expected) {
+    if (sold != expected) {
+      fail("sold %d of %d cups", sold, expected);
+    }
+  }
+}
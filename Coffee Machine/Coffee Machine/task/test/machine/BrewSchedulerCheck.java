@@ -0,0 +1,90 @@
+package machine;
+
+import java.util.Arrays;
+import java.util.Random;
+
+class BrewSchedulerCheck extends Check {
+  private static final long[] BREW_MILLIS = {25_000, 30_000, 30_000};
+  private static final long[] STEAM_MILLIS = {0, 20_000, 15_000};
+
+  private final Recipe[] recipes = RecipeCatalog.createDefault().getRecipes();
+
+  @Override
+  void run() {
+    int orders = getIntProperty("orders", 10_000_000);
+    int brewGroups = getIntProperty("groups", 2);
+    double utilization = Double.parseDouble(getProperty("utilization", "0.9"));
+    long seed = getLongProperty("seed", 42);
+
+    for (String limit : getProperty("starvationLimits", "max,120000").split(",")) {
+      long starvationLimitMillis =
+          limit.trim().equals("max") ? Long.MAX_VALUE : Long.parseLong(limit.trim());
+
+      simulate(orders, brewGroups, utilization, starvationLimitMillis, seed);
+    }
+  }
+
+  private void simulate(
+      int orders, int brewGroups, double utilization, long starvationLimitMillis, long seed) {
+    int[] lastOrderIds = new int[recipes.length + 1];
+    long[] readyOrders = new long[1];
+    long[] minimumMillis = new long[recipes.length + 1];
+    Random random = new Random(seed);
+    double meanBrewMillis = 0;
+
+    Arrays.fill(lastOrderIds, -1);
+
+    BrewScheduler brewScheduler =
+        new BrewScheduler(
+            brewGroups,
+            starvationLimitMillis,
+            (orderId, recipeId, arrivalMillis, readyMillis) -> {
+              if (orderId <= lastOrderIds[recipeId]) {
+                fail("order %d of recipe %d was ready after order %d", orderId, recipeId,
+                    lastOrderIds[recipeId]);
+              }
+
+              if (readyMillis - arrivalMillis < minimumMillis[recipeId]) {
+                fail("order %d was ready %d ms after it arrived", orderId,
+                    readyMillis - arrivalMillis);
+              }
+
+              lastOrderIds[recipeId] = orderId;
+              readyOrders[0]++;
+            });
+
+    for (int i = 0; i < recipes.length; i++) {
+      brewScheduler.setBrewTimes(recipes[i], BREW_MILLIS[i], STEAM_MILLIS[i]);
+      minimumMillis[recipes[i].getId()] = BREW_MILLIS[i] + STEAM_MILLIS[i];
+      meanBrewMillis += (double) BREW_MILLIS[i] / recipes.length;
+    }
+
+    double meanInterarrivalMillis = meanBrewMillis / brewGroups / utilization;
+    double arrivalMillis = 0;
+    long startNanos = System.nanoTime();
+
+    for (int orderId = 0; orderId < orders; orderId++) {
+      arrivalMillis -= Math.log(1 - random.nextDouble()) * meanInterarrivalMillis;
+      brewScheduler.submit(
+          orderId, recipes[random.nextInt(recipes.length)], (long) arrivalMillis);
+    }
+
+    brewScheduler.finish();
+
+    long elapsedNanos = System.nanoTime() - startNanos;
+
+    if (readyOrders[0] != orders || brewScheduler.getCompletedOrders() != orders) {
+      fail("%d of %d orders were ready", readyOrders[0], orders);
+    }
+
+    report(
+        "starvation limit %s ms: %d orders at %.0f%% load, mean turnaround %.1f s, max %.1f s, "
+            + "%.0f orders/s",
+        starvationLimitMillis == Long.MAX_VALUE ? "max" : starvationLimitMillis,
+        orders,
+        utilization * 100,
+        brewScheduler.getMeanTurnaroundMillis() / 1000,
+        brewScheduler.getMaxTurnaroundMillis() / 1000.0,
+        orders * 1e9 / elapsedNanos);
+  }
+}
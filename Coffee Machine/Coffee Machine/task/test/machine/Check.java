@@ -0,0 +1,62 @@
+package machine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+abstract class Check {
+  private static final String PROPERTY_PREFIX = "check.";
+  private static final int WARM_UP_RUNS = 3;
+
+  private final List<String> failures = new ArrayList<>();
+
+  abstract void run() throws Exception;
+
+  synchronized List<String> getFailures() {
+    return failures;
+  }
+
+  synchronized void fail(String format, Object... args) {
+    failures.add(String.format(format, args));
+  }
+
+  void report(String format, Object... args) {
+    System.out.printf(getClass().getSimpleName() + ": " + format + "%n", args);
+  }
+
+  static double measureNanosPerOperation(long operations, Runnable benchmark) {
+    for (int run = 0; run < WARM_UP_RUNS; run++) {
+      benchmark.run();
+    }
+
+    long start = System.nanoTime();
+
+    benchmark.run();
+
+    return (System.nanoTime() - start) / (double) operations;
+  }
+
+  static void deleteRecursively(Path directory) throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  static String getProperty(String name, String defaultValue) {
+    return System.getProperty(PROPERTY_PREFIX + name, defaultValue);
+  }
+
+  static int getIntProperty(String name, int defaultValue) {
+    return Integer.parseInt(getProperty(name, Integer.toString(defaultValue)));
+  }
+
+  static long getLongProperty(String name, long defaultValue) {
+    return Long.parseLong(getProperty(name, Long.toString(defaultValue)));
+  }
+}
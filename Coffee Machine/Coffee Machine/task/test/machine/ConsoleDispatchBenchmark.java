@@ -0,0 +1,188 @@
+package machine;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+
+class ConsoleDispatchBenchmark extends Check {
+  private static final String[] COMMANDS = {
+    "buy", "fill", "take", "remaining", "BUY", "Take", "back", "coffee", "exit", "Remaining"
+  };
+
+  private final RecipeCatalog recipeCatalog = RecipeCatalog.createDefault();
+  private final Recipe[] recipes = recipeCatalog.getRecipes();
+  private final byte[][] commandBytes = new byte[COMMANDS.length][];
+  private long checksum;
+
+  @Override
+  void run() {
+    int lookups = getIntProperty("lookups", 10_000_000);
+    int lines = getIntProperty("lines", 1_000_000);
+
+    for (int i = 0; i < COMMANDS.length; i++) {
+      commandBytes[i] = COMMANDS[i].getBytes(StandardCharsets.ISO_8859_1);
+
+      if (Action.getInstance(commandBytes[i], commandBytes[i].length)
+          != findActionByName(COMMANDS[i])) {
+        fail("%s decodes to %s, expected %s", COMMANDS[i],
+            Action.getInstance(commandBytes[i], commandBytes[i].length),
+            findActionByName(COMMANDS[i]));
+      }
+    }
+
+    measure("action, perfect hash", lookups, () -> decodeActions(lookups));
+    measure("action, values() scan", lookups, () -> scanActions(lookups));
+    measure("recipe, id table", lookups, () -> findRecipesById(lookups));
+    measure("recipe, values() scan", lookups, () -> scanRecipes(lookups));
+
+    byte[] script = createScript(lines);
+
+    measure("line, CommandReader", lines, () -> readWithCommandReader(script));
+    measure("line, Scanner", lines, () -> readWithScanner(script));
+
+    if (checksum == 0) {
+      report("nothing was decoded");
+    }
+  }
+
+  private void measure(String label, int operations, Runnable benchmark) {
+    ThreadMXBean threadMxBean = ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    double nanos = measureNanosPerOperation(operations, benchmark);
+    long allocatedBefore = getAllocatedBytes(threadMxBean, threadId);
+
+    benchmark.run();
+
+    long allocatedBytes = getAllocatedBytes(threadMxBean, threadId) - allocatedBefore;
+
+    report(
+        "%s: %.1f ns/op, %.1f B/op allocated",
+        label,
+        nanos,
+        allocatedBefore < 0 ? -1.0 : (double) allocatedBytes / operations);
+  }
+
+  private void decodeActions(int lookups) {
+    long total = 0;
+
+    for (int i = 0; i < lookups; i++) {
+      byte[] command = commandBytes[i % COMMANDS.length];
+      Action action = Action.getInstance(command, command.length);
+
+      total += action == null ? -1 : action.ordinal();
+    }
+
+    checksum += total;
+  }
+
+  private void scanActions(int lookups) {
+    long total = 0;
+
+    for (int i = 0; i < lookups; i++) {
+      Action action = findActionByName(COMMANDS[i % COMMANDS.length]);
+
+      total += action == null ? -1 : action.ordinal();
+    }
+
+    checksum += total;
+  }
+
+  private void findRecipesById(int lookups) {
+    long total = 0;
+
+    for (int i = 0; i < lookups; i++) {
+      Recipe recipe = recipeCatalog.getRecipe(i % (recipes.length + 1) + 1);
+
+      total += recipe == null ? -1 : recipe.getPrice();
+    }
+
+    checksum += total;
+  }
+
+  private void scanRecipes(int lookups) {
+    long total = 0;
+
+    for (int i = 0; i < lookups; i++) {
+      Recipe recipe = findRecipeByScan(i % (recipes.length + 1) + 1);
+
+      total += recipe == null ? -1 : recipe.getPrice();
+    }
+
+    checksum += total;
+  }
+
+  private byte[] createScript(int lines) {
+    StringBuilder script = new StringBuilder();
+
+    for (int line = 0; line < lines; line++) {
+      script.append(COMMANDS[line % COMMANDS.length]).append('\n');
+    }
+
+    return script.toString().getBytes(StandardCharsets.ISO_8859_1);
+  }
+
+  private void readWithCommandReader(byte[] script) {
+    CommandReader commandReader = new CommandReader(new ByteArrayInputStream(script), () -> {});
+    long total = 0;
+
+    try {
+      while (commandReader.readLine()) {
+        Action action =
+            Action.getInstance(commandReader.getLine(), commandReader.getLineLength());
+
+        total += action == null ? -1 : action.ordinal();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    checksum += total;
+  }
+
+  private void readWithScanner(byte[] script) {
+    Scanner scanner = new Scanner(new ByteArrayInputStream(script), StandardCharsets.ISO_8859_1);
+    long total = 0;
+
+    while (scanner.hasNextLine()) {
+      Action action = findActionByName(scanner.nextLine());
+
+      total += action == null ? -1 : action.ordinal();
+    }
+
+    checksum += total;
+  }
+
+  // The lookups the console used before CommandReader: a values() clone per call, then
+  // equalsIgnoreCase against every constant or a comparison against every recipe.
+  private static Action findActionByName(String type) {
+    for (Action action : Action.values()) {
+      if (action.getType().equalsIgnoreCase(type)) {
+        return action;
+      }
+    }
+
+    return null;
+  }
+
+  private Recipe findRecipeByScan(int id) {
+    for (Recipe recipe : recipes.clone()) {
+      if (recipe.getId() == id) {
+        return recipe;
+      }
+    }
+
+    return null;
+  }
+
+  private static long getAllocatedBytes(ThreadMXBean threadMxBean, long threadId) {
+    if (threadMxBean instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) threadMxBean).getThreadAllocatedBytes(threadId);
+    }
+
+    return -1;
+  }
+}
@@ -0,0 +1,129 @@
+package machine;
+
+import java.util.Random;
+
+class FeasibilityKernelBenchmark extends Check {
+  private static final int INVENTORIES = 1_024;
+  private static final int MAX_AMOUNT_LEFT = 1_000_000;
+  private static final int MAX_AMOUNT_REQUIRED = 400;
+
+  private long checksum;
+
+  @Override
+  void run() {
+    int lookups = getIntProperty("lookups", 10_000_000);
+    Random random = new Random(getLongProperty("seed", 42));
+
+    for (String resources : getProperty("resources", "4,16,64").split(",")) {
+      int resourceCount = Integer.parseInt(resources.trim());
+      int[][] amountsLeft = new int[INVENTORIES][resourceCount];
+      int[][] amountsRequired = new int[INVENTORIES][resourceCount];
+
+      for (int inventory = 0; inventory < INVENTORIES; inventory++) {
+        for (int i = 0; i < resourceCount; i++) {
+          amountsLeft[inventory][i] = random.nextInt(MAX_AMOUNT_LEFT);
+          amountsRequired[inventory][i] =
+              random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(MAX_AMOUNT_REQUIRED);
+        }
+
+        int expected = divideEach(amountsLeft[inventory], amountsRequired[inventory]);
+        int actual =
+            FeasibilityKernel.calculateCupsLeft(amountsLeft[inventory], amountsRequired[inventory]);
+
+        if (actual != expected) {
+          fail("%d resources: kernel returned %d cups, expected %d", resourceCount, actual,
+              expected);
+
+          return;
+        }
+      }
+
+      if (resourceCount == Resource.STANDARD_RESOURCE_COUNT) {
+        report(
+            "%d resources, per-field code: %.1f ns/lookup",
+            resourceCount,
+            measureNanosPerOperation(
+                lookups, () -> calculatePerField(amountsLeft, amountsRequired, lookups)));
+      }
+
+      report(
+          "%d resources, int division loop: %.1f ns/lookup",
+          resourceCount,
+          measureNanosPerOperation(
+              lookups, () -> calculateByDivision(amountsLeft, amountsRequired, lookups)));
+      report(
+          "%d resources, kernel: %.1f ns/lookup",
+          resourceCount,
+          measureNanosPerOperation(
+              lookups, () -> calculateByKernel(amountsLeft, amountsRequired, lookups)));
+    }
+
+    if (checksum == 0) {
+      report("no cups could be made from any inventory");
+    }
+  }
+
+  private void calculatePerField(int[][] amountsLeft, int[][] amountsRequired, int lookups) {
+    long cups = 0;
+
+    for (int lookup = 0; lookup < lookups; lookup++) {
+      int[] left = amountsLeft[lookup & (INVENTORIES - 1)];
+      int[] required = amountsRequired[lookup & (INVENTORIES - 1)];
+      int cupsLeft = Integer.MAX_VALUE;
+
+      cupsLeft = limitCupsLeft(cupsLeft, left[0], required[0]);
+      cupsLeft = limitCupsLeft(cupsLeft, left[1], required[1]);
+      cupsLeft = limitCupsLeft(cupsLeft, left[2], required[2]);
+      cupsLeft = limitCupsLeft(cupsLeft, left[3], required[3]);
+      cups += cupsLeft;
+    }
+
+    checksum += cups;
+  }
+
+  private void calculateByDivision(int[][] amountsLeft, int[][] amountsRequired, int lookups) {
+    long cups = 0;
+
+    for (int lookup = 0; lookup < lookups; lookup++) {
+      cups +=
+          divideEach(
+              amountsLeft[lookup & (INVENTORIES - 1)], amountsRequired[lookup & (INVENTORIES - 1)]);
+    }
+
+    checksum += cups;
+  }
+
+  private void calculateByKernel(int[][] amountsLeft, int[][] amountsRequired, int lookups) {
+    long cups = 0;
+
+    for (int lookup = 0; lookup < lookups; lookup++) {
+      cups +=
+          FeasibilityKernel.calculateCupsLeft(
+              amountsLeft[lookup & (INVENTORIES - 1)], amountsRequired[lookup & (INVENTORIES - 1)]);
+    }
+
+    checksum += cups;
+  }
+
+  private static int divideEach(int[] amountsLeft, int[] amountsRequired) {
+    int cupsLeft = Integer.MAX_VALUE;
+
+    for (int i = 0; i < amountsRequired.length; i++) {
+      cupsLeft = limitCupsLeft(cupsLeft, amountsLeft[i], amountsRequired[i]);
+    }
+
+    return cupsLeft;
+  }
+
+  private static int limitCupsLeft(int cupsLeft, int amountLeft, int amountRequired) {
+    if (amountRequired > 0) {
+      int leftByAmount = amountLeft / amountRequired;
+
+      if (leftByAmount < cupsLeft) {
+        return leftByAmount;
+      }
+    }
+
+    return cupsLeft;
+  }
+}
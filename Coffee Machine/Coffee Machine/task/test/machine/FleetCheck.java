@@ -0,0 +1,209 @@
+package machine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+class FleetCheck extends Check {
+  private static final int MAX_FILL = 500;
+  private static final int MAX_CUPS = 20;
+
+  private final Recipe[] recipes = RecipeCatalog.createDefault().getRecipes();
+  private final Inventory initialInventory = new Inventory(1_200, 540, 120, 9, 550);
+
+  @Override
+  void run() throws InterruptedException {
+    int machines = getIntProperty("machines", 64);
+    int operations = getIntProperty("operations", 200_000);
+    long seed = getLongProperty("seed", 42);
+
+    compare(machines, operations, new Random(seed));
+    readConcurrently(machines, getIntProperty("threads", 8), operations, seed);
+  }
+
+  private void compare(int machines, int operations, Random random) {
+    CoffeeMachineFleet fleet = new CoffeeMachineFleet(machines, initialInventory);
+    Inventory[] inventories = new Inventory[machines];
+    int[] found = new int[machines];
+
+    for (int machine = 0; machine < machines; machine++) {
+      inventories[machine] = initialInventory;
+    }
+
+    for (int operation = 0; operation < operations; operation++) {
+      int machine = random.nextInt(machines);
+      Recipe recipe = recipes[random.nextInt(recipes.length)];
+      Inventory inventory = inventories[machine];
+      int choice = random.nextInt(10);
+
+      if (choice < 5) {
+        OrderOutcome expected =
+            OrderOutcome.getInstance(inventory.findFirstMissingResource(recipe));
+        OrderOutcome actual = fleet.order(machine, recipe);
+
+        if (actual != expected) {
+          fail("order(%d, %s) returned %s, expected %s", machine, recipe.getName(), actual,
+              expected);
+
+          return;
+        }
+
+        if (expected.isCompleted()) {
+          inventories[machine] = order(inventory, recipe);
+        }
+      } else if (choice < 7) {
+        int waterMl = random.nextInt(MAX_FILL);
+        int milkMl = random.nextInt(MAX_FILL);
+        int beansGr = random.nextInt(MAX_FILL);
+        int cups = random.nextInt(MAX_CUPS);
+
+        fleet.fill(machine, waterMl, milkMl, beansGr, cups);
+        inventories[machine] =
+            new Inventory(
+                inventory.getWaterMlLeft() + waterMl,
+                inventory.getMilkMlLeft() + milkMl,
+                inventory.getBeansGrLeft() + beansGr,
+                inventory.getDisposableCupsLeft() + cups,
+                inventory.getCash());
+      } else if (choice == 7) {
+        if (fleet.take(machine) != inventory.getCash()) {
+          fail("take(%d) disagreed with %d", machine, inventory.getCash());
+
+          return;
+        }
+
+        inventories[machine] =
+            new Inventory(
+                inventory.getWaterMlLeft(),
+                inventory.getMilkMlLeft(),
+                inventory.getBeansGrLeft(),
+                inventory.getDisposableCupsLeft(),
+                0);
+      } else if (choice == 8) {
+        int cupsLeft = fleet.calculateCoffeeCupsLeft(machine, recipe);
+
+        if (cupsLeft != inventory.calculateCoffeeCupsLeft(recipe)) {
+          fail("calculateCoffeeCupsLeft(%d, %s) returned %d, expected %d", machine,
+              recipe.getName(), cupsLeft, inventory.calculateCoffeeCupsLeft(recipe));
+
+          return;
+        }
+      } else {
+        int cups = 1 + random.nextInt(3);
+        int count = fleet.countMachinesAbleToMake(recipe, cups);
+        int foundCount = fleet.findMachinesAbleToMake(recipe, cups, found);
+        int expectedCount = 0;
+
+        for (int other = 0; other < machines; other++) {
+          if (inventories[other].calculateCoffeeCupsLeft(recipe) >= cups) {
+            if (expectedCount >= foundCount || found[expectedCount] != other) {
+              fail("findMachinesAbleToMake(%s, %d) missed machine %d", recipe.getName(), cups,
+                  other);
+
+              return;
+            }
+
+            expectedCount++;
+          }
+        }
+
+        if (count != expectedCount || foundCount != expectedCount) {
+          fail("%d machines can make %d %s, counted %d and found %d", expectedCount, cups,
+              recipe.getName(), count, foundCount);
+
+          return;
+        }
+      }
+    }
+
+    long expectedCash = 0;
+
+    for (int machine = 0; machine < machines; machine++) {
+      Inventory snapshot = fleet.snapshot(machine);
+      Inventory inventory = inventories[machine];
+
+      expectedCash += inventory.getCash();
+
+      if (snapshot.getWaterMlLeft() != inventory.getWaterMlLeft()
+          || snapshot.getMilkMlLeft() != inventory.getMilkMlLeft()
+          || snapshot.getBeansGrLeft() != inventory.getBeansGrLeft()
+          || snapshot.getDisposableCupsLeft() != inventory.getDisposableCupsLeft()
+          || snapshot.getCash() != inventory.getCash()) {
+        fail("snapshot(%d) disagreed with the per-machine inventory", machine);
+      }
+    }
+
+    if (fleet.calculateTotalCash() != expectedCash) {
+      fail("calculateTotalCash() returned %d, expected %d", fleet.calculateTotalCash(),
+          expectedCash);
+    }
+
+    report("%d machines matched per-machine inventories over %d operations", machines, operations);
+  }
+
+  private void readConcurrently(int machines, int threads, int operationsPerThread, long seed)
+      throws InterruptedException {
+    CoffeeMachineFleet fleet = new CoffeeMachineFleet(machines, initialInventory);
+    Random random = new Random(seed);
+    LongAdder mismatches = new LongAdder();
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> readers = new ArrayList<>();
+
+    for (int machine = 0; machine < machines; machine++) {
+      fleet.fill(machine, random.nextInt(MAX_FILL), random.nextInt(MAX_FILL),
+          random.nextInt(MAX_FILL), random.nextInt(MAX_CUPS));
+    }
+
+    for (int i = 0; i < threads; i++) {
+      Random readerRandom = new Random(seed + i);
+      Thread reader =
+          new Thread(
+              () -> {
+                try {
+                  start.await();
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+
+                  return;
+                }
+
+                for (int operation = 0; operation < operationsPerThread; operation++) {
+                  int machine = readerRandom.nextInt(machines);
+                  Recipe recipe = recipes[readerRandom.nextInt(recipes.length)];
+
+                  if (fleet.calculateCoffeeCupsLeft(machine, recipe)
+                      != fleet.snapshot(machine).calculateCoffeeCupsLeft(recipe)) {
+                    mismatches.increment();
+                  }
+                }
+              });
+
+      reader.start();
+      readers.add(reader);
+    }
+
+    start.countDown();
+
+    for (Thread reader : readers) {
+      reader.join();
+    }
+
+    if (mismatches.sum() != 0) {
+      fail("%d concurrent calculateCoffeeCupsLeft calls disagreed with snapshots",
+          mismatches.sum());
+    }
+
+    report("%d threads read cups left without interference", threads);
+  }
+
+  private static Inventory order(Inventory inventory, Recipe recipe) {
+    return new Inventory(
+        inventory.getWaterMlLeft() - recipe.getWaterMlRequired(),
+        inventory.getMilkMlLeft() - recipe.getMilkMlRequired(),
+        inventory.getBeansGrLeft() - recipe.getBeansGrRequired(),
+        inventory.getDisposableCupsLeft() - recipe.getDisposableCupsRequired(),
+        inventory.getCash() + recipe.getPrice());
+  }
+}
@@ -0,0 +1,114 @@
+package machine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+class InventoryStressCheck extends Check {
+  private static final int FILL_AMOUNT = 1_000;
+
+  private final RecipeCatalog recipeCatalog = RecipeCatalog.createDefault();
+  private final Inventory initialInventory = new Inventory(400_000, 540_000, 120_000, 9_000, 0);
+
+  @Override
+  void run() throws InterruptedException {
+    int operations = getIntProperty("operations", 200_000);
+    long seed = getLongProperty("seed", 42);
+
+    for (String threads : getProperty("threads", "1,2,4,8,16").split(",")) {
+      run(Integer.parseInt(threads.trim()), operations, seed);
+    }
+  }
+
+  private void run(int threads, int operationsPerThread, long seed) throws InterruptedException {
+    CoffeeMachine coffeeMachine = new CoffeeMachine(recipeCatalog, initialInventory);
+    Recipe[] recipes = recipeCatalog.getRecipes();
+    LongAdder[] completedOrders = new LongAdder[recipes.length];
+    LongAdder fills = new LongAdder();
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> buyers = new ArrayList<>();
+
+    for (int i = 0; i < recipes.length; i++) {
+      completedOrders[i] = new LongAdder();
+    }
+
+    for (int i = 0; i < threads; i++) {
+      Random random = new Random(seed + i);
+      Thread buyer =
+          new Thread(
+              () -> {
+                try {
+                  start.await();
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+
+                  return;
+                }
+
+                for (int operation = 0; operation < operationsPerThread; operation++) {
+                  if (random.nextInt(100) == 0) {
+                    coffeeMachine.refill(FILL_AMOUNT, FILL_AMOUNT, FILL_AMOUNT, FILL_AMOUNT);
+                    fills.increment();
+
+                    continue;
+                  }
+
+                  int recipe = random.nextInt(recipes.length);
+
+                  if (coffeeMachine.order(recipes[recipe]).isCompleted()) {
+                    completedOrders[recipe].increment();
+                  }
+                }
+              });
+
+      buyer.start();
+      buyers.add(buyer);
+    }
+
+    long startNanos = System.nanoTime();
+
+    start.countDown();
+
+    for (Thread buyer : buyers) {
+      buyer.join();
+    }
+
+    long elapsedNanos = System.nanoTime() - startNanos;
+    Inventory inventory = coffeeMachine.snapshot();
+    long expectedCash = initialInventory.getCash();
+    long completed = 0;
+
+    for (Resource resource : recipeCatalog.getResources()) {
+      long expected = initialInventory.getLeft(resource) + fills.sum() * FILL_AMOUNT;
+
+      for (int i = 0; i < recipes.length; i++) {
+        expected -= completedOrders[i].sum() * recipes[i].getRequired(resource);
+      }
+
+      if (inventory.getLeft(resource) < 0) {
+        fail(
+            "%d threads: %s oversold to %d",
+            threads, resource.getName(), inventory.getLeft(resource));
+      } else if (inventory.getLeft(resource) != expected) {
+        fail(
+            "%d threads: %s left %d, expected %d",
+            threads, resource.getName(), inventory.getLeft(resource), expected);
+      }
+    }
+
+    for (int i = 0; i < recipes.length; i++) {
+      expectedCash += completedOrders[i].sum() * recipes[i].getPrice();
+      completed += completedOrders[i].sum();
+    }
+
+    if (inventory.getCash() != expectedCash) {
+      fail("%d threads: cash %d, expected %d", threads, inventory.getCash(), expectedCash);
+    }
+
+    report(
+        "threads: %d, completed orders: %d, operations/s: %.0f",
+        threads, completed, (double) threads * operationsPerThread * 1e9 / elapsedNanos);
+  }
+}
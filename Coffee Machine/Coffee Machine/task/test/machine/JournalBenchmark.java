@@ -0,0 +1,60 @@
+package machine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class JournalBenchmark extends Check {
+  private static final int STOCK = 1_000_000_000;
+
+  private final RecipeCatalog recipeCatalog = RecipeCatalog.createDefault();
+  private final Inventory initialInventory = new Inventory(STOCK, STOCK, STOCK, STOCK, 0);
+
+  @Override
+  void run() throws IOException {
+    int orders = getIntProperty("orders", 2_000_000);
+
+    report(
+        "no journal: %.0f orders/s",
+        1e9
+            / measureNanosPerOperation(
+                orders, () -> order(new CoffeeMachine(recipeCatalog, initialInventory), orders)));
+
+    for (String window : getProperty("windows", "1,5,10,50,100").split(",")) {
+      long windowMillis = Long.parseLong(window.trim());
+
+      report("%d ms window: %.0f orders/s", windowMillis, 1e9 / measure(windowMillis, orders));
+    }
+  }
+
+  private double measure(long windowMillis, int orders) throws IOException {
+    Path directory = Files.createTempDirectory("journal-benchmark");
+
+    try (Journal journal = Journal.open(directory, windowMillis, initialInventory)) {
+      CoffeeMachine coffeeMachine = new CoffeeMachine(recipeCatalog, journal);
+
+      return measureNanosPerOperation(orders, () -> order(coffeeMachine, orders));
+    } finally {
+      deleteRecursively(directory);
+    }
+  }
+
+  private void order(CoffeeMachine coffeeMachine, int orders) {
+    Recipe[] recipes = recipeCatalog.getRecipes();
+    Inventory inventory = coffeeMachine.snapshot();
+
+    coffeeMachine.refill(
+        STOCK - inventory.getWaterMlLeft(),
+        STOCK - inventory.getMilkMlLeft(),
+        STOCK - inventory.getBeansGrLeft(),
+        STOCK - inventory.getDisposableCupsLeft());
+
+    for (int order = 0; order < orders; order++) {
+      if (!coffeeMachine.order(recipes[order % recipes.length]).isCompleted()) {
+        fail("order %d was rejected", order);
+
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package machine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+class JournalRecoveryCheck extends Check {
+  private static final String JOURNAL_FILE = "journal.dat";
+  private static final String SNAPSHOT_FILE = "snapshot.dat";
+  private static final long RESERVATION_TIMEOUT_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+  private final RecipeCatalog recipeCatalog = RecipeCatalog.createDefault();
+  private final Inventory initialInventory = new Inventory(400, 540, 120, 9, 55_000);
+
+  @Override
+  void run() throws IOException {
+    Path directory = Files.createTempDirectory("journal-check");
+
+    try {
+      run(directory, getIntProperty("events", 10_000_000), getLongProperty("seed", 42));
+    } finally {
+      deleteRecursively(directory);
+    }
+  }
+
+  private void run(Path directory, int events, long seed) throws IOException {
+    Random random = new Random(seed);
+    Recipe[] recipes = recipeCatalog.getRecipes();
+    List<Long> tokens = new ArrayList<>();
+    Inventory beforeLastEvent;
+    Inventory expected;
+    long lastRecordPosition;
+
+    try (Journal journal =
+        Journal.open(directory, Journal.DEFAULT_GROUP_COMMIT_WINDOW_MILLIS, initialInventory)) {
+      CoffeeMachine coffeeMachine = new CoffeeMachine(recipeCatalog, journal);
+
+      for (int event = 1; event < events; event++) {
+        apply(coffeeMachine, random, recipes, tokens);
+      }
+
+      // The machine is dropped with its reservations still open, as in a crash, so recovery
+      // has to hand their amounts back.
+      beforeLastEvent = releaseHeld(coffeeMachine.snapshot());
+      lastRecordPosition = journal.getAppendPosition();
+      coffeeMachine.refill(Resource.WATER, 1);
+      expected = releaseHeld(coffeeMachine.snapshot());
+      report("%d reservations were open at the crash", coffeeMachine.getOutstandingReservations());
+    }
+
+    compare("Recovery from the snapshot", expected, recover(directory, "snapshot"));
+    Files.delete(directory.resolve(SNAPSHOT_FILE));
+    compare("Full replay", expected, recover(directory, "full replay"));
+    Files.delete(directory.resolve(SNAPSHOT_FILE));
+
+    try (FileChannel journalChannel =
+        FileChannel.open(directory.resolve(JOURNAL_FILE), StandardOpenOption.WRITE)) {
+      // Flip a byte of the last record's cash delta, as a torn write would.
+      journalChannel.write(ByteBuffer.wrap(new byte[] {1}), lastRecordPosition + 15);
+    }
+
+    compare("Replay with a torn last record", beforeLastEvent, recover(directory, "torn tail"));
+  }
+
+  private void apply(
+      CoffeeMachine coffeeMachine, Random random, Recipe[] recipes, List<Long> tokens) {
+    int choice = random.nextInt(10);
+
+    if (choice < 6) {
+      coffeeMachine.order(recipes[random.nextInt(recipes.length)]);
+    } else if (choice < 7) {
+      Reservation reservation =
+          coffeeMachine.reserve(
+              recipes[random.nextInt(recipes.length)],
+              PricingEngine.STANDARD_TIER,
+              RESERVATION_TIMEOUT_MILLIS);
+
+      if (reservation.isReserved()) {
+        tokens.add(reservation.getToken());
+      }
+    } else if (choice < 8 && tokens.size() > 100) {
+      long token = tokens.remove(random.nextInt(tokens.size()));
+
+      if (random.nextBoolean()) {
+        coffeeMachine.commit(token);
+      } else {
+        coffeeMachine.cancel(token);
+      }
+    } else if (choice < 9) {
+      coffeeMachine.refill(
+          random.nextInt(500), random.nextInt(500), random.nextInt(100), random.nextInt(10));
+    } else {
+      coffeeMachine.collectCash();
+    }
+  }
+
+  private Inventory recover(Path directory, String phase) throws IOException {
+    long start = System.nanoTime();
+
+    try (Journal journal =
+        Journal.open(directory, Journal.DEFAULT_GROUP_COMMIT_WINDOW_MILLIS, initialInventory)) {
+      report(
+          "%s recovery took %d ms",
+          phase, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+      return journal.getRecoveredInventory();
+    }
+  }
+
+  private static Inventory releaseHeld(Inventory inventory) {
+    return new Inventory(
+        inventory.withRelease(inventory.getAmountsHeld()).getAmountsLeft(), inventory.getCash());
+  }
+
+  private void compare(String phase, Inventory expected, Inventory actual) {
+    if (expected.getCash() != actual.getCash()
+        || !Arrays.equals(expected.getAmountsLeft(), actual.getAmountsLeft())) {
+      fail(
+          "%s: expected %s and %d cash, recovered %s and %d",
+          phase,
+          Arrays.toString(expected.getAmountsLeft()),
+          expected.getCash(),
+          Arrays.toString(actual.getAmountsLeft()),
+          actual.getCash());
+    }
+  }
+}
@@ -0,0 +1,169 @@
+package machine;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class PricingBenchmark extends Check {
+  private static final int INVENTORIES = 64;
+  private static final int MAX_TIER = 3;
+  private static final int SCARCITY_CONDITIONS = 8;
+  private static final long BASIS_POINTS = 10_000;
+
+  private final Recipe[] recipes = RecipeCatalog.createDefault().getRecipes();
+  private long checksum;
+
+  @Override
+  void run() {
+    int prices = getIntProperty("prices", 1_000_000);
+    Random random = new Random(getLongProperty("seed", 42));
+    Inventory[] inventories = new Inventory[INVENTORIES];
+
+    for (int i = 0; i < INVENTORIES; i++) {
+      inventories[i] =
+          new Inventory(random.nextInt(2_000), random.nextInt(1_000), random.nextInt(200),
+              random.nextInt(20), 0);
+    }
+
+    for (String ruleCounts : getProperty("rules", "1,50,500").split(",")) {
+      int ruleCount = Integer.parseInt(ruleCounts.trim());
+
+      for (boolean hourDependent : new boolean[] {false, true}) {
+        List<PricingRule> rules = createRules(ruleCount, hourDependent, random);
+        PricingEngine pricingEngine = new PricingEngine();
+
+        pricingEngine.setRules(rules);
+
+        if (!matchesLinearScan(pricingEngine, rules, inventories)) {
+          return;
+        }
+
+        report(
+            "%d rules%s, decision table: %.1f ns/price",
+            ruleCount,
+            hourDependent ? " with hours" : "",
+            measureNanosPerOperation(
+                prices, () -> priceByTable(pricingEngine, inventories, prices)));
+        report(
+            "%d rules%s, linear scan: %.1f ns/price",
+            ruleCount,
+            hourDependent ? " with hours" : "",
+            measureNanosPerOperation(
+                prices, () -> priceByLinearScan(rules, inventories, prices)));
+      }
+    }
+
+    if (checksum == 0) {
+      report("every price was zero");
+    }
+  }
+
+  private List<PricingRule> createRules(int ruleCount, boolean hourDependent, Random random) {
+    List<PricingRule> rules = new ArrayList<>();
+
+    for (int i = 0; i < ruleCount; i++) {
+      PricingRule.Builder builder =
+          PricingRule.builder()
+              .minimumTier(random.nextInt(MAX_TIER + 1))
+              .percentChange(random.nextInt(41) - 20)
+              .amountChange(random.nextInt(21) - 10);
+
+      if (random.nextBoolean()) {
+        builder.recipe(recipes[random.nextInt(recipes.length)]);
+      }
+
+      if (hourDependent && random.nextBoolean()) {
+        builder.hours(random.nextInt(24), random.nextInt(25));
+      }
+
+      if (random.nextInt(3) == 0) {
+        int condition = random.nextInt(SCARCITY_CONDITIONS);
+
+        builder.whenBelow(
+            Resource.getStandardResources()[condition % Resource.STANDARD_RESOURCE_COUNT],
+            100 * (condition + 1));
+      }
+
+      rules.add(builder.build());
+    }
+
+    return rules;
+  }
+
+  private boolean matchesLinearScan(
+      PricingEngine pricingEngine, List<PricingRule> rules, Inventory[] inventories) {
+    int hour = ZonedDateTime.now().getHour();
+
+    for (Recipe recipe : recipes) {
+      for (Inventory inventory : inventories) {
+        for (int tier = -1; tier <= MAX_TIER + 1; tier++) {
+          long expected = priceLinearly(rules, recipe, inventory.getAmountsLeft(), hour, tier);
+          long actual = pricingEngine.price(recipe, inventory, tier);
+
+          if (actual != expected) {
+            fail("%d rules: %s at tier %d costs %d, expected %d", rules.size(),
+                recipe.getName(), tier, actual, expected);
+
+            return false;
+          }
+        }
+      }
+    }
+
+    return true;
+  }
+
+  private void priceByTable(PricingEngine pricingEngine, Inventory[] inventories, int prices) {
+    long total = 0;
+
+    for (int i = 0; i < prices; i++) {
+      total +=
+          pricingEngine.price(
+              recipes[i % recipes.length], inventories[i & (INVENTORIES - 1)], i & MAX_TIER);
+    }
+
+    checksum += total;
+  }
+
+  private void priceByLinearScan(List<PricingRule> rules, Inventory[] inventories, int prices) {
+    int hour = ZonedDateTime.now().getHour();
+    long total = 0;
+
+    for (int i = 0; i < prices; i++) {
+      total +=
+          priceLinearly(
+              rules,
+              recipes[i % recipes.length],
+              inventories[i & (INVENTORIES - 1)].getAmountsLeft(),
+              hour,
+              i & MAX_TIER);
+    }
+
+    checksum += total;
+  }
+
+  private static long priceLinearly(
+      List<PricingRule> rules, Recipe recipe, int[] amountsLeft, int hour, int tier) {
+    long basisPoints = 0;
+    long amountChange = 0;
+
+    for (PricingRule rule : rules) {
+      Resource scarceResource = rule.getScarceResource();
+
+      if ((rule.getRecipeId() == PricingRule.ANY_RECIPE || rule.getRecipeId() == recipe.getId())
+          && rule.appliesAt(hour)
+          && Math.max(tier, 0) >= rule.getMinimumTier()
+          && (scarceResource == null
+              || amountsLeft[scarceResource.getIndex()] < rule.getScarcityThreshold())) {
+        basisPoints += rule.getPercentChangeBasisPoints();
+        amountChange += rule.getAmountChange();
+      }
+    }
+
+    long scaledPrice = recipe.getPrice() * (BASIS_POINTS + basisPoints);
+
+    return Math.max(
+        Math.floorDiv(scaledPrice + BASIS_POINTS / 2, BASIS_POINTS) + amountChange, 0);
+  }
+}
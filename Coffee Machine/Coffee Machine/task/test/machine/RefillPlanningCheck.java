@@ -0,0 +1,169 @@
+package machine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+class RefillPlanningCheck extends Check {
+  private static final double TOLERANCE = 0.01;
+  private static final long HALF_LIFE_MILLIS = 60_000;
+  private static final long HORIZON_MILLIS = 60_000;
+  private static final long LEAD_TIME_MILLIS = 5_000;
+  private static final long STEP_MILLIS = 100;
+  private static final int STEPS_PER_SECOND = (int) (1_000 / STEP_MILLIS);
+  private static final int SYRUP_INDEX = Resource.STANDARD_RESOURCE_COUNT;
+
+  private final RecipeCatalog recipeCatalog = RecipeCatalog.createDefault();
+
+  @Override
+  void run() throws InterruptedException {
+    countConcurrentOrders(getIntProperty("threads", 8), getIntProperty("operations", 100_000));
+    planRefills(getIntProperty("machines", 16), getIntProperty("minutes", 10));
+  }
+
+  private void countConcurrentOrders(int threads, int operationsPerThread)
+      throws InterruptedException {
+    AtomicLong nanos = new AtomicLong();
+    ConsumptionTracker tracker = new ConsumptionTracker(Long.MAX_VALUE / 1_000_000, nanos::get);
+    CoffeeMachine coffeeMachine =
+        new CoffeeMachine(recipeCatalog, new Inventory(0, 0, 0, 0, 0), tracker);
+    Recipe espresso = recipeCatalog.getRecipe(1);
+    LongAdder completedOrders = new LongAdder();
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> buyers = new ArrayList<>();
+
+    for (int i = 0; i < threads; i++) {
+      Thread buyer =
+          new Thread(
+              () -> {
+                try {
+                  start.await();
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+
+                  return;
+                }
+
+                for (int operation = 0; operation < operationsPerThread; operation++) {
+                  if (operation % 10 == 0) {
+                    coffeeMachine.refill(2_000, 0, 100, 8);
+                  } else if (coffeeMachine.order(espresso).isCompleted()) {
+                    completedOrders.increment();
+                  }
+                }
+              });
+
+      buyer.start();
+      buyers.add(buyer);
+    }
+
+    start.countDown();
+
+    for (Thread buyer : buyers) {
+      buyer.join();
+    }
+
+    nanos.set(TimeUnit.SECONDS.toNanos(1));
+
+    double expectedRate = (double) completedOrders.sum() * espresso.getWaterMlRequired();
+    double rate = tracker.getRatePerSecond(Resource.WATER);
+
+    if (Math.abs(rate - expectedRate) > expectedRate * TOLERANCE) {
+      fail("%d threads: water rate %.1f ml/s, expected %.1f", threads, rate, expectedRate);
+    }
+
+    report("%d threads: tracked %d orders without losing consumption", threads,
+        completedOrders.sum());
+  }
+
+  private void planRefills(int machines, int minutes) {
+    AtomicLong nanos = new AtomicLong();
+    Resource syrup = new Resource(SYRUP_INDEX, "syrup", "syrup");
+    Resource[] resources = {
+      Resource.WATER, Resource.MILK, Resource.BEANS, Resource.DISPOSABLE_CUPS, syrup
+    };
+    ConsumptionTracker[] trackers = new ConsumptionTracker[machines];
+    Inventory[] inventories = new Inventory[machines];
+    int[] amountsUsed = new int[resources.length];
+
+    for (int machine = 0; machine < machines; machine++) {
+      trackers[machine] = new ConsumptionTracker(HALF_LIFE_MILLIS, nanos::get);
+    }
+
+    amountsUsed[Resource.WATER.getIndex()] = 250;
+    amountsUsed[Resource.BEANS.getIndex()] = 16;
+    amountsUsed[Resource.DISPOSABLE_CUPS.getIndex()] = 1;
+    amountsUsed[SYRUP_INDEX] = 10;
+
+    // Machine m sells 10 * m espressos with syrup a second and holds water for 10 * m seconds.
+    for (long millis = STEP_MILLIS; millis <= TimeUnit.MINUTES.toMillis(minutes);
+        millis += STEP_MILLIS) {
+      nanos.set(TimeUnit.MILLISECONDS.toNanos(millis));
+
+      for (int machine = 1; machine < machines; machine++) {
+        trackers[machine].recordConsumption(amountsUsed, machine);
+      }
+
+      if (millis % 1_000 == 0) {
+        trackers[machines - 1].getRatePerSecond(Resource.WATER);
+      }
+    }
+
+    for (int machine = 0; machine < machines; machine++) {
+      int[] amountsLeft = new int[resources.length];
+
+      amountsLeft[Resource.WATER.getIndex()] = 250 * 10 * STEPS_PER_SECOND * machine * machine;
+      amountsLeft[Resource.MILK.getIndex()] = 1_000_000;
+      amountsLeft[Resource.BEANS.getIndex()] = 1_000_000;
+      amountsLeft[Resource.DISPOSABLE_CUPS.getIndex()] = 1_000_000;
+      amountsLeft[SYRUP_INDEX] = 1_000_000;
+      inventories[machine] = new Inventory(amountsLeft, 0);
+    }
+
+    List<RefillTask> refillTasks =
+        new RefillPlanner(resources, HORIZON_MILLIS, LEAD_TIME_MILLIS).plan(inventories, trackers);
+    List<Integer> expectedMachines = new ArrayList<>();
+
+    for (int machine = 1; machine < machines; machine++) {
+      if (10_000L * machine - LEAD_TIME_MILLIS <= HORIZON_MILLIS) {
+        expectedMachines.add(machine);
+      }
+    }
+
+    if (refillTasks.size() != expectedMachines.size()) {
+      fail("planned %d refills, expected %d: %s", refillTasks.size(), expectedMachines.size(),
+          refillTasks);
+
+      return;
+    }
+
+    for (int i = 0; i < refillTasks.size(); i++) {
+      RefillTask refillTask = refillTasks.get(i);
+      int machine = expectedMachines.get(i);
+      double waterRate = 250.0 * STEPS_PER_SECOND * machine;
+      double expectedDueMillis = 10_000.0 * machine - LEAD_TIME_MILLIS;
+      double expectedWater =
+          waterRate * HORIZON_MILLIS / 1000 - inventories[machine].getLeft(Resource.WATER);
+
+      if (refillTask.getMachine() != machine
+          || refillTask.getLimitingResource() != Resource.WATER) {
+        fail("refill %d is %s, expected machine %d limited by water", i, refillTask, machine);
+      } else if (Math.abs(refillTask.getDueMillis() - expectedDueMillis)
+          > 10_000.0 * machine * TOLERANCE) {
+        fail("%s is due in %d ms, expected %.0f", refillTask, refillTask.getDueMillis(),
+            expectedDueMillis);
+      } else if (Math.abs(refillTask.getAmountToAdd(Resource.WATER) - expectedWater)
+          > waterRate * HORIZON_MILLIS / 1000 * TOLERANCE) {
+        fail("%s adds %d ml of water, expected %.0f", refillTask,
+            refillTask.getAmountToAdd(Resource.WATER), expectedWater);
+      } else if (refillTask.getAmountToAdd(syrup) != 0) {
+        fail("%s adds %d syrup, expected none", refillTask, refillTask.getAmountToAdd(syrup));
+      }
+    }
+
+    report("planned %d refills for %d machines in due order", refillTasks.size(), machines);
+  }
+}
@@ -0,0 +1,115 @@
+package machine;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+class ReservationBookCheck extends Check {
+  private static final long TICK_MILLIS = 10;
+
+  @Override
+  void run() {
+    int operations = getIntProperty("operations", 200_000);
+    long seed = getLongProperty("seed", 42);
+
+    for (String wheelSize : getProperty("wheelSizes", "4,64,512").split(",")) {
+      if (!compare(Integer.parseInt(wheelSize.trim()), operations, new Random(seed))) {
+        return;
+      }
+    }
+  }
+
+  private boolean compare(int wheelSize, int operations, Random random) {
+    long nowMillis = 1_000_000 + random.nextInt(1_000);
+    long maxTimeoutMillis = TICK_MILLIS * wheelSize * wheelSize * 3;
+    ReservationBook reservationBook = new ReservationBook(TICK_MILLIS, wheelSize, nowMillis);
+    Map<Recipe, Long> expiries = new IdentityHashMap<>();
+    Map<Recipe, Long> tokens = new IdentityHashMap<>();
+    List<Recipe> outstanding = new ArrayList<>();
+    List<Recipe> expired = new ArrayList<>();
+    int expiredCount = 0;
+
+    for (int operation = 0; operation < operations; operation++) {
+      int choice = random.nextInt(10);
+
+      if (choice < 5) {
+        Recipe recipe = new Recipe(operation, "reservation", 0, Map.of());
+        long timeoutMillis =
+            random.nextBoolean()
+                ? random.nextInt((int) TICK_MILLIS * wheelSize)
+                : (long) (random.nextDouble() * maxTimeoutMillis);
+        long expiresAtMillis = nowMillis + timeoutMillis;
+
+        tokens.put(recipe, reservationBook.add(recipe, 0, expiresAtMillis));
+        expiries.put(recipe, Math.max(expiresAtMillis, nowMillis + TICK_MILLIS));
+        outstanding.add(recipe);
+      } else if (choice < 7 && !outstanding.isEmpty()) {
+        Recipe recipe = outstanding.remove(random.nextInt(outstanding.size()));
+        int slot = reservationBook.find(tokens.get(recipe));
+
+        if (slot < 0 || reservationBook.getRecipe(slot) != recipe) {
+          fail("wheel of %d: outstanding reservation %d was not found", wheelSize,
+              recipe.getId());
+
+          return false;
+        }
+
+        reservationBook.remove(slot);
+        expiries.remove(recipe);
+      } else {
+        nowMillis +=
+            random.nextInt(20) == 0
+                ? (long) (random.nextDouble() * maxTimeoutMillis)
+                : random.nextInt((int) TICK_MILLIS * 3);
+
+        long targetTick = Math.floorDiv(nowMillis, TICK_MILLIS);
+
+        expired.clear();
+        expiredCount += reservationBook.expire(nowMillis, expired::add);
+
+        for (Recipe recipe : expired) {
+          Long expiresAtMillis = expiries.remove(recipe);
+
+          if (expiresAtMillis == null || Math.floorDiv(expiresAtMillis, TICK_MILLIS) > targetTick) {
+            fail("wheel of %d: reservation %d expired early", wheelSize, recipe.getId());
+
+            return false;
+          }
+        }
+
+        outstanding.removeIf(recipe -> !expiries.containsKey(recipe));
+
+        for (Recipe recipe : outstanding) {
+          if (Math.floorDiv(expiries.get(recipe), TICK_MILLIS) <= targetTick) {
+            fail("wheel of %d: reservation %d outlived its expiry", wheelSize, recipe.getId());
+
+            return false;
+          }
+        }
+      }
+
+      if (reservationBook.getOutstanding() != outstanding.size()) {
+        fail("wheel of %d: %d reservations outstanding, expected %d", wheelSize,
+            reservationBook.getOutstanding(), outstanding.size());
+
+        return false;
+      }
+    }
+
+    int cleared = reservationBook.clear(recipe -> expiries.remove(recipe));
+
+    if (cleared != outstanding.size() || !expiries.isEmpty()) {
+      fail("wheel of %d: clear released %d of %d reservations", wheelSize, cleared,
+          outstanding.size());
+
+      return false;
+    }
+
+    report("wheel of %d matched the model over %d operations, %d expiries", wheelSize,
+        operations, expiredCount);
+
+    return true;
+  }
+}
@@ -0,0 +1,173 @@
+package machine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+class ShardRebalanceCheck extends Check {
+  private static final int STOCK = 1_000_000_000;
+  private static final int WINDOW = 1_024;
+  private static final int REFILL_AMOUNT = 7;
+
+  private final RecipeCatalog recipeCatalog = RecipeCatalog.createDefault();
+  private final Recipe[] recipes = recipeCatalog.getRecipes();
+
+  @Override
+  void run() throws InterruptedException {
+    int machines = getIntProperty("machines", 256);
+    int clients = getIntProperty("clients", 8);
+    int operations = getIntProperty("operations", 200_000);
+    int addedShards = getIntProperty("addedShards", 6);
+    Inventory initialInventory = new Inventory(STOCK, STOCK, STOCK, STOCK, 0);
+    ShardedCoffeeMachineService service =
+        new ShardedCoffeeMachineService(
+            recipeCatalog, 2, ShardedCoffeeMachineService.DEFAULT_VIRTUAL_NODES);
+    MachineModel[] models = new MachineModel[machines];
+
+    try {
+      for (int machine = 0; machine < machines; machine++) {
+        models[machine] = new MachineModel("machine-" + machine);
+        service.addMachine(models[machine].machineId, initialInventory).join();
+      }
+
+      CountDownLatch start = new CountDownLatch(1);
+      List<Thread> clientThreads = new ArrayList<>();
+      int movedMachines = 0;
+
+      for (int client = 0; client < clients; client++) {
+        int firstMachine = client;
+        Random random = new Random(getLongProperty("seed", 42) + client);
+        Thread clientThread =
+            new Thread(
+                () -> {
+                  try {
+                    start.await();
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+
+                    return;
+                  }
+
+                  send(service, models, firstMachine, clients, operations, random);
+                });
+
+        clientThread.start();
+        clientThreads.add(clientThread);
+      }
+
+      start.countDown();
+
+      for (int shard = 0; shard < addedShards; shard++) {
+        Thread.sleep(20);
+        movedMachines += service.addShard();
+      }
+
+      for (Thread clientThread : clientThreads) {
+        clientThread.join();
+      }
+
+      for (MachineModel model : models) {
+        Inventory inventory = service.snapshot(model.machineId);
+
+        for (Resource resource : Resource.getStandardResources()) {
+          long expected = STOCK - model.used[resource.getIndex()] + model.refilled;
+
+          if (inventory.getLeft(resource) != expected) {
+            fail("%s has %d %s left, expected %d", model.machineId, inventory.getLeft(resource),
+                resource, expected);
+          }
+        }
+
+        if (inventory.getCash() != model.uncollectedCash) {
+          fail("%s holds %d cash, expected %d", model.machineId, inventory.getCash(),
+              model.uncollectedCash);
+        }
+      }
+
+      report(
+          "%d clients kept per-machine order while %d shards were added and %d machines moved",
+          clients,
+          addedShards,
+          movedMachines);
+    } finally {
+      service.close();
+    }
+  }
+
+  private void send(
+      ShardedCoffeeMachineService service,
+      MachineModel[] models,
+      int firstMachine,
+      int stride,
+      int operations,
+      Random random) {
+    List<CompletableFuture<?>> results = new ArrayList<>();
+    List<Long> expectedResults = new ArrayList<>();
+    int ownMachines = (models.length - firstMachine + stride - 1) / stride;
+
+    for (int operation = 0; operation < operations; operation++) {
+      MachineModel model = models[firstMachine + random.nextInt(ownMachines) * stride];
+      int choice = random.nextInt(10);
+
+      if (choice < 7) {
+        Recipe recipe = recipes[random.nextInt(recipes.length)];
+
+        results.add(service.order(model.machineId, recipe));
+        expectedResults.add(null);
+        model.order(recipe);
+      } else if (choice < 9) {
+        results.add(service.collectCash(model.machineId));
+        expectedResults.add(model.uncollectedCash);
+        model.uncollectedCash = 0;
+      } else {
+        int[] amountsToAdd = new int[Resource.STANDARD_RESOURCE_COUNT];
+
+        Arrays.fill(amountsToAdd, REFILL_AMOUNT);
+        results.add(service.refill(model.machineId, amountsToAdd));
+        expectedResults.add(null);
+        model.refilled += REFILL_AMOUNT;
+      }
+
+      if (results.size() == WINDOW || operation == operations - 1) {
+        verify(results, expectedResults);
+        results.clear();
+        expectedResults.clear();
+      }
+    }
+  }
+
+  private void verify(List<CompletableFuture<?>> results, List<Long> expectedResults) {
+    for (int i = 0; i < results.size(); i++) {
+      Object result = results.get(i).join();
+      Long expected = expectedResults.get(i);
+
+      if (result instanceof OrderOutcome && !((OrderOutcome) result).isCompleted()) {
+        fail("an order failed with %s", result);
+      } else if (expected != null && !expected.equals(result)) {
+        fail("collected %s, expected %d: operations ran out of order", result, expected);
+      }
+    }
+  }
+
+  private static final class MachineModel {
+    private final String machineId;
+    private final long[] used = new long[Resource.STANDARD_RESOURCE_COUNT];
+    private long uncollectedCash;
+    private long refilled;
+
+    private MachineModel(String machineId) {
+      this.machineId = machineId;
+    }
+
+    private void order(Recipe recipe) {
+      for (Resource resource : Resource.getStandardResources()) {
+        used[resource.getIndex()] += recipe.getRequired(resource);
+      }
+
+      uncollectedCash += recipe.getPrice();
+    }
+  }
+}
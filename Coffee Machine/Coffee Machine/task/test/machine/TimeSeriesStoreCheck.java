@@ -0,0 +1,170 @@
+package machine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+class TimeSeriesStoreCheck extends Check {
+  private static final String DATA_FILE = "timeseries.dat";
+  private static final int COLUMNS = Resource.STANDARD_RESOURCE_COUNT + 1;
+  private static final long START_MILLIS = 1_700_000_000_000L;
+  private static final long[] BUCKET_MILLIS = {600_000, 30L * 24 * 60 * 60 * 1000};
+  private static final int QUIET_POINTS = 20;
+
+  private final Random random = new Random(getLongProperty("seed", 42));
+  private long[][] timestamps;
+  private long[][][] values;
+  private int[] pointCounts;
+
+  @Override
+  void run() throws IOException {
+    Path directory = Files.createTempDirectory("history-check");
+
+    try {
+      run(directory, getIntProperty("series", 16), getIntProperty("points", 10_000));
+      checkQuietMachine(directory.resolve("quiet"));
+    } finally {
+      deleteRecursively(directory);
+    }
+  }
+
+  private void run(Path directory, int series, int points) throws IOException {
+    timestamps = new long[series][points + TimeSeriesStore.POINTS_PER_CHUNK];
+    values = new long[series][points + TimeSeriesStore.POINTS_PER_CHUNK][COLUMNS];
+    pointCounts = new int[series];
+
+    TimeSeriesStore crashed = TimeSeriesStore.open(directory, COLUMNS);
+
+    for (int point = 0; point < points; point++) {
+      for (int seriesId = 0; seriesId < series; seriesId++) {
+        append(crashed, seriesId);
+      }
+    }
+
+    long sealedBytes = crashed.getSealedBytes();
+    long sealedPoints = (long) series * (points - points % TimeSeriesStore.POINTS_PER_CHUNK);
+
+    // The first store is never closed, as in a crash, so its open chunks only live in the tail.
+    try (TimeSeriesStore recovered = TimeSeriesStore.open(directory, COLUMNS)) {
+      compare("Recovery without close", recovered);
+    } finally {
+      crashed.close();
+    }
+
+    report("%.1f B/point in %d sealed points", (double) sealedBytes / sealedPoints, sealedPoints);
+
+    long tornChunkPosition;
+
+    try (TimeSeriesStore store = TimeSeriesStore.open(directory, COLUMNS)) {
+      tornChunkPosition = store.getSealedBytes();
+
+      while (store.getSealedBytes() == tornChunkPosition) {
+        append(store, 0);
+      }
+    }
+
+    try (FileChannel dataChannel =
+        FileChannel.open(directory.resolve(DATA_FILE), StandardOpenOption.WRITE)) {
+      byte[] garbage = new byte[32];
+
+      // Overwrite the last chunk's header after its size marker, as a torn seal would.
+      Arrays.fill(garbage, (byte) 0x5A);
+      dataChannel.write(ByteBuffer.wrap(garbage), tornChunkPosition + 8);
+    }
+
+    try (TimeSeriesStore recovered = TimeSeriesStore.open(directory, COLUMNS)) {
+      compare("Recovery from a torn seal", recovered);
+    }
+  }
+
+  private void checkQuietMachine(Path directory) throws IOException {
+    try (TimeSeriesStore store = TimeSeriesStore.open(directory, COLUMNS)) {
+      timestamps = new long[1][QUIET_POINTS];
+      values = new long[1][QUIET_POINTS][COLUMNS];
+      pointCounts = new int[1];
+
+      for (int point = 0; point < QUIET_POINTS; point++) {
+        append(store, 0);
+      }
+
+      if (store.getSealedBytes() != 0) {
+        fail("%d points of a quiet machine sealed %d bytes", QUIET_POINTS,
+            store.getSealedBytes());
+      }
+    }
+
+    try (TimeSeriesStore recovered = TimeSeriesStore.open(directory, COLUMNS)) {
+      compare("Recovery of a quiet machine", recovered);
+    }
+  }
+
+  private void append(TimeSeriesStore store, int seriesId) {
+    int point = pointCounts[seriesId]++;
+    long[] current = values[seriesId][point];
+
+    if (point == 0) {
+      timestamps[seriesId][point] = START_MILLIS + random.nextInt(60_000);
+      Arrays.fill(current, 1_000_000);
+    } else {
+      timestamps[seriesId][point] = timestamps[seriesId][point - 1] + random.nextInt(120_000);
+      System.arraycopy(values[seriesId][point - 1], 0, current, 0, COLUMNS);
+
+      if (random.nextInt(50) == 0) {
+        Arrays.fill(current, 1, COLUMNS, 1_000_000);
+      } else {
+        current[0] += 400 + random.nextInt(300);
+
+        for (int column = 1; column < COLUMNS; column++) {
+          current[column] -= random.nextInt(250);
+        }
+      }
+    }
+
+    store.append(seriesId, timestamps[seriesId][point], current);
+  }
+
+  private void compare(String label, TimeSeriesStore store) {
+    for (int seriesId = 0; seriesId < pointCounts.length; seriesId++) {
+      long fromMillis = START_MILLIS;
+      long toMillis = timestamps[seriesId][pointCounts[seriesId] - 1] + 1;
+
+      for (long bucketMillis : BUCKET_MILLIS) {
+        for (int column = 0; column < COLUMNS; column++) {
+          DownsampledSeries actual =
+              store.query(seriesId, column, fromMillis, toMillis, bucketMillis);
+          DownsampledSeries expected =
+              new DownsampledSeries(fromMillis, bucketMillis, actual.size());
+
+          for (int point = 0; point < pointCounts[seriesId]; point++) {
+            long timestamp = timestamps[seriesId][point];
+
+            expected.add(expected.getBucket(timestamp), values[seriesId][point][column]);
+          }
+
+          for (int bucket = 0; bucket < actual.size(); bucket++) {
+            if (actual.getCount(bucket) != expected.getCount(bucket)
+                || actual.getMinimum(bucket) != expected.getMinimum(bucket)
+                || actual.getMaximum(bucket) != expected.getMaximum(bucket)
+                || actual.getLast(bucket) != expected.getLast(bucket)) {
+              fail("%s: series %d column %d, %d ms bucket %d holds %d points %d..%d last %d, "
+                      + "expected %d points %d..%d last %d",
+                  label, seriesId, column, bucketMillis, bucket, actual.getCount(bucket),
+                  actual.getMinimum(bucket), actual.getMaximum(bucket), actual.getLast(bucket),
+                  expected.getCount(bucket), expected.getMinimum(bucket),
+                  expected.getMaximum(bucket), expected.getLast(bucket));
+
+              return;
+            }
+          }
+        }
+      }
+    }
+
+    report("%s returned all points of %d series", label, pointCounts.length);
+  }
+}